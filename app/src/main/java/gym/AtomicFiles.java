@@ -0,0 +1,135 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * AtomicFiles class replaces files so that a crash or power loss while saving
+ * never leaves a half-written file behind.
+ *
+ * The new contents are written to a temporary file next to the target and forced
+ * to disk, then renamed over the target in one step, so the target always holds
+ * either the old or the new contents. The previous versions are kept as rolling
+ * backups "name.bak1" (the newest) to "name.bakN".
+ */
+public class AtomicFiles {
+    // Number of previous versions kept by default
+    public static final int DEFAULT_BACKUPS = 3;
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Replaces a file with new contents, keeping DEFAULT_BACKUPS previous versions
+     * @param file the file to replace
+     * @param contents the new contents
+     * @throws IOException if the file cannot be written; the old contents are then unchanged
+     */
+    public static void replace(File file, byte[] contents) throws IOException {
+        replace(file, ByteBuffer.wrap(contents), DEFAULT_BACKUPS);
+    }
+
+    /**
+     * Replaces a file with new contents
+     * @param file the file to replace
+     * @param contents the new contents, from the position to the limit
+     * @param backups the number of previous versions to keep, 0 for none
+     * @throws IOException if the file cannot be written; the old contents are then unchanged
+     */
+    public static void replace(File file, ByteBuffer contents, int backups) throws IOException {
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        ByteBuffer out = contents.duplicate();
+        FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+
+        if (backups > 0 && Files.exists(target)) {
+            rotateBackups(file, target, backups);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target.getParent());
+    }
+
+    /**
+     * Returns a backup of a file
+     * @param file the file
+     * @param number 1 for the newest backup
+     * @return the backup file, which may not exist
+     */
+    public static File backupFile(File file, int number) {
+        return new File(file.getPath() + ".bak" + number);
+    }
+
+    /**
+     * Deletes a file together with its backups and any temporary file left by a crash
+     * @param file the file
+     */
+    public static void deleteWithBackups(File file) {
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+        for (int i = 1; backupFile(file, i).exists(); i++) {
+            backupFile(file, i).delete();
+        }
+    }
+
+    /**
+     * Shifts each backup one place older and makes the current file the newest backup
+     */
+    private static void rotateBackups(File file, Path target, int backups) throws IOException {
+        for (int i = backups; i > 1; i--) {
+            Path older = backupFile(file, i - 1).getAbsoluteFile().toPath();
+            if (Files.exists(older)) {
+                Files.move(older, backupFile(file, i).getAbsoluteFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        // A hard link keeps the current contents without copying them; the rename then replaces only the name
+        Path newest = backupFile(file, 1).getAbsoluteFile().toPath();
+        Files.deleteIfExists(newest);
+        try {
+            Files.createLink(newest, target);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(target, newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces a directory entry change such as a rename to disk, where the platform allows it
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ);
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Directories cannot be opened for syncing on some platforms, such as Windows
+        }
+    }
+}
@@ -0,0 +1,606 @@
+package gym;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * AttendanceLog class records every visit as a member ID, timestamp and branch,
+ * so visits can be counted per hour or day and looked up per member later.
+ *
+ * The file holds a header followed by fixed-size 16 byte records in time order:
+ * timestamp in milliseconds, member ID and branch code. Records are appended in
+ * blocks of up to BLOCK_RECORDS with one write each, so the file is never rewritten.
+ * Because records are in time order, a time window is found with a binary search
+ * and only the records inside it are read, which keeps queries fast with tens of
+ * millions of visits.
+ *
+ * Recording a visit does no I/O: it is added to one of several striped buffers,
+ * picked by the recording thread, so check-ins on different threads rarely wait for
+ * each other or for the disk. The buffers are merged in time order and written by
+ * flush or sync, which the member persistence writer calls after each batch of
+ * changes (see PersistenceWriter). A buffer that fills up before then is written
+ * by the thread that filled it.
+ *
+ * Branch names are stored once, one per line, in a ".branches" file next to the log,
+ * and sync forces it to disk before the records that use its names.
+ * All methods are thread-safe.
+ */
+public class AttendanceLog {
+    // File identification
+    private static final int MAGIC = 0x47594D41; // "GYMA"
+    private static final int VERSION = 1;
+
+    // Header: magic, version and 8 reserved bytes
+    private static final int HEADER_SIZE = 16;
+
+    // Record: timestamp, member ID, branch code
+    private static final int RECORD_SIZE = 8 + 4 + 4;
+
+    // Records written together, and records read at a time by queries
+    public static final int BLOCK_RECORDS = 256;
+    private static final int READ_RECORDS = 4096;
+
+    // Buffers visits are recorded into, and the visits a buffer holds before it is written
+    private static final int STRIPES = 8;
+    private static final int STRIPE_RECORDS = 16 * BLOCK_RECORDS;
+
+    public static final long HOUR = 60L * 60 * 1000;
+    public static final long DAY = 24 * HOUR;
+
+    private final FileChannel channel;
+    private final File branchFile;
+
+    // Open once a new branch is added, guarded by this
+    private FileOutputStream branchOutput;
+
+    // Branch names by code and codes by name, guarded by this
+    private final List<String> branches;
+    private final HashMap<String, Integer> branchCodes;
+
+    // Recorded visits, each buffer guarded by itself
+    private final Stripe[] stripes;
+
+    // Records merged from the buffers and not written yet, guarded by this
+    private final ByteBuffer block;
+
+    // Records in the file, and the time of the last record, guarded by this
+    private long written;
+    private long lastTimestamp;
+
+    // True if records or branch names were written since the last sync, guarded by this
+    private boolean unsynced;
+    private boolean branchesUnsynced;
+
+    // First write error, reported by the next flush
+    private IOException writeError;
+
+    private AttendanceLog(FileChannel channel, File branchFile, List<String> branches, long written,
+                          long lastTimestamp) {
+        this.channel = channel;
+        this.branchFile = branchFile;
+        this.branches = branches;
+        this.branchCodes = new HashMap<>();
+        for (int i = 0; i < branches.size(); i++) {
+            branchCodes.put(branches.get(i), i);
+        }
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(BLOCK_RECORDS);
+        }
+        this.block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        this.written = written;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    /**
+     * Opens an attendance log, creating it if needed.
+     * A partial record left by a crash at the end of the file is dropped.
+     * @param file the log file
+     * @return the opened log
+     * @throws IOException if the file cannot be opened or is not an attendance log
+     */
+    public static AttendanceLog open(File file) throws IOException {
+        File branchFile = new File(file.getPath() + ".branches");
+        List<String> branches = new ArrayList<>();
+        if (branchFile.exists()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(branchFile), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    branches.add(line);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            if (channel.size() < HEADER_SIZE) {
+                header.putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+                channel.force(true);
+            } else {
+                readFully(channel, header, 0);
+                if (header.getInt(0) != MAGIC) {
+                    throw new IOException("Not an attendance log file: " + file);
+                }
+                if (header.getInt(4) != VERSION) {
+                    throw new IOException("Unsupported attendance log version: " + header.getInt(4));
+                }
+            }
+
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+
+            long lastTimestamp = Long.MIN_VALUE;
+            if (records > 0) {
+                ByteBuffer last = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN);
+                readFully(channel, last, HEADER_SIZE + (records - 1) * RECORD_SIZE);
+                lastTimestamp = last.getLong(0);
+            }
+            return new AttendanceLog(channel, branchFile, branches, records, lastTimestamp);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Records a visit in the buffer of the calling thread, to be written by the next
+     * flush or sync. A write error is kept and thrown by the next flush. Timestamps
+     * earlier than the last recorded visit are moved up to it, so the log stays in
+     * time order.
+     * @param memberId the numeric member ID
+     * @param branch the branch visited, such as the member's location
+     * @param timestamp the time of the visit in milliseconds since the epoch
+     * @throws NumberFormatException if the member ID is not a number without leading zeros
+     */
+    public void record(String memberId, String branch, long timestamp) {
+        int id = parseMemberId(memberId);
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        boolean full;
+        synchronized (stripe) {
+            stripe.add(timestamp, id, branch == null ? "" : branch);
+            full = stripe.count >= STRIPE_RECORDS;
+        }
+
+        // Nobody has written the buffers for a while, so the buffer is not allowed to grow further
+        if (full) {
+            synchronized (this) {
+                try {
+                    drain();
+                } catch (IOException e) {
+                    if (writeError == null) {
+                        writeError = e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all recorded visits, without forcing them to disk
+     * @throws IOException if these or earlier visits could not be written
+     */
+    public synchronized void flush() throws IOException {
+        if (writeError != null) {
+            IOException error = writeError;
+            writeError = null;
+            throw error;
+        }
+        drain();
+        writeBlock();
+    }
+
+    /**
+     * Writes all recorded visits and forces them and any new branch names to disk
+     * @throws IOException if the visits could not be written
+     */
+    public synchronized void sync() throws IOException {
+        flush();
+
+        // Branch names first, so a record on disk never refers to a lost name
+        if (branchesUnsynced) {
+            branchOutput.getFD().sync();
+            branchesUnsynced = false;
+        }
+        if (unsynced) {
+            channel.force(false);
+            unsynced = false;
+        }
+    }
+
+    /**
+     * Writes all recorded visits and closes the log
+     * @throws IOException if the visits could not be written
+     */
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+            if (branchOutput != null) {
+                branchOutput.close();
+            }
+        }
+    }
+
+    /**
+     * @return the number of recorded visits
+     */
+    public synchronized long size() {
+        long pending = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                pending += stripe.count;
+            }
+        }
+        return written + block.position() / RECORD_SIZE + pending;
+    }
+
+    /**
+     * Counts visits in consecutive intervals, such as hours or days
+     * @param from the start of the first interval in milliseconds since the epoch
+     * @param to the end of the last interval, exclusive
+     * @param interval the length of each interval in milliseconds
+     * @param branch the branch to count, or null for all branches
+     * @return the number of visits in each interval
+     * @throws IOException if the log cannot be read
+     */
+    public long[] countByInterval(long from, long to, long interval, String branch) throws IOException {
+        if (interval <= 0 || to < from) {
+            throw new IllegalArgumentException("Invalid interval " + interval + " from " + from + " to " + to);
+        }
+        long[] counts = new long[(int) ((to - from + interval - 1) / interval)];
+        int branchCode = branchFilter(branch);
+        if (branchCode == NO_BRANCH) {
+            return counts;
+        }
+
+        Cursor cursor = new Cursor(from, to);
+        while (cursor.next()) {
+            if (branchCode < 0 || cursor.branch == branchCode) {
+                counts[(int) ((cursor.timestamp - from) / interval)]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts visits per hour
+     * @see #countByInterval(long, long, long, String)
+     */
+    public long[] countByHour(long from, long to, String branch) throws IOException {
+        return countByInterval(from, to, HOUR, branch);
+    }
+
+    /**
+     * Counts visits per day, in days of 24 hours starting at from
+     * @see #countByInterval(long, long, long, String)
+     */
+    public long[] countByDay(long from, long to, String branch) throws IOException {
+        return countByInterval(from, to, DAY, branch);
+    }
+
+    /**
+     * Counts visits by the hour of the day they happened in, to find the busiest hours
+     * @param from the start of the window in milliseconds since the epoch
+     * @param to the end of the window, exclusive
+     * @param zone the time zone of the gym
+     * @param branch the branch to count, or null for all branches
+     * @return 24 counts, index 0 for visits between midnight and 1 am
+     * @throws IOException if the log cannot be read
+     */
+    public long[] countByHourOfDay(long from, long to, ZoneId zone, String branch) throws IOException {
+        long[] counts = new long[24];
+        int branchCode = branchFilter(branch);
+        if (branchCode == NO_BRANCH) {
+            return counts;
+        }
+
+        Cursor cursor = new Cursor(from, to);
+        while (cursor.next()) {
+            if (branchCode < 0 || cursor.branch == branchCode) {
+                counts[Instant.ofEpochMilli(cursor.timestamp).atZone(zone).getHour()]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Parses a member ID into the number stored in the log. Only IDs written the way
+     * the number prints are accepted, so "007" and "7" cannot share one member's visits.
+     * @param memberId the member ID
+     * @return the number
+     * @throws NumberFormatException if the ID is not a number, or has leading zeros or a plus sign
+     */
+    public static int parseMemberId(String memberId) {
+        int id = Integer.parseInt(memberId);
+        if (!String.valueOf(id).equals(memberId)) {
+            throw new NumberFormatException("Member ID must be written without leading zeros: " + memberId);
+        }
+        return id;
+    }
+
+    /**
+     * Finds the visits of one member
+     * @param memberId the member ID
+     * @param from the start of the window in milliseconds since the epoch
+     * @param to the end of the window, exclusive
+     * @return the visit timestamps in time order
+     * @throws IOException if the log cannot be read
+     * @throws NumberFormatException if the member ID is not a number without leading zeros
+     */
+    public List<Long> findVisits(String memberId, long from, long to) throws IOException {
+        int id = parseMemberId(memberId);
+        List<Long> visits = new ArrayList<>();
+        Cursor cursor = new Cursor(from, to);
+        while (cursor.next()) {
+            if (cursor.memberId == id) {
+                visits.add(cursor.timestamp);
+            }
+        }
+        return visits;
+    }
+
+    // Branch filter values: every branch, or a branch that has no visits
+    private static final int ALL_BRANCHES = -1;
+    private static final int NO_BRANCH = -2;
+
+    /**
+     * Returns the code to filter a query by
+     */
+    private synchronized int branchFilter(String branch) {
+        if (branch == null) {
+            return ALL_BRANCHES;
+        }
+        Integer code = branchCodes.get(branch);
+        return code == null ? NO_BRANCH : code;
+    }
+
+    /**
+     * Returns the code of a branch, storing new branch names
+     */
+    private int branchCode(String branch) {
+        Integer code = branchCodes.get(branch);
+        if (code != null) {
+            return code;
+        }
+
+        // New branches are rare, so the name is appended straight away and forced by the next sync
+        try {
+            if (branchOutput == null) {
+                branchOutput = new FileOutputStream(branchFile, true);
+            }
+            branchOutput.write((branch.replace('\n', ' ').replace('\r', ' ') + "\n").getBytes(StandardCharsets.UTF_8));
+            branchesUnsynced = true;
+        } catch (IOException e) {
+            if (writeError == null) {
+                writeError = e;
+            }
+        }
+
+        branches.add(branch);
+        branchCodes.put(branch, branches.size() - 1);
+        return branches.size() - 1;
+    }
+
+    /**
+     * Takes the visits of every buffer and adds them to the block in time order,
+     * writing the block whenever it fills up. Called while holding this.
+     */
+    private void drain() throws IOException {
+        Stripe[] taken = new Stripe[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                taken[i] = stripes[i].take();
+            }
+        }
+
+        // Each buffer is in time order, so repeatedly taking the earliest first visit merges them
+        int[] next = new int[taken.length];
+        while (true) {
+            int earliest = -1;
+            for (int i = 0; i < taken.length; i++) {
+                if (next[i] < taken[i].count && (earliest < 0
+                        || taken[i].timestamps[next[i]] < taken[earliest].timestamps[next[earliest]])) {
+                    earliest = i;
+                }
+            }
+            if (earliest < 0) {
+                return;
+            }
+
+            Stripe stripe = taken[earliest];
+            int visit = next[earliest]++;
+            long timestamp = Math.max(stripe.timestamps[visit], lastTimestamp);
+            lastTimestamp = timestamp;
+            block.putLong(timestamp).putInt(stripe.memberIds[visit]).putInt(branchCode(stripe.branches[visit]));
+            if (!block.hasRemaining()) {
+                writeBlock();
+            }
+        }
+    }
+
+    /**
+     * Appends the waiting records to the file
+     */
+    private void writeBlock() throws IOException {
+        if (block.position() == 0) {
+            return;
+        }
+
+        block.flip();
+        long records = block.remaining() / RECORD_SIZE;
+        try {
+            long position = HEADER_SIZE + written * RECORD_SIZE;
+            while (block.hasRemaining()) {
+                position += channel.write(block, position);
+            }
+            written += records;
+            unsynced = true;
+        } finally {
+            block.clear();
+        }
+    }
+
+    /**
+     * Writes waiting records so queries see them
+     * @return the number of records in the file
+     */
+    private synchronized long flushForRead() throws IOException {
+        drain();
+        writeBlock();
+        return written;
+    }
+
+    /**
+     * Finds the first record with a timestamp at or after the given time
+     */
+    private long firstAtOrAfter(long time, long records) throws IOException {
+        ByteBuffer timestamp = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN);
+        long low = 0;
+        long high = records;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            timestamp.clear();
+            readFully(channel, timestamp, HEADER_SIZE + middle * RECORD_SIZE);
+            if (timestamp.getLong(0) < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Attendance log ended early");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Visits recorded into one buffer and not yet merged, in time order
+     */
+    private static class Stripe {
+        private static final Stripe EMPTY = new Stripe(0);
+
+        private long[] timestamps;
+        private int[] memberIds;
+        private String[] branches;
+        private int count;
+
+        // Time of the last visit added, kept when the visits are taken
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        Stripe(int capacity) {
+            this.timestamps = new long[capacity];
+            this.memberIds = new int[capacity];
+            this.branches = new String[capacity];
+        }
+
+        /**
+         * Adds a visit, moving its time up to the last visit of the buffer if it is earlier
+         */
+        void add(long timestamp, int memberId, String branch) {
+            if (count == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, count * 2);
+                memberIds = Arrays.copyOf(memberIds, count * 2);
+                branches = Arrays.copyOf(branches, count * 2);
+            }
+            timestamp = Math.max(timestamp, lastTimestamp);
+            lastTimestamp = timestamp;
+            timestamps[count] = timestamp;
+            memberIds[count] = memberId;
+            branches[count] = branch;
+            count++;
+        }
+
+        /**
+         * Removes all visits from the buffer
+         * @return a buffer holding the removed visits
+         */
+        Stripe take() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            Stripe taken = new Stripe(0);
+            taken.timestamps = Arrays.copyOf(timestamps, count);
+            taken.memberIds = Arrays.copyOf(memberIds, count);
+            taken.branches = Arrays.copyOf(branches, count);
+            taken.count = count;
+            Arrays.fill(branches, 0, count, null);
+            count = 0;
+            return taken;
+        }
+    }
+
+    /**
+     * Reads the records of a time window in order, a block at a time
+     */
+    private class Cursor {
+        private final long to;
+        private final long end;
+        private final ByteBuffer buffer;
+        private long next;
+
+        long timestamp;
+        int memberId;
+        int branch;
+
+        Cursor(long from, long to) throws IOException {
+            this.to = to;
+            this.end = flushForRead();
+            this.next = firstAtOrAfter(from, end);
+            this.buffer = ByteBuffer.allocate(READ_RECORDS * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+            this.buffer.flip();
+        }
+
+        /**
+         * Moves to the next record in the window
+         * @return false once the window has no more records
+         */
+        boolean next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                if (next >= end) {
+                    return false;
+                }
+                int records = (int) Math.min(READ_RECORDS, end - next);
+                buffer.clear().limit(records * RECORD_SIZE);
+                readFully(channel, buffer, HEADER_SIZE + next * RECORD_SIZE);
+                next += records;
+            }
+
+            timestamp = buffer.getLong();
+            memberId = buffer.getInt();
+            branch = buffer.getInt();
+            if (timestamp >= to) {
+                buffer.position(buffer.limit());
+                next = end;
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package gym;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AttributeDictionary class gives every distinct value of a repeated member
+ * attribute, such as a location or trainer name, one shared String instance
+ * and a small integer code. Members store the shared instances, so thousands
+ * of members in the same location hold one String between them, and scans can
+ * group members by comparing codes.
+ *
+ * Members hold the shared String, not the code: a reference costs as much as an
+ * int code, and the member getters stay plain field reads. The codes are kept in
+ * MemberColumns, which groups members by location code.
+ *
+ * Codes are handed out in order from 0 and never change, so values are never
+ * removed, even once no member holds them. Instead each dictionary is bounded:
+ * it stops adding values once it holds its capacity, and never adds values longer
+ * than MAX_VALUE_LENGTH, so free text that rarely repeats, such as full addresses,
+ * cannot grow it; such values are kept as they are with NO_CODE. The dictionaries
+ * below retain at most 6272 values of up to MAX_VALUE_LENGTH characters, under
+ * 1.5 MB in all. All methods are thread-safe.
+ */
+public class AttributeDictionary {
+    // Code of values that are not in the dictionary
+    public static final int NO_CODE = -1;
+
+    // Longest value added to a dictionary, longer values are free text
+    public static final int MAX_VALUE_LENGTH = 64;
+
+    // Dictionaries of the repeated member attributes, sized for a few thousand
+    // branch locations and a thousand trainers or referral sources across branches
+    public static final AttributeDictionary LOCATIONS = new AttributeDictionary(4096);
+    public static final AttributeDictionary GENDERS = new AttributeDictionary(64);
+    public static final AttributeDictionary REFERRALS = new AttributeDictionary(1024);
+    public static final AttributeDictionary PLANS = new AttributeDictionary(64);
+    public static final AttributeDictionary TRAINERS = new AttributeDictionary(1024);
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Integer> codes;
+
+    // Values by code, replaced by a larger copy when full. Appends are guarded by this.
+    private volatile String[] values;
+    private int size;
+    private volatile boolean full;
+
+    /**
+     * Constructor for AttributeDictionary
+     * @param capacity the maximum number of distinct values
+     */
+    public AttributeDictionary(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.codes = new ConcurrentHashMap<>();
+        this.values = new String[Math.min(capacity, 16)];
+    }
+
+    /**
+     * Returns the shared instance of a value, adding it if there is room
+     * @param value the value, may be null
+     * @return an equal String shared by all members, or the value itself if it is not in the dictionary
+     */
+    public String intern(String value) {
+        int code = code(value);
+        return code == NO_CODE ? value : values[code];
+    }
+
+    /**
+     * Returns the code of a value, adding it if there is room
+     * @param value the value, may be null
+     * @return the code, or NO_CODE for null, a value longer than MAX_VALUE_LENGTH
+     *         or if the dictionary is full
+     */
+    public int code(String value) {
+        if (value == null || value.length() > MAX_VALUE_LENGTH) {
+            return NO_CODE;
+        }
+
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        return full ? NO_CODE : add(value);
+    }
+
+    /**
+     * Returns the code of a value without adding it
+     * @param value the value, may be null
+     * @return the code, or NO_CODE if the value is not in the dictionary
+     */
+    public int find(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? NO_CODE : code;
+    }
+
+    /**
+     * Returns the value of a code
+     * @param code a code between 0 and size() - 1
+     * @return the value
+     */
+    public String value(int code) {
+        if (code < 0 || code >= size()) {
+            throw new IndexOutOfBoundsException("No value with code " + code);
+        }
+        return values[code];
+    }
+
+    /**
+     * @return the number of values in the dictionary
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Adds a value that was not found
+     */
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == capacity) {
+            full = true;
+            return NO_CODE;
+        }
+
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.min(capacity, size * 2));
+        }
+        values[size] = value;
+
+        // Published after the value is stored, so readers that find the code also see the value
+        codes.put(value, size);
+        return size++;
+    }
+}
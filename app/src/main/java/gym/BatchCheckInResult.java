@@ -0,0 +1,78 @@
+package gym;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BatchCheckInResult class holds the outcome of each member ID
+ * in a batch of attendance check-ins.
+ */
+public class BatchCheckInResult {
+    /**
+     * Possible outcomes for a single ID
+     */
+    public enum Outcome {
+        CHECKED_IN,
+        INACTIVE,
+        LOCATION_FULL,
+        UNKNOWN,
+        INVALID_ID
+    }
+
+    private final List<String> ids;
+    private final List<Outcome> outcomes;
+    private final int[] counts;
+
+    /**
+     * Constructor for BatchCheckInResult
+     * @param expectedSize the expected number of IDs
+     */
+    public BatchCheckInResult(int expectedSize) {
+        this.ids = new ArrayList<>(expectedSize);
+        this.outcomes = new ArrayList<>(expectedSize);
+        this.counts = new int[Outcome.values().length];
+    }
+
+    /**
+     * Records the outcome for an ID
+     * @param id the member ID as given
+     * @param outcome the outcome
+     */
+    public void add(String id, Outcome outcome) {
+        ids.add(id);
+        outcomes.add(outcome);
+        counts[outcome.ordinal()]++;
+    }
+
+    /**
+     * @return the number of IDs in the batch
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    public String getId(int index) {
+        return ids.get(index);
+    }
+
+    public Outcome getOutcome(int index) {
+        return outcomes.get(index);
+    }
+
+    /**
+     * @param outcome the outcome to count
+     * @return the number of IDs with that outcome
+     */
+    public int count(Outcome outcome) {
+        return counts[outcome.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return "Checked in: " + count(Outcome.CHECKED_IN) +
+                ", Inactive: " + count(Outcome.INACTIVE) +
+                ", Location full: " + count(Outcome.LOCATION_FULL) +
+                ", Unknown: " + count(Outcome.UNKNOWN) +
+                ", Invalid ID: " + count(Outcome.INVALID_ID);
+    }
+}
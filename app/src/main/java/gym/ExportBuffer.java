@@ -0,0 +1,262 @@
+package gym;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * ExportBuffer class collects UTF-8 encoded output in a growable byte array.
+ * Text, numbers and quoted values are encoded straight into the array, so
+ * writing a record does not build an intermediate String per field.
+ * A buffer is meant to be reset and reused for the next block of records.
+ */
+public class ExportBuffer {
+    // Doubles below this size that hold whole numbers are written without Double.toString
+    private static final double PLAIN_DOUBLE_LIMIT = 1e7;
+
+    private byte[] bytes;
+    private int length;
+
+    /**
+     * Constructor for ExportBuffer
+     * @param capacity the initial capacity in bytes
+     */
+    public ExportBuffer(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 16)];
+        this.length = 0;
+    }
+
+    /**
+     * @return the number of bytes in the buffer
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Empties the buffer, keeping its capacity
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    /**
+     * Writes the buffered bytes to a stream
+     * @param output the stream
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        output.write(bytes, 0, length);
+    }
+
+    /**
+     * @return a copy of the buffered bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Computes the CRC32 checksum of the bytes appended since an earlier length
+     * @param from the length before the bytes were appended
+     * @param crc the checksum to reuse
+     * @return the checksum
+     */
+    public int checksum(int from, CRC32 crc) {
+        crc.reset();
+        crc.update(bytes, from, length - from);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Appends a character
+     */
+    public ExportBuffer append(char c) {
+        if (c < 0x80) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) c;
+        } else {
+            appendEncoded(c, (char) 0);
+        }
+        return this;
+    }
+
+    /**
+     * Appends text, or "null" like string concatenation does
+     */
+    public ExportBuffer append(String text) {
+        if (text == null) {
+            return append("null");
+        }
+
+        // ASCII text is copied without further capacity checks
+        ensureCapacity(text.length());
+        int i = 0;
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            bytes[length++] = (byte) c;
+        }
+
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                ensureCapacity(1);
+                bytes[length++] = (byte) c;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                appendEncoded(c, text.charAt(++i));
+            } else {
+                appendEncoded(c, (char) 0);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends a boolean as true or false
+     */
+    public ExportBuffer append(boolean value) {
+        return append(value ? "true" : "false");
+    }
+
+    /**
+     * Appends a whole number in decimal
+     */
+    public ExportBuffer append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(Long.toString(value));
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+
+        // Count the digits, then fill them in from the end
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Appends a double exactly as String.valueOf(double) would
+     */
+    public ExportBuffer append(double value) {
+        // Amounts are usually whole numbers, which have a simple form
+        if (value == Math.rint(value) && Math.abs(value) < PLAIN_DOUBLE_LIMIT
+                && !(value == 0 && 1 / value < 0)) {
+            return append((long) value).append('.').append('0');
+        }
+        return append(Double.toString(value));
+    }
+
+    /**
+     * Appends a CSV value, quoted only if it contains a comma, quote or line break.
+     * Null is written as an empty value.
+     */
+    public ExportBuffer appendCsv(String text) {
+        if (text == null) {
+            return this;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return append(text);
+        }
+
+        append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                append('"');
+            }
+            if (Character.isHighSurrogate(c) && i + 1 < text.length()) {
+                appendEncoded(c, text.charAt(++i));
+            } else {
+                append(c);
+            }
+        }
+        return append('"');
+    }
+
+    /**
+     * Appends a quoted and escaped JSON string, or null
+     */
+    public ExportBuffer appendJson(String text) {
+        if (text == null) {
+            return append("null");
+        }
+
+        append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                append('\\').append(c);
+            } else if (c == '\n') {
+                append('\\').append('n');
+            } else if (c == '\r') {
+                append('\\').append('r');
+            } else if (c == '\t') {
+                append('\\').append('t');
+            } else if (c < 0x20) {
+                append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()) {
+                appendEncoded(c, text.charAt(++i));
+            } else {
+                append(c);
+            }
+        }
+        return append('"');
+    }
+
+    /**
+     * Encodes a character that is not ASCII, or a surrogate pair if low is not 0
+     */
+    private void appendEncoded(char c, char low) {
+        ensureCapacity(4);
+        if (c < 0x800) {
+            bytes[length++] = (byte) (0xC0 | (c >> 6));
+            bytes[length++] = (byte) (0x80 | (c & 0x3F));
+        } else if (low != 0 && Character.isSurrogatePair(c, low)) {
+            int codePoint = Character.toCodePoint(c, low);
+            bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            // Unpaired surrogate, replaced like String.getBytes does
+            bytes[length++] = '?';
+            if (low != 0) {
+                append(low);
+            }
+        } else {
+            bytes[length++] = (byte) (0xE0 | (c >> 12));
+            bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[length++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Grows the array so that it can hold more bytes
+     */
+    private void ensureCapacity(int more) {
+        if (length + more > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package gym;
+
+import java.io.File;
+
+/**
+ * ExportResult class summarizes a member export:
+ * how many members were scanned and written, the size of the output and where it went.
+ */
+public class ExportResult {
+    private final long scanned;
+    private final long exported;
+    private final long bytes;
+    private final File file;
+
+    /**
+     * Constructor for ExportResult
+     * @param scanned the number of members checked against the filter
+     * @param exported the number of members written
+     * @param bytes the number of bytes written
+     * @param file the file written to, or null if the output was not a file
+     */
+    public ExportResult(long scanned, long exported, long bytes, File file) {
+        this.scanned = scanned;
+        this.exported = exported;
+        this.bytes = bytes;
+        this.file = file;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public long getExported() {
+        return exported;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return "Members: " + scanned + ", Exported: " + exported + ", Size: " + bytes + " bytes" +
+                (file != null ? "\nMembers were written to " + file : "");
+    }
+}
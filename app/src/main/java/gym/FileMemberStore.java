@@ -0,0 +1,234 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * FileMemberStore class keeps members in a binary snapshot, a text data file
+ * and a journal of the changes made since the snapshot was written.
+ *
+ * Members are loaded from the snapshot, or imported from the text data file if
+ * there is no snapshot yet, and the delta log and the journal are applied on top
+ * of them. Each change is appended to the journal. A save appends only the members
+ * changed since the previous save to the delta log (see MemberDeltaLog) and starts
+ * a new journal; once the delta log holds changes for half of the members, a new
+ * snapshot is written instead and the delta log emptied. Exporting always writes
+ * every member to the text data file.
+ *
+ * Both files are replaced atomically with rolling backups. If the snapshot is
+ * damaged, the newest readable backup or the text data file is loaded instead,
+ * whichever contains the later journal generation.
+ */
+public class FileMemberStore implements MemberStore {
+    private final File snapshotFile;
+    private final File dataFile;
+    private final MemberJournal journal;
+    private final MemberDeltaLog deltaLog;
+
+    // Number of members at the last save
+    private int snapshotMembers;
+
+    // IDs of the members removed since the last save
+    private final HashSet<String> removedIds;
+
+    // True if the next save must write a new snapshot, because the delta log
+    // cannot hold the changes since the last save
+    private boolean snapshotNeeded;
+
+    /**
+     * Constructor for FileMemberStore
+     * @param snapshotFile the binary snapshot loaded at startup
+     * @param dataFile the text data file used for import and export
+     * @param journalFile the journal of changes since the last save
+     */
+    public FileMemberStore(File snapshotFile, File dataFile, File journalFile) {
+        this(snapshotFile, dataFile, new MemberJournal(journalFile));
+    }
+
+    /**
+     * Constructor for FileMemberStore
+     * @param snapshotFile the binary snapshot loaded at startup
+     * @param dataFile the text data file used for import and export
+     * @param journalFile the journal of changes since the last save
+     * @param compactionThreshold number of journal events after which a save is due
+     */
+    public FileMemberStore(File snapshotFile, File dataFile, File journalFile, int compactionThreshold) {
+        this(snapshotFile, dataFile, new MemberJournal(journalFile, compactionThreshold));
+    }
+
+    private FileMemberStore(File snapshotFile, File dataFile, MemberJournal journal) {
+        this.snapshotFile = snapshotFile;
+        this.dataFile = dataFile;
+        this.journal = journal;
+        this.deltaLog = new MemberDeltaLog(deltaFile(snapshotFile));
+        this.removedIds = new HashSet<>();
+    }
+
+    /**
+     * Returns the delta log kept next to a snapshot
+     * @param snapshotFile the snapshot file
+     * @return the delta log file, which may not exist
+     */
+    public static File deltaFile(File snapshotFile) {
+        return new File(snapshotFile.getPath() + ".delta");
+    }
+
+    @Override
+    public int load(MemberRepository members, ProgressListener listener) throws IOException {
+        members.clear();
+        long generation = 0;
+        File source = dataFile;
+
+        // The snapshot, or else its newest backup that can be read
+        MemberSnapshot snapshot = null;
+        for (int i = 0; i <= AtomicFiles.DEFAULT_BACKUPS && snapshot == null; i++) {
+            File file = i == 0 ? snapshotFile : AtomicFiles.backupFile(snapshotFile, i);
+            if (file.exists()) {
+                try {
+                    snapshot = MemberSnapshot.open(file);
+                    source = file;
+                } catch (IOException e) {
+                    System.out.println("Cannot read " + file + ": " + e.getMessage());
+                }
+            }
+        }
+
+        if (snapshot != null && !source.equals(snapshotFile) && dataFile.exists()
+                && snapshot.getGeneration() < readGeneration(dataFile)) {
+            // The data file was saved after the backup, so it holds more changes
+            snapshot = null;
+            source = dataFile;
+        }
+
+        if (snapshot != null) {
+            // Every member is decoded now, the indexes and analytics built on load need them all
+            generation = snapshot.getGeneration();
+            for (int i = 0; i < snapshot.size(); i++) {
+                GymMember member = snapshot.get(i);
+                members.add(member);
+                member.clearDirty();
+                if (listener != null && (i % 1000 == 0 || i == snapshot.size() - 1)) {
+                    listener.progress(i + 1, snapshot.size());
+                }
+            }
+        } else if (dataFile.exists()) {
+            generation = readGeneration(dataFile);
+            new ParallelMemberLoader().load(dataFile, members, listener);
+        } else {
+            System.out.println("Data file not found. Starting with empty database.");
+        }
+
+        // Apply changes saved and recorded after the snapshot was written. The delta
+        // log follows on from the snapshot itself, not from a backup or the data file.
+        int changed = 0;
+        if (source.equals(snapshotFile)) {
+            generation = deltaLog.load(generation, members);
+            changed = deltaLog.getRecords();
+        }
+        int replayed = journal.open(generation, members);
+        System.out.println("Loaded " + members.size() + " members from " + source +
+                " (" + changed + " saved changes and " + replayed + " journal entries applied)");
+
+        // Members removed by the journal are not known, so they are only dropped by a new snapshot
+        snapshotMembers = members.size();
+        removedIds.clear();
+        snapshotNeeded = !source.equals(snapshotFile) || deltaLog.hasSkippedSegments() || replayed > 0;
+        return members.size();
+    }
+
+    @Override
+    public void writeChanges(List<String[]> events) throws IOException {
+        journal.appendAll(events);
+        for (String[] event : events) {
+            if (MemberJournal.REVERT.equals(event[0])) {
+                removedIds.add(event[1]);
+            } else if (MemberJournal.ADD.equals(event[0])) {
+                removedIds.remove(event[1]);
+            }
+        }
+    }
+
+    @Override
+    public boolean needsFullSave() {
+        return journal.needsCompaction(snapshotMembers);
+    }
+
+    @Override
+    public Save captureAll(Iterable<GymMember> members, boolean export) throws IOException {
+        final long generation = journal.getGeneration() + 1;
+        final byte[] text = export ? MemberRecordFormat.encodeFile(members, generation) : null;
+
+        // Only the flags are read for unchanged members
+        List<GymMember> changed = new ArrayList<>();
+        int count = 0;
+        for (GymMember member : members) {
+            count++;
+            if (member.isDirty()) {
+                changed.add(member);
+            }
+        }
+
+        final boolean full = snapshotNeeded || !snapshotFile.exists()
+                || deltaLog.getRecords() + changed.size() + removedIds.size() > count / 2;
+        final ByteBuffer contents;
+        if (full) {
+            contents = MemberSnapshot.encode(members, generation);
+            for (GymMember member : members) {
+                member.clearDirty();
+            }
+        } else {
+            contents = MemberDeltaLog.encode(generation - 1, changed, removedIds);
+            for (GymMember member : changed) {
+                member.clearDirty();
+            }
+        }
+        final int changes = changed.size() + removedIds.size();
+        removedIds.clear();
+        snapshotMembers = count;
+
+        // The flags are already cleared, so if this save fails the next one writes a snapshot
+        snapshotNeeded = true;
+
+        return new Save() {
+            @Override
+            public void write() throws IOException {
+                if (full) {
+                    MemberSnapshot.write(snapshotFile, contents);
+                    deltaLog.reset();
+                } else {
+                    deltaLog.append(contents);
+                }
+                if (text != null) {
+                    MemberRecordFormat.writeFile(dataFile, text);
+                }
+
+                // Changes made after the capture are written to the new journal
+                journal.startNextGeneration();
+                snapshotNeeded = false;
+                System.out.println((full ? "Members snapshot saved to " + snapshotFile
+                        : changes + " changed members saved to " + deltaFile(snapshotFile)) +
+                        (text != null ? " and " + dataFile : ""));
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    /**
+     * Reads the journal generation of the text data file, 0 if its header is damaged
+     */
+    private static long readGeneration(File file) throws IOException {
+        try {
+            return MemberJournal.readGeneration(file);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
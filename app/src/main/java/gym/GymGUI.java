@@ -1,12 +1,24 @@
+package gym;
+
 import javax.swing.*;
 import javax.swing.border.Border;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.*;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * GymGUI class provides a graphical user interface for managing
@@ -14,8 +26,8 @@ import java.util.ArrayList;
  * Now with data persistence capabilities and improved contrast.
  */
 public class GymGUI extends JFrame {
-    // ArrayList to store both RegularMember and PremiumMember objects
-    private ArrayList<GymMember> members;
+    // Service holding both RegularMember and PremiumMember objects and their operations
+    private MemberService memberService;
 
     // Text fields for member information
     private JTextField idField, nameField, locationField, phoneField, emailField;
@@ -23,6 +35,11 @@ public class GymGUI extends JFrame {
     private JTextField regularPlanPriceField, premiumPlanChargeField, discountAmountField;
     private JTextField loyaltyPointsField; // Added loyalty points field
 
+    // Search-as-you-type field and the list of matches shown under it
+    private JTextField searchField;
+    private JPopupMenu searchPopup;
+    private Timer searchTimer;
+
     // Radio buttons for gender
     private JRadioButton maleRadioButton, femaleRadioButton;
     private ButtonGroup genderGroup;
@@ -35,10 +52,11 @@ public class GymGUI extends JFrame {
     // Buttons for actions
     private JButton addRegularMemberButton, addPremiumMemberButton;
     private JButton activateMembershipButton, deactivateMembershipButton;
-    private JButton markAttendanceButton, upgradePlanButton;
-    private JButton calculateDiscountButton, payDueAmountButton;
+    private JButton markAttendanceButton, batchCheckInButton, checkOutButton, occupancyButton, upgradePlanButton;
+    private JButton calculateDiscountButton, payDueAmountButton, revenueReportButton;
     private JButton revertRegularMemberButton, revertPremiumMemberButton;
     private JButton displayButton, clearButton, saveButton; // Added save button
+    private JButton importButton, exportButton;
 
     // Constants for plans and pricing
     private final String[] PLANS = {"Basic", "Standard", "Deluxe"};
@@ -47,9 +65,21 @@ public class GymGUI extends JFrame {
     private final double DELUXE_PRICE = 18500;
     private final double PREMIUM_CHARGE = 50000;
 
-    // File to store member data
+    // Maximum number of members listed under the search field
+    private final int SEARCH_RESULT_LIMIT = 10;
+
+    // File to store member data as text, kept for import and export
     private final String DATA_FILE = "gym_members.docx";
 
+    // Binary snapshot loaded at startup
+    private final String SNAPSHOT_FILE = "gym_members.snapshot";
+
+    // Journal of changes made since the snapshot was last written
+    private final String JOURNAL_FILE = "gym_members.journal";
+
+    // Log of every visit, for attendance reports
+    private final String ATTENDANCE_FILE = "gym_members.attendance";
+
     // Updated colors for enhanced contrast and modern design
     private final Color HEADER_COLOR = new Color(41, 128, 185);
     private final Color PANEL_COLOR = new Color(236, 240, 241);
@@ -64,8 +94,25 @@ public class GymGUI extends JFrame {
      * Constructor initializes the GUI components and sets up the layout
      */
     public GymGUI() {
-        // Initialize member ArrayList
-        members = new ArrayList<>();
+        // Initialize member service, kept in a database when a JDBC URL is given
+        String databaseUrl = System.getProperty(JdbcMemberStore.URL_PROPERTY);
+        MemberStore store = databaseUrl != null
+                ? new JdbcMemberStore(databaseUrl, new File(DATA_FILE))
+                : new FileMemberStore(new File(SNAPSHOT_FILE), new File(DATA_FILE), new File(JOURNAL_FILE));
+        memberService = new MemberService(store, new File(ATTENDANCE_FILE));
+        memberService.setPersistenceErrorListener(new PersistenceWriter.ErrorListener() {
+            @Override
+            public void persistenceFailed(final IOException e) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        JOptionPane.showMessageDialog(GymGUI.this,
+                                "Error saving members to file: " + e.getMessage(),
+                                "Save Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            }
+        });
 
         // Set up the JFrame
         setTitle("Gym Membership Management System");
@@ -96,8 +143,13 @@ public class GymGUI extends JFrame {
         // Add the main panel to the frame
         add(mainPanel);
 
-        // Load existing members from file
-        loadMembersFromFile();
+        // Write pending changes before the application exits
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                memberService.close();
+            }
+        });
 
         // Center the frame on the screen
         setLocationRelativeTo(null);
@@ -217,6 +269,30 @@ public class GymGUI extends JFrame {
             }
         });
 
+        batchCheckInButton = createStyledButton("Batch Check-In");
+        batchCheckInButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                batchCheckIn();
+            }
+        });
+
+        checkOutButton = createStyledButton("Check Out");
+        checkOutButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                checkOut();
+            }
+        });
+
+        occupancyButton = createStyledButton("Occupancy");
+        occupancyButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showOccupancy();
+            }
+        });
+
         upgradePlanButton = createStyledButton("Upgrade Plan");
         upgradePlanButton.addActionListener(new ActionListener() {
             @Override
@@ -283,6 +359,30 @@ public class GymGUI extends JFrame {
                 saveMembersToFile();
             }
         });
+
+        importButton = createStyledButton("Import Members");
+        importButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                importMembers();
+            }
+        });
+
+        revenueReportButton = createStyledButton("Revenue Report");
+        revenueReportButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showRevenueReport();
+            }
+        });
+
+        exportButton = createStyledButton("Export Members");
+        exportButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                exportMembers();
+            }
+        });
     }
 
     /**
@@ -341,11 +441,11 @@ public class GymGUI extends JFrame {
                 if (text.isEmpty()) return true;
 
                 try {
-                    Integer.parseInt(text);
+                    AttendanceLog.parseMemberId(text);
                     return true;
                 } catch (NumberFormatException e) {
                     JOptionPane.showMessageDialog(GymGUI.this,
-                            "Member ID must contain only numbers!",
+                            "Member ID must contain only numbers, without leading zeros!",
                             "Invalid Input", JOptionPane.ERROR_MESSAGE);
                     return false;
                 }
@@ -637,7 +737,7 @@ public class GymGUI extends JFrame {
      * @return JPanel containing all buttons
      */
     private JPanel createButtonPanel() {
-        JPanel mainPanel = new JPanel(new GridLayout(4, 1, 8, 8)); // Increased spacing
+        JPanel mainPanel = new JPanel(new GridLayout(5, 1, 8, 8)); // Increased spacing
         mainPanel.setBackground(FORM_BG_COLOR);
         mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 0, 5, 0));
 
@@ -655,6 +755,9 @@ public class GymGUI extends JFrame {
         attendancePanel.setBackground(PANEL_COLOR);
         attendancePanel.setBorder(createTitledBorder("Attendance & Plans"));
         attendancePanel.add(markAttendanceButton);
+        attendancePanel.add(batchCheckInButton);
+        attendancePanel.add(checkOutButton);
+        attendancePanel.add(occupancyButton);
         attendancePanel.add(upgradePlanButton);
 
         // Panel 3: Financial
@@ -663,6 +766,7 @@ public class GymGUI extends JFrame {
         financialPanel.setBorder(createTitledBorder("Financial"));
         financialPanel.add(calculateDiscountButton);
         financialPanel.add(payDueAmountButton);
+        financialPanel.add(revenueReportButton);
 
         // Panel 4: Administrative
         JPanel adminPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 8));
@@ -673,8 +777,11 @@ public class GymGUI extends JFrame {
         adminPanel.add(displayButton);
         adminPanel.add(clearButton);
         adminPanel.add(saveButton); // Added save button
+        adminPanel.add(importButton);
+        adminPanel.add(exportButton);
 
         // Add panels to main panel
+        mainPanel.add(createSearchPanel());
         mainPanel.add(memberPanel);
         mainPanel.add(attendancePanel);
         mainPanel.add(financialPanel);
@@ -683,6 +790,119 @@ public class GymGUI extends JFrame {
         return mainPanel;
     }
 
+    /**
+     * Creates the search field that finds members by ID, name, phone or email while typing
+     * @return JPanel containing the search field
+     */
+    private JPanel createSearchPanel() {
+        searchField = new JTextField(30);
+        searchField.setFont(new Font("Arial", Font.PLAIN, 14));
+        searchField.setToolTipText("Type part of a member's ID, name, phone number or email");
+        searchPopup = new JPopupMenu();
+        searchPopup.setFocusable(false);
+
+        // Search once typing pauses instead of on every key
+        searchTimer = new Timer(150, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                searchMembers(searchField.getText());
+            }
+        });
+        searchTimer.setRepeats(false);
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 8));
+        panel.setBackground(PANEL_COLOR);
+        panel.setBorder(createTitledBorder("Find Member"));
+        JLabel label = new JLabel("Search:");
+        label.setFont(new Font("Arial", Font.BOLD, 14));
+        label.setForeground(TEXT_COLOR);
+        panel.add(label);
+        panel.add(createStyledTextField(searchField));
+        return panel;
+    }
+
+    /**
+     * Searches members in the background and shows the matches under the search field
+     * @param query the text typed so far
+     */
+    private void searchMembers(final String query) {
+        if (query.trim().isEmpty()) {
+            searchPopup.setVisible(false);
+            return;
+        }
+
+        new SwingWorker<List<GymMember>, Void>() {
+            @Override
+            protected List<GymMember> doInBackground() {
+                return memberService.searchMembers(query, SEARCH_RESULT_LIMIT);
+            }
+
+            @Override
+            protected void done() {
+                // Ignore results for text that has changed since the search started
+                if (!query.equals(searchField.getText())) {
+                    return;
+                }
+
+                try {
+                    showSearchResults(get());
+                } catch (Exception e) {
+                    searchPopup.setVisible(false);
+                    System.out.println("Error searching members: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Lists search matches under the search field. Choosing one fills in the Member ID.
+     * @param matches the members to list
+     */
+    private void showSearchResults(List<GymMember> matches) {
+        searchPopup.setVisible(false);
+        searchPopup.removeAll();
+
+        if (matches.isEmpty()) {
+            JMenuItem noMatches = new JMenuItem("No members found");
+            noMatches.setEnabled(false);
+            searchPopup.add(noMatches);
+        }
+        for (final GymMember member : matches) {
+            JMenuItem item = new JMenuItem(member.getId() + " - " + member.getName() +
+                    " - " + member.getPhone() + " - " + member.getEmail());
+            item.setFont(new Font("Arial", Font.PLAIN, 13));
+            item.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    idField.setText(member.getId());
+                }
+            });
+            searchPopup.add(item);
+        }
+
+        if (searchField.isShowing()) {
+            searchPopup.show(searchField, 0, searchField.getHeight());
+            searchField.requestFocusInWindow();
+        }
+    }
+
     /**
      * Creates a titled border for button panels with improved styling
      * @param title The title text
@@ -724,50 +944,16 @@ public class GymGUI extends JFrame {
      * Adds a new Regular Member to the system
      */
     private void addRegularMember() {
-        // Validate ID first - must be integer
-        String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Member ID is required!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        String id = idText;
-
-        // Check for ID duplication
-        if (isMemberIdDuplicate(id)) {
-            JOptionPane.showMessageDialog(this, "Member ID already exists. Each member must have a unique ID.",
-                    "Duplicate ID", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
         // Get values from fields
+        String id = idField.getText().trim();
         String name = nameField.getText().trim();
-        if (name.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Name is required!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
         String location = locationField.getText().trim();
         String phone = phoneField.getText().trim();
         String email = emailField.getText().trim();
 
         // Get gender
-        String gender = "";
-        if (maleRadioButton.isSelected()) {
-            gender = "Male";
-        } else if (femaleRadioButton.isSelected()) {
-            gender = "Female";
-        } else {
-            JOptionPane.showMessageDialog(this, "Please select a gender!", "Error", JOptionPane.ERROR_MESSAGE);
+        String gender = getSelectedGender();
+        if (gender == null) {
             return;
         }
 
@@ -788,47 +974,30 @@ public class GymGUI extends JFrame {
         String referralSource = referralField.getText().trim();
 
         // Get paid amount
-        double paidAmount = 0.0;
-        String paidAmountText = paidAmountField.getText().trim();
-        if (!paidAmountText.isEmpty()) {
-            try {
-                paidAmount = Double.parseDouble(paidAmountText);
-                if (paidAmount < 0) {
-                    JOptionPane.showMessageDialog(this, "Paid Amount cannot be negative!",
-                            "Invalid Input", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(this, "Paid Amount must be a valid number!",
-                        "Invalid Input", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        Double paidAmount = readAmount(paidAmountField, false);
+        if (paidAmount == null) {
+            return;
         }
 
         try {
-            // Create and add the Regular Member
+            // Create the Regular Member and let the service validate and add it
             RegularMember regularMember = new RegularMember(
                     id, name, location, phone, email, gender, dob,
                     membershipStartDate, referralSource, paidAmount, plan
             );
 
-            members.add(regularMember);
-
-            // Display success message with improved styling
-            JOptionPane.showMessageDialog(this, "Regular Member added successfully!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-
-            // Print to console
-            System.out.println("Regular Member Added:");
-            System.out.println(regularMember.toString());
-            System.out.println();
+            MemberResult result = memberService.addMember(regularMember);
+            showResult(result, "Success");
 
-            // Save to file
-            saveMembersToFile();
-
-            // Clear fields after successful addition
-            clearFields();
+            if (result.getMember() != null) {
+                // Print to console
+                System.out.println("Regular Member Added:");
+                System.out.println(regularMember.toString());
+                System.out.println();
 
+                // Clear fields after successful addition
+                clearFields();
+            }
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error adding Regular Member: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -839,50 +1008,16 @@ public class GymGUI extends JFrame {
      * Adds a new Premium Member to the system
      */
     private void addPremiumMember() {
-        // Validate ID first - must be integer
-        String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Member ID is required!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        String id = idText;
-
-        // Check for ID duplication
-        if (isMemberIdDuplicate(id)) {
-            JOptionPane.showMessageDialog(this, "Member ID already exists. Each member must have a unique ID.",
-                    "Duplicate ID", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
         // Get values from fields
+        String id = idField.getText().trim();
         String name = nameField.getText().trim();
-        if (name.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Name is required!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
         String location = locationField.getText().trim();
         String phone = phoneField.getText().trim();
         String email = emailField.getText().trim();
 
         // Get gender
-        String gender = "";
-        if (maleRadioButton.isSelected()) {
-            gender = "Male";
-        } else if (femaleRadioButton.isSelected()) {
-            gender = "Female";
-        } else {
-            JOptionPane.showMessageDialog(this, "Please select a gender!", "Error", JOptionPane.ERROR_MESSAGE);
+        String gender = getSelectedGender();
+        if (gender == null) {
             return;
         }
 
@@ -900,55 +1035,33 @@ public class GymGUI extends JFrame {
         String referralSource = referralField.getText().trim();
 
         // Get paid amount
-        double paidAmount = 0.0;
-        String paidAmountText = paidAmountField.getText().trim();
-        if (!paidAmountText.isEmpty()) {
-            try {
-                paidAmount = Double.parseDouble(paidAmountText);
-                if (paidAmount < 0) {
-                    JOptionPane.showMessageDialog(this, "Paid Amount cannot be negative!",
-                            "Invalid Input", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(this, "Paid Amount must be a valid number!",
-                        "Invalid Input", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        Double paidAmount = readAmount(paidAmountField, false);
+        if (paidAmount == null) {
+            return;
         }
 
         // Get trainer name (required for Premium Members)
         String trainerName = trainerNameField.getText().trim();
-        if (trainerName.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Trainer's Name is required for Premium Members!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
 
         try {
-            // Create and add the Premium Member
+            // Create the Premium Member and let the service validate and add it
             PremiumMember premiumMember = new PremiumMember(
                     id, name, location, phone, email, gender, dob,
                     membershipStartDate, referralSource, paidAmount, trainerName
             );
 
-            members.add(premiumMember);
+            MemberResult result = memberService.addMember(premiumMember);
+            showResult(result, "Success");
 
-            // Display success message
-            JOptionPane.showMessageDialog(this, "Premium Member added successfully!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-
-            // Print to console
-            System.out.println("Premium Member Added:");
-            System.out.println(premiumMember.toString());
-            System.out.println();
-
-            // Save to file
-            saveMembersToFile();
-
-            // Clear fields after successful addition
-            clearFields();
+            if (result.getMember() != null) {
+                // Print to console
+                System.out.println("Premium Member Added:");
+                System.out.println(premiumMember.toString());
+                System.out.println();
 
+                // Clear fields after successful addition
+                clearFields();
+            }
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error adding Premium Member: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -960,43 +1073,13 @@ public class GymGUI extends JFrame {
      */
     private void activateMembership() {
         String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        GymMember member = findMemberById(idText);
-        if (member != null) {
-            // Check if membership is already active
-            if (member.isActive()) {
-                JOptionPane.showMessageDialog(this, "The user is already activated.",
-                        "Already Active", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
-
-            member.activateMembership();
-            JOptionPane.showMessageDialog(this, "Membership activated successfully for ID: " + idText,
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-
-            // Save changes to file
-            saveMembersToFile();
+        MemberResult result = memberService.activateMembership(idText);
+        showResult(result, "Success");
 
+        if (result.isSuccess()) {
             // Print to console
             System.out.println("Membership Activated for member ID: " + idText);
             System.out.println();
-        } else {
-            JOptionPane.showMessageDialog(this, "Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1005,43 +1088,13 @@ public class GymGUI extends JFrame {
      */
     private void deactivateMembership() {
         String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        GymMember member = findMemberById(idText);
-        if (member != null) {
-            // Check if membership is already inactive
-            if (!member.isActive()) {
-                JOptionPane.showMessageDialog(this, "The user is already deactivated.",
-                        "Already Inactive", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
-
-            member.deactivateMembership();
-            JOptionPane.showMessageDialog(this, "Membership deactivated successfully for ID: " + idText,
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-
-            // Save changes to file
-            saveMembersToFile();
+        MemberResult result = memberService.deactivateMembership(idText);
+        showResult(result, "Success");
 
+        if (result.isSuccess()) {
             // Print to console
             System.out.println("Membership Deactivated for member ID: " + idText);
             System.out.println();
-        } else {
-            JOptionPane.showMessageDialog(this, "Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1050,152 +1103,200 @@ public class GymGUI extends JFrame {
      */
     private void markAttendance() {
         String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
+        MemberResult result = memberService.markAttendance(idText);
+
+        if (result.isSuccess()) {
+            // Update loyalty points field
+            GymMember member = result.getMember();
+            loyaltyPointsField.setText(String.valueOf(member.getLoyaltyPoints()));
+
+            // Print to console
+            System.out.println("Attendance Marked for member ID: " + idText);
+            System.out.println("Current Attendance: " + member.getAttendance());
+            System.out.println("Current Loyalty Points: " + member.getLoyaltyPoints());
+            System.out.println();
+        }
+
+        showResult(result, "Success");
+    }
+
+    /**
+     * Marks attendance for a batch of member IDs, such as the card swipes
+     * collected by a turnstile, and shows a summary of the outcomes
+     */
+    private void batchCheckIn() {
+        JTextArea idsArea = new JTextArea(12, 30);
+        idsArea.setFont(new Font("Arial", Font.PLAIN, 13));
+        idsArea.setLineWrap(true);
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(new JLabel("Enter or paste Member IDs (separated by spaces, commas or new lines):"),
+                BorderLayout.NORTH);
+        panel.add(new JScrollPane(idsArea), BorderLayout.CENTER);
+
+        int choice = JOptionPane.showConfirmDialog(this, panel, "Batch Check-In",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
             return;
         }
 
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
+        String text = idsArea.getText().trim();
+        if (text.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter at least one Member ID!",
+                    "Missing Information", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        final List<String> ids = Arrays.asList(text.split("[\\s,]+"));
 
-        GymMember member = findMemberById(idText);
-        if (member != null) {
-            // Check if the member is active
-            if (member.isActive()) {
-                member.markAttendance();
+        batchCheckInButton.setEnabled(false);
+        new SwingWorker<BatchCheckInResult, Void>() {
+            @Override
+            protected BatchCheckInResult doInBackground() {
+                return memberService.checkInBatch(ids);
+            }
 
-                // Update loyalty points field
-                loyaltyPointsField.setText(String.valueOf(member.getLoyaltyPoints()));
+            @Override
+            protected void done() {
+                batchCheckInButton.setEnabled(true);
 
-                JOptionPane.showMessageDialog(this, "Attendance marked successfully for ID: " + idText,
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                try {
+                    BatchCheckInResult result = get();
+
+                    // List the IDs that could not be checked in, up to a limit
+                    StringBuilder sb = new StringBuilder(result.toString());
+                    int listed = 0;
+                    for (int i = 0; i < result.size() && listed < 20; i++) {
+                        if (result.getOutcome(i) != BatchCheckInResult.Outcome.CHECKED_IN) {
+                            sb.append(listed == 0 ? "\n\nNot checked in:" : "")
+                                    .append("\n").append(result.getId(i))
+                                    .append(" - ").append(result.getOutcome(i));
+                            listed++;
+                        }
+                    }
 
-                // Save changes to file
-                saveMembersToFile();
+                    JOptionPane.showMessageDialog(GymGUI.this, sb.toString(),
+                            "Batch Check-In", JOptionPane.INFORMATION_MESSAGE);
 
-                // Print to console
-                System.out.println("Attendance Marked for member ID: " + idText);
-                System.out.println("Current Attendance: " + member.getAttendance());
-                System.out.println("Current Loyalty Points: " + member.getLoyaltyPoints());
-                System.out.println();
-            } else {
-                JOptionPane.showMessageDialog(this, "Cannot mark attendance: Member is not active!",
-                        "Inactive Member", JOptionPane.WARNING_MESSAGE);
+                    // Print to console
+                    System.out.println("Batch Check-In of " + result.size() + " IDs: " + result);
+                    System.out.println();
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(GymGUI.this, "Error during batch check-in: " + e.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
             }
-        } else {
-            JOptionPane.showMessageDialog(this, "Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }.execute();
     }
 
     /**
-     * Upgrades the plan for a regular member with the given ID
+     * Checks out a member with the given ID
      */
-    private void upgradePlan() {
+    private void checkOut() {
         String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        MemberResult result = memberService.checkOut(idText);
 
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
+        if (result.isSuccess()) {
+            // Print to console
+            System.out.println(result.getMessage());
+            System.out.println();
         }
 
-        GymMember member = findMemberById(idText);
-        if (member != null) {
-            if (member instanceof RegularMember) {
-                RegularMember regularMember = (RegularMember) member;
+        showResult(result, "Checked Out");
+    }
 
-                // Check if member is active
-                if (!regularMember.isActive()) {
-                    JOptionPane.showMessageDialog(this, "Cannot upgrade plan: Member is not active!",
-                            "Inactive Member", JOptionPane.WARNING_MESSAGE);
-                    return;
-                }
+    /**
+     * Shows how many members are inside each location, and lets the user set a location's capacity
+     */
+    private void showOccupancy() {
+        OccupancyTracker tracker = memberService.getOccupancy();
+        List<OccupancyTracker.Occupancy> locations = tracker.getLocations();
+        Collections.sort(locations, new Comparator<OccupancyTracker.Occupancy>() {
+            @Override
+            public int compare(OccupancyTracker.Occupancy a, OccupancyTracker.Occupancy b) {
+                return a.getLocation().compareTo(b.getLocation());
+            }
+        });
 
-                // Get the new plan
-                String newPlan = (String) planComboBox.getSelectedItem();
-                String result = regularMember.upgradePlan(newPlan);
+        StringBuilder sb = new StringBuilder();
+        for (OccupancyTracker.Occupancy occupancy : locations) {
+            sb.append(occupancy).append("\n");
+        }
+        if (sb.length() == 0) {
+            sb.append("No members have checked in yet.");
+        }
 
-                JOptionPane.showMessageDialog(this, result, "Plan Upgrade", JOptionPane.INFORMATION_MESSAGE);
+        Object[] options = {"Close", "Set Capacity"};
+        int choice = JOptionPane.showOptionDialog(this, sb.toString(), "Occupancy",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
 
-                // Save changes to file
-                saveMembersToFile();
+        // Print to console
+        System.out.println(sb);
+        System.out.println();
 
-                // Print to console
-                System.out.println("Plan Upgrade for member ID: " + idText);
-                System.out.println("New Plan: " + regularMember.getPlan());
-                System.out.println("New Price: " + regularMember.getPrice());
-                System.out.println();
-            } else {
-                JOptionPane.showMessageDialog(this, "Member with ID " + idText + " is not a Regular Member!",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } else {
-            JOptionPane.showMessageDialog(this, "Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
+        if (choice != 1) {
+            return;
         }
-    }
 
-    /**
-     * Calculates discount for a premium member with the given ID
-     */
-    private void calculateDiscount() {
-        String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
+        String location = JOptionPane.showInputDialog(this, "Location:", locationField.getText().trim());
+        if (location == null || location.trim().isEmpty()) {
+            return;
+        }
+        String capacityText = JOptionPane.showInputDialog(this, "Capacity of " + location.trim() +
+                " (leave empty for no limit):");
+        if (capacityText == null) {
             return;
         }
 
-        // Verify ID is numeric
         try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
+            int capacity = capacityText.trim().isEmpty()
+                    ? OccupancyTracker.UNLIMITED : Integer.parseInt(capacityText.trim());
+            tracker.setCapacity(location.trim(), capacity);
+            JOptionPane.showMessageDialog(this, tracker.getOccupancy(location.trim()).toString(),
+                    "Occupancy", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Capacity must be a whole number of zero or more!",
                     "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
         }
+    }
 
-        GymMember member = findMemberById(idText);
-        if (member != null) {
-            if (member instanceof PremiumMember) {
-                PremiumMember premiumMember = (PremiumMember) member;
-                String result = premiumMember.calculateDiscount();
+    /**
+     * Upgrades the plan for a regular member with the given ID
+     */
+    private void upgradePlan() {
+        String idText = idField.getText().trim();
+        String newPlan = (String) planComboBox.getSelectedItem();
+        MemberResult result = memberService.upgradePlan(idText, newPlan);
+        showResult(result, "Plan Upgrade");
 
-                JOptionPane.showMessageDialog(this, result, "Discount Calculation", JOptionPane.INFORMATION_MESSAGE);
+        if (result.isSuccess()) {
+            RegularMember regularMember = (RegularMember) result.getMember();
 
-                // Update discount amount field
-                discountAmountField.setText(String.format("%.2f", premiumMember.getDiscountAmount()));
+            // Print to console
+            System.out.println("Plan Upgrade for member ID: " + idText);
+            System.out.println("New Plan: " + regularMember.getPlan());
+            System.out.println("New Price: " + regularMember.getPrice());
+            System.out.println();
+        }
+    }
 
-                // Save changes to file
-                saveMembersToFile();
+    /**
+     * Calculates discount for a premium member with the given ID
+     */
+    private void calculateDiscount() {
+        String idText = idField.getText().trim();
+        MemberResult result = memberService.calculateDiscount(idText);
+        showResult(result, "Discount Calculation");
 
-                // Print to console
-                System.out.println("Discount Calculated for member ID: " + idText);
-                System.out.println("Discount Amount: " + premiumMember.getDiscountAmount());
-                System.out.println();
-            } else {
-                JOptionPane.showMessageDialog(this, "Member with ID " + idText + " is not a Premium Member!",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } else {
-            JOptionPane.showMessageDialog(this, "Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
+        if (result.getMember() instanceof PremiumMember) {
+            PremiumMember premiumMember = (PremiumMember) result.getMember();
+
+            // Update discount amount field
+            discountAmountField.setText(String.format("%.2f", premiumMember.getDiscountAmount()));
+
+            // Print to console
+            System.out.println("Discount Calculated for member ID: " + idText);
+            System.out.println("Discount Amount: " + premiumMember.getDiscountAmount());
+            System.out.println();
         }
     }
 
@@ -1204,67 +1305,25 @@ public class GymGUI extends JFrame {
      */
     private void payDueAmount() {
         String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
 
         // Get payment amount
-        double amount = 0.0;
-        String amountText = paidAmountField.getText().trim();
-        if (amountText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter an amount to pay!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        try {
-            amount = Double.parseDouble(amountText);
-            if (amount <= 0) {
-                JOptionPane.showMessageDialog(this, "Paid Amount must be greater than zero!",
-                        "Invalid Input", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Paid Amount must be a valid number!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
+        Double amount = readAmount(paidAmountField, true);
+        if (amount == null) {
             return;
         }
 
-        GymMember member = findMemberById(idText);
-        if (member != null) {
-            if (member instanceof PremiumMember) {
-                PremiumMember premiumMember = (PremiumMember) member;
-                String result = premiumMember.payDueAmount(amount);
+        MemberResult result = memberService.payDueAmount(idText, amount);
+        showResult(result, "Payment");
 
-                JOptionPane.showMessageDialog(this, result, "Payment", JOptionPane.INFORMATION_MESSAGE);
-
-                // Save changes to file
-                saveMembersToFile();
+        if (result.isSuccess()) {
+            PremiumMember premiumMember = (PremiumMember) result.getMember();
 
-                // Print to console
-                System.out.println("Payment made for member ID: " + idText);
-                System.out.println("Amount Paid: " + amount);
-                System.out.println("Total Paid Amount: " + premiumMember.getPaidAmount());
-                System.out.println("Full Payment Status: " + (premiumMember.isFullPayment() ? "Complete" : "Incomplete"));
-                System.out.println();
-            } else {
-                JOptionPane.showMessageDialog(this, "Member with ID " + idText + " is not a Premium Member!",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } else {
-            JOptionPane.showMessageDialog(this, "Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            // Print to console
+            System.out.println("Payment made for member ID: " + idText);
+            System.out.println("Amount Paid: " + amount);
+            System.out.println("Total Paid Amount: " + premiumMember.getPaidAmount());
+            System.out.println("Full Payment Status: " + (premiumMember.isFullPayment() ? "Complete" : "Incomplete"));
+            System.out.println();
         }
     }
 
@@ -1273,58 +1332,17 @@ public class GymGUI extends JFrame {
      */
     private void revertRegularMember() {
         String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Get the removal reason
         String removalReason = removalReasonField.getText().trim();
-        if (removalReason.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter a removal reason!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Find the member and check if it's a RegularMember
-        GymMember memberToRemove = null;
-        for (GymMember member : members) {
-            if (member.getId().equals(idText) && member instanceof RegularMember) {
-                memberToRemove = member;
-                break;
-            }
-        }
-
-        if (memberToRemove != null) {
-            RegularMember regularMember = (RegularMember) memberToRemove;
-            regularMember.revertRegularMember(removalReason);
-            members.remove(memberToRemove);
-
-            JOptionPane.showMessageDialog(this, "Regular Member with ID " + idText + " has been removed.",
-                    "Member Removed", JOptionPane.INFORMATION_MESSAGE);
-
-            // Save changes to file
-            saveMembersToFile();
+        MemberResult result = memberService.revertRegularMember(idText, removalReason);
+        showResult(result, "Member Removed");
 
+        if (result.getMember() != null) {
             // Print to console
             System.out.println("Regular Member Removed - ID: " + idText);
             System.out.println("Removal Reason: " + removalReason);
             System.out.println();
 
             clearFields();
-        } else {
-            JOptionPane.showMessageDialog(this, "Regular Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1333,58 +1351,110 @@ public class GymGUI extends JFrame {
      */
     private void revertPremiumMember() {
         String idText = idField.getText().trim();
-        if (idText.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter Member ID!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        String removalReason = removalReasonField.getText().trim();
+        MemberResult result = memberService.revertPremiumMember(idText, removalReason);
+        showResult(result, "Member Removed");
 
-        // Verify ID is numeric
-        try {
-            Integer.parseInt(idText);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Member ID must contain only numbers!",
-                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        if (result.getMember() != null) {
+            // Print to console
+            System.out.println("Premium Member Removed - ID: " + idText);
+            System.out.println("Removal Reason: " + removalReason);
+            System.out.println();
 
-        // Get the removal reason
-        String removalReason = removalReasonField.getText().trim();
-        if (removalReason.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter a removal reason!",
-                    "Missing Information", JOptionPane.ERROR_MESSAGE);
-            return;
+            clearFields();
         }
+    }
 
-        // Find the member and check if it's a PremiumMember
-        GymMember memberToRemove = null;
-        for (GymMember member : members) {
-            if (member.getId().equals(idText) && member instanceof PremiumMember) {
-                memberToRemove = member;
-                break;
-            }
+    /**
+     * Returns the selected gender, showing an error if none is selected
+     * @return the gender, or null if none is selected
+     */
+    private String getSelectedGender() {
+        if (maleRadioButton.isSelected()) {
+            return "Male";
+        } else if (femaleRadioButton.isSelected()) {
+            return "Female";
         }
 
-        if (memberToRemove != null) {
-            PremiumMember premiumMember = (PremiumMember) memberToRemove;
-            premiumMember.revertPremiumMember(removalReason);
-            members.remove(memberToRemove);
-
-            JOptionPane.showMessageDialog(this, "Premium Member with ID " + idText + " has been removed.",
-                    "Member Removed", JOptionPane.INFORMATION_MESSAGE);
+        JOptionPane.showMessageDialog(this, "Please select a gender!", "Error", JOptionPane.ERROR_MESSAGE);
+        return null;
+    }
 
-            // Save changes to file
-            saveMembersToFile();
+    /**
+     * Reads an amount from a text field, showing an error if it is not a valid number
+     * @param field the field to read
+     * @param required true if the amount must be entered
+     * @return the amount (0 for an empty optional field), or null if it is invalid
+     */
+    private Double readAmount(JTextField field, boolean required) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            if (required) {
+                JOptionPane.showMessageDialog(this, "Please enter an amount to pay!",
+                        "Missing Information", JOptionPane.ERROR_MESSAGE);
+                return null;
+            }
+            return 0.0;
+        }
 
-            // Print to console
-            System.out.println("Premium Member Removed - ID: " + idText);
-            System.out.println("Removal Reason: " + removalReason);
-            System.out.println();
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Paid Amount must be a valid number!",
+                    "Invalid Input", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
 
-            clearFields();
-        } else {
-            JOptionPane.showMessageDialog(this, "Premium Member with ID " + idText + " not found!",
-                    "Error", JOptionPane.ERROR_MESSAGE);
+    /**
+     * Shows the outcome of a member operation in a dialog
+     * @param result the outcome
+     * @param successTitle the dialog title used when the operation succeeded
+     */
+    private void showResult(MemberResult result, String successTitle) {
+        switch (result.getStatus()) {
+            case SUCCESS:
+                JOptionPane.showMessageDialog(this, result.getMessage(), successTitle,
+                        JOptionPane.INFORMATION_MESSAGE);
+                break;
+            case INVALID_INPUT:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Invalid Input",
+                        JOptionPane.ERROR_MESSAGE);
+                break;
+            case DUPLICATE_ID:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Duplicate ID",
+                        JOptionPane.ERROR_MESSAGE);
+                break;
+            case ALREADY_ACTIVE:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Already Active",
+                        JOptionPane.INFORMATION_MESSAGE);
+                break;
+            case ALREADY_INACTIVE:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Already Inactive",
+                        JOptionPane.INFORMATION_MESSAGE);
+                break;
+            case INACTIVE:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Inactive Member",
+                        JOptionPane.WARNING_MESSAGE);
+                break;
+            case LOCATION_FULL:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Location Full",
+                        JOptionPane.WARNING_MESSAGE);
+                break;
+            case STORAGE_ERROR:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Save Error",
+                        JOptionPane.WARNING_MESSAGE);
+                break;
+            case NOT_FOUND:
+            case WRONG_MEMBER_TYPE:
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                break;
+            default:
+                // Business rule outcomes such as an ineligible upgrade are informational
+                JOptionPane.showMessageDialog(this, result.getMessage(), successTitle,
+                        JOptionPane.INFORMATION_MESSAGE);
+                break;
         }
     }
 
@@ -1420,34 +1490,6 @@ public class GymGUI extends JFrame {
         trainerNameField.setEnabled(false);
     }
 
-    /**
-     * Checks if a member with the given ID already exists
-     * @param id the ID to check
-     * @return true if the ID already exists, false otherwise
-     */
-    private boolean isMemberIdDuplicate(String id) {
-        for (GymMember member : members) {
-            if (member.getId().equals(id)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Finds a member by their ID
-     * @param id the ID to search for
-     * @return the GymMember object if found, null otherwise
-     */
-    private GymMember findMemberById(String id) {
-        for (GymMember member : members) {
-            if (member.getId().equals(id)) {
-                return member;
-            }
-        }
-        return null;
-    }
-
     /**
      * Generates an array of days (1-31) for combo boxes
      * @return array of days as strings
@@ -1476,12 +1518,13 @@ public class GymGUI extends JFrame {
     }
 
     /**
-     * Displays all members in separate panels based on their type with improved UI
+     * Displays all members in a sortable table that can be filtered by member type.
+     * Rows are read from the service only when they are painted.
      */
     private void displayMembers() {
         // Create a new frame for displaying members
-        JFrame displayFrame = new JFrame("Member Information");
-        displayFrame.setSize(900, 650);
+        final JFrame displayFrame = new JFrame("Member Information");
+        displayFrame.setSize(1100, 650);
         displayFrame.setLayout(new BorderLayout());
         displayFrame.getContentPane().setBackground(FORM_BG_COLOR);
 
@@ -1512,93 +1555,109 @@ public class GymGUI extends JFrame {
 
         displayFrame.add(headerPanel, BorderLayout.NORTH);
 
-        // Create a tabbed pane to separate Regular and Premium members with improved styling
-        JTabbedPane tabbedPane = new JTabbedPane();
-        tabbedPane.setFont(new Font("Arial", Font.BOLD, 14));
-        tabbedPane.setBackground(PANEL_COLOR);
-        tabbedPane.setForeground(TEXT_COLOR);
-
-        // Panel for Regular Members
-        JPanel regularPanel = new JPanel(new BorderLayout());
-        regularPanel.setBackground(PANEL_COLOR);
-        regularPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-
-        JTextArea regularTextArea = new JTextArea();
-        regularTextArea.setEditable(false);
-        regularTextArea.setFont(new Font("Arial", Font.PLAIN, 14));
-        regularTextArea.setBackground(Color.WHITE);
-        regularTextArea.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-        regularTextArea.setLineWrap(true);
-        regularTextArea.setWrapStyleWord(true);
-
-        JScrollPane regularScrollPane = new JScrollPane(regularTextArea);
-        regularScrollPane.setBorder(BorderFactory.createLineBorder(new Color(189, 195, 199), 1));
-        regularPanel.add(regularScrollPane, BorderLayout.CENTER);
-
-        // Panel for Premium Members
-        JPanel premiumPanel = new JPanel(new BorderLayout());
-        premiumPanel.setBackground(PANEL_COLOR);
-        premiumPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-
-        JTextArea premiumTextArea = new JTextArea();
-        premiumTextArea.setEditable(false);
-        premiumTextArea.setFont(new Font("Arial", Font.PLAIN, 14));
-        premiumTextArea.setBackground(Color.WHITE);
-        premiumTextArea.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-        premiumTextArea.setLineWrap(true);
-        premiumTextArea.setWrapStyleWord(true);
-
-        JScrollPane premiumScrollPane = new JScrollPane(premiumTextArea);
-        premiumScrollPane.setBorder(BorderFactory.createLineBorder(new Color(189, 195, 199), 1));
-        premiumPanel.add(premiumScrollPane, BorderLayout.CENTER);
-
-        // Add the panels to the tabbed pane
-        tabbedPane.addTab("Regular Members", regularPanel);
-        tabbedPane.addTab("Premium Members", premiumPanel);
-
-        // Set tab icons with improved styling
-        tabbedPane.setTabComponentAt(0, createTabLabel("Regular Members", new Color(39, 174, 96)));
-        tabbedPane.setTabComponentAt(1, createTabLabel("Premium Members", new Color(231, 76, 60)));
-
-        // Display the members' information in the text areas
-        boolean hasRegularMembers = false;
-        boolean hasPremiumMembers = false;
-
-        for (GymMember member : members) {
-            if (member instanceof RegularMember) {
-                RegularMember regularMember = (RegularMember) member;
-                regularTextArea.append(formatMemberInfo(regularMember) + "\n\n" +
-                        "----------------------------------------\n\n");
-                hasRegularMembers = true;
-
-                // Also print to console
-                System.out.println("DISPLAYING REGULAR MEMBER:");
-                System.out.println(regularMember.toString());
-                System.out.println();
-            } else if (member instanceof PremiumMember) {
-                PremiumMember premiumMember = (PremiumMember) member;
-                premiumTextArea.append(formatMemberInfo(premiumMember) + "\n\n" +
-                        "----------------------------------------\n\n");
-                hasPremiumMembers = true;
-
-                // Also print to console
-                System.out.println("DISPLAYING PREMIUM MEMBER:");
-                System.out.println(premiumMember.toString());
-                System.out.println();
+        // Table over the members, sorting and filtering work on row indexes without copying members
+        final MemberTableModel tableModel = new MemberTableModel(memberService);
+        final JTable table = new JTable(tableModel);
+        table.setFont(new Font("Arial", Font.PLAIN, 13));
+        table.setRowHeight(24);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 13));
+        table.getTableHeader().setBackground(PANEL_COLOR);
+        table.getTableHeader().setForeground(TEXT_COLOR);
+
+        final TableRowSorter<MemberTableModel> sorter = new TableRowSorter<>(tableModel);
+        // IDs are numeric, so sort them by value rather than as text
+        sorter.setComparator(MemberTableModel.ID_COLUMN, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                try {
+                    return Long.compare(Long.parseLong(a), Long.parseLong(b));
+                } catch (NumberFormatException e) {
+                    return a.compareTo(b);
+                }
             }
-        }
+        });
+        table.setRowSorter(sorter);
 
-        // Add messages if no members exist
-        if (!hasRegularMembers) {
-            regularTextArea.setText("No regular members found.");
-        }
+        // Show member details on double click
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int viewRow = table.getSelectedRow();
+                if (e.getClickCount() == 2 && viewRow >= 0) {
+                    GymMember member = tableModel.getMember(table.convertRowIndexToModel(viewRow));
+                    if (member != null) {
+                        JOptionPane.showMessageDialog(displayFrame, formatMemberInfo(member),
+                                "Member " + member.getId(), JOptionPane.INFORMATION_MESSAGE);
+                    }
+                }
+            }
+        });
 
-        if (!hasPremiumMembers) {
-            premiumTextArea.setText("No premium members found.");
-        }
+        JScrollPane tableScrollPane = new JScrollPane(table);
+        tableScrollPane.setBorder(BorderFactory.createLineBorder(new Color(189, 195, 199), 1));
 
-        // Add the tabbed pane to the display frame
-        displayFrame.add(tabbedPane, BorderLayout.CENTER);
+        // Filter by member type and show how many members are listed
+        final JComboBox<String> typeFilterComboBox = new JComboBox<>(new String[] {
+                "All Members", "Regular Members", "Premium Members"});
+        styleComboBox(typeFilterComboBox);
+        final JLabel countLabel = new JLabel();
+        countLabel.setFont(new Font("Arial", Font.BOLD, 13));
+        countLabel.setForeground(TEXT_COLOR);
+
+        typeFilterComboBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int selected = typeFilterComboBox.getSelectedIndex();
+                if (selected == 0) {
+                    sorter.setRowFilter(null);
+                } else {
+                    final String type = selected == 1 ? MemberTableModel.REGULAR : MemberTableModel.PREMIUM;
+                    sorter.setRowFilter(new RowFilter<MemberTableModel, Integer>() {
+                        @Override
+                        public boolean include(Entry<? extends MemberTableModel, ? extends Integer> entry) {
+                            return type.equals(entry.getValue(MemberTableModel.TYPE_COLUMN));
+                        }
+                    });
+                }
+                countLabel.setText(table.getRowCount() + " of " + tableModel.getRowCount() + " members");
+            }
+        });
+        countLabel.setText(table.getRowCount() + " of " + tableModel.getRowCount() + " members");
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 12, 8));
+        filterPanel.setBackground(PANEL_COLOR);
+        JLabel showLabel = new JLabel("Show:");
+        showLabel.setFont(new Font("Arial", Font.BOLD, 13));
+        showLabel.setForeground(TEXT_COLOR);
+        filterPanel.add(showLabel);
+        filterPanel.add(typeFilterComboBox);
+        filterPanel.add(countLabel);
+
+        JPanel tablePanel = new JPanel(new BorderLayout());
+        tablePanel.setBackground(PANEL_COLOR);
+        tablePanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 15, 15));
+        tablePanel.add(filterPanel, BorderLayout.NORTH);
+        tablePanel.add(tableScrollPane, BorderLayout.CENTER);
+        displayFrame.add(tablePanel, BorderLayout.CENTER);
+
+        // Keep the table current while members change, only the visible rows are repainted
+        final Timer refreshTimer = new Timer(2000, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                tableModel.refresh();
+                countLabel.setText(table.getRowCount() + " of " + tableModel.getRowCount() + " members");
+            }
+        });
+        refreshTimer.start();
+        displayFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        displayFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
         // Add button panel with improved styling
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 15));
@@ -1620,10 +1679,7 @@ public class GymGUI extends JFrame {
         saveToFileButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                saveMembersToFile();
-                JOptionPane.showMessageDialog(displayFrame,
-                        "Members successfully saved to database file.",
-                        "Save Successful", JOptionPane.INFORMATION_MESSAGE);
+                saveMembersToFile(displayFrame);
             }
         });
         buttonPanel.add(saveToFileButton);
@@ -1635,20 +1691,6 @@ public class GymGUI extends JFrame {
         displayFrame.setVisible(true);
     }
 
-    /**
-     * Creates a styled label for tabs with improved design
-     * @param text The tab text
-     * @param color The tab color
-     * @return JLabel styled for use in tab
-     */
-    private JLabel createTabLabel(String text, Color color) {
-        JLabel label = new JLabel(text);
-        label.setFont(new Font("Arial", Font.BOLD, 13));
-        label.setForeground(color);
-        label.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
-        return label;
-    }
-
     /**
      * Formats member information for display with improved readability
      * @param member The GymMember to format
@@ -1687,175 +1729,328 @@ public class GymGUI extends JFrame {
     }
 
     /**
-     * Saves all members to a text file
+     * Saves all members to the snapshot and exports them to the text data file
+     * in the background
      */
     private void saveMembersToFile() {
-        try {
-            FileWriter fileWriter = new FileWriter(DATA_FILE);
-            PrintWriter printWriter = new PrintWriter(fileWriter);
-
-            // Write header
-            printWriter.println("# GYM MEMBER DATABASE");
-            printWriter.println("# FORMAT: TYPE|ID|NAME|LOCATION|PHONE|EMAIL|GENDER|DOB|MEMBERSHIP_START|REFERRAL|PAID_AMOUNT|ACTIVE|ATTENDANCE|LOYALTY|ADDITIONAL_DATA");
-            printWriter.println();
-
-            // Write each member as a line
-            for (GymMember member : members) {
-                if (member instanceof RegularMember) {
-                    RegularMember regularMember = (RegularMember) member;
-                    printWriter.println("REGULAR|" +
-                            regularMember.getId() + "|" +
-                            regularMember.getName() + "|" +
-                            regularMember.getLocation() + "|" +
-                            regularMember.getPhone() + "|" +
-                            regularMember.getEmail() + "|" +
-                            regularMember.getGender() + "|" +
-                            regularMember.getDob() + "|" +
-                            regularMember.getMembershipStartDate() + "|" +
-                            regularMember.getReferralSource() + "|" +
-                            regularMember.getPaidAmount() + "|" +
-                            regularMember.isActive() + "|" +
-                            regularMember.getAttendance() + "|" +
-                            regularMember.getLoyaltyPoints() + "|" +
-                            regularMember.getPlan() + "," + regularMember.getPrice());
-                } else if (member instanceof PremiumMember) {
-                    PremiumMember premiumMember = (PremiumMember) member;
-                    printWriter.println("PREMIUM|" +
-                            premiumMember.getId() + "|" +
-                            premiumMember.getName() + "|" +
-                            premiumMember.getLocation() + "|" +
-                            premiumMember.getPhone() + "|" +
-                            premiumMember.getEmail() + "|" +
-                            premiumMember.getGender() + "|" +
-                            premiumMember.getDob() + "|" +
-                            premiumMember.getMembershipStartDate() + "|" +
-                            premiumMember.getReferralSource() + "|" +
-                            premiumMember.getPaidAmount() + "|" +
-                            premiumMember.isActive() + "|" +
-                            premiumMember.getAttendance() + "|" +
-                            premiumMember.getLoyaltyPoints() + "|" +
-                            premiumMember.getPersonalTrainer() + "," +
-                            premiumMember.isFullPayment() + "," +
-                            premiumMember.getDiscountAmount());
-                }
+        saveMembersToFile(null);
+    }
+
+    /**
+     * Saves all members to the snapshot and exports them to the text data file
+     * in the background
+     * @param confirmParent the window to show a confirmation in once saved, may be null
+     */
+    private void saveMembersToFile(final Component confirmParent) {
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                memberService.save();
+                return null;
             }
 
-            printWriter.close();
-            System.out.println("Members data saved to " + DATA_FILE);
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error saving members to file: " + e.getMessage(),
-                    "Save Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    if (confirmParent != null) {
+                        JOptionPane.showMessageDialog(confirmParent,
+                                "Members successfully saved to database file.",
+                                "Save Successful", JOptionPane.INFORMATION_MESSAGE);
+                    }
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(GymGUI.this,
+                            "Error saving members to file: " + cause.getMessage(),
+                            "Save Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        }.execute();
     }
 
     /**
-     * Loads members from the data file
+     * Loads members from the snapshot or data file in the background,
+     * showing the progress and disabling the buttons until loading is done
      */
     private void loadMembersFromFile() {
-        File file = new File(DATA_FILE);
-        if (!file.exists()) {
-            System.out.println("Data file not found. Starting with empty database.");
+        final JProgressBar progressBar = new JProgressBar(0, 100);
+        final JDialog progressDialog = createProgressDialog("Loading",
+                "Loading members from database...", progressBar);
+
+        setButtonsEnabled(false);
+
+        SwingWorker<Integer, Void> loader = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return memberService.load(new ProgressListener() {
+                    @Override
+                    public void progress(long done, long total) {
+                        setProgress(total == 0 ? 100 : (int) (done * 100 / total));
+                    }
+                });
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                setButtonsEnabled(true);
+
+                try {
+                    int loaded = get();
+
+                    // Show success message with improved design
+                    if (loaded > 0) {
+                        JOptionPane.showMessageDialog(GymGUI.this,
+                                "Successfully loaded " + loaded + " members from database.",
+                                "Data Loaded", JOptionPane.INFORMATION_MESSAGE);
+                    }
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(GymGUI.this,
+                            "Error loading members from file: " + cause.getMessage(),
+                            "Load Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        };
+
+        loader.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) {
+                    progressBar.setValue((Integer) evt.getNewValue());
+                }
+            }
+        });
+
+        progressDialog.setVisible(true);
+        loader.execute();
+    }
+
+    /**
+     * Imports members in bulk from a CSV or JSON Lines file chosen by the user
+     */
+    private void importMembers() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Members (CSV or JSON Lines)");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
             return;
         }
+        final File input = fileChooser.getSelectedFile();
 
-        try {
-            members.clear(); // Clear existing members
-            BufferedReader reader = new BufferedReader(new FileReader(file));
-            String line;
-
-            // Skip header lines
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty() || line.startsWith("#")) {
-                    continue;
+        final JProgressBar progressBar = new JProgressBar(0, 100);
+        final JDialog progressDialog = createProgressDialog("Importing",
+                "Importing members from " + input.getName() + "...", progressBar);
+
+        setButtonsEnabled(false);
+
+        SwingWorker<ImportResult, Void> importer = new SwingWorker<ImportResult, Void>() {
+            @Override
+            protected ImportResult doInBackground() throws Exception {
+                return new MemberImporter(memberService).importFile(input,
+                        MemberImporter.errorFileFor(input), new ProgressListener() {
+                            @Override
+                            public void progress(long done, long total) {
+                                setProgress(total == 0 ? 100 : (int) (done * 100 / total));
+                            }
+                        });
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                setButtonsEnabled(true);
+
+                try {
+                    ImportResult result = get();
+                    JOptionPane.showMessageDialog(GymGUI.this, result.toString(), "Import Complete",
+                            result.getRejected() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+
+                    // Print to console
+                    System.out.println("Imported members from " + input + ": " + result);
+                    System.out.println();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(GymGUI.this,
+                            "Error importing members: " + cause.getMessage(),
+                            "Import Error", JOptionPane.ERROR_MESSAGE);
                 }
+            }
+        };
 
-                String[] parts = line.split("\\|");
-                if (parts.length < 15) {
-                    System.out.println("Invalid line format: " + line);
-                    continue;
+        importer.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) {
+                    progressBar.setValue((Integer) evt.getNewValue());
                 }
+            }
+        });
 
-                String type = parts[0];
-                String id = parts[1];
-                String name = parts[2];
-                String location = parts[3];
-                String phone = parts[4];
-                String email = parts[5];
-                String gender = parts[6];
-                String dob = parts[7];
-                String membershipStartDate = parts[8];
-                String referralSource = parts[9];
-                double paidAmount = Double.parseDouble(parts[10]);
-                boolean active = Boolean.parseBoolean(parts[11]);
-                int attendance = Integer.parseInt(parts[12]);
-                double loyaltyPoints = Double.parseDouble(parts[13]);
-                String additionalData = parts[14];
-
-                if ("REGULAR".equals(type)) {
-                    String[] planData = additionalData.split(",");
-                    String plan = planData[0];
-                    // Create regular member
-                    RegularMember regularMember = new RegularMember(
-                            id, name, location, phone, email, gender, dob,
-                            membershipStartDate, referralSource, paidAmount, plan
-                    );
-
-                    // Set additional properties
-                    regularMember.setAttendance(attendance);
-                    regularMember.setLoyaltyPoints(loyaltyPoints);
-                    if (active) {
-                        regularMember.activateMembership();
-                    }
+        progressDialog.setVisible(true);
+        importer.execute();
+    }
 
-                    members.add(regularMember);
-                } else if ("PREMIUM".equals(type)) {
-                    String[] premiumData = additionalData.split(",");
-                    String trainer = premiumData[0];
-
-                    // Create premium member
-                    PremiumMember premiumMember = new PremiumMember(
-                            id, name, location, phone, email, gender, dob,
-                            membershipStartDate, referralSource, paidAmount, trainer
-                    );
-
-                    // Set additional properties
-                    premiumMember.setAttendance(attendance);
-                    premiumMember.setLoyaltyPoints(loyaltyPoints);
-                    if (active) {
-                        premiumMember.activateMembership();
-                    }
+    /**
+     * Shows billed, collected and outstanding amounts grouped by location, plan or start month.
+     * The totals are kept up to date by the service, so no members are scanned.
+     */
+    private void showRevenueReport() {
+        MemberAnalytics.Grouping grouping = (MemberAnalytics.Grouping) JOptionPane.showInputDialog(this,
+                "Group members by:", "Revenue Report", JOptionPane.PLAIN_MESSAGE, null,
+                MemberAnalytics.Grouping.values(), MemberAnalytics.Grouping.LOCATION);
+        if (grouping == null) {
+            return;
+        }
 
-                    // Set premium-specific properties if available
-                    if (premiumData.length > 1) {
-                        boolean fullPayment = Boolean.parseBoolean(premiumData[1]);
-                        premiumMember.setFullPayment(fullPayment);
-                    }
+        RevenueReport report = memberService.getRevenueReport(grouping);
+        JTextArea reportArea = new JTextArea(report.toString());
+        reportArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        reportArea.setEditable(false);
 
-                    if (premiumData.length > 2) {
-                        double discountAmount = Double.parseDouble(premiumData[2]);
-                        premiumMember.setDiscountAmount(discountAmount);
-                    }
+        JScrollPane scrollPane = new JScrollPane(reportArea);
+        scrollPane.setPreferredSize(new Dimension(860, 360));
+        JOptionPane.showMessageDialog(this, scrollPane, "Revenue Report", JOptionPane.INFORMATION_MESSAGE);
 
-                    members.add(premiumMember);
-                }
+        // Print to console
+        System.out.println(report);
+        System.out.println();
+    }
+
+    /**
+     * Exports the members matching the chosen filter to a CSV, JSON Lines or native file
+     */
+    private void exportMembers() {
+        JComboBox<String> typeBox = new JComboBox<>(new String[] {"All", "Regular", "Premium"});
+        JComboBox<String> statusBox = new JComboBox<>(new String[] {"All", "Active", "Inactive"});
+        JComboBox<String> planBox = new JComboBox<>(new String[] {"All", "Basic", "Standard", "Deluxe"});
+
+        JPanel filterPanel = new JPanel(new GridLayout(3, 2, 5, 5));
+        filterPanel.add(new JLabel("Membership Type:"));
+        filterPanel.add(typeBox);
+        filterPanel.add(new JLabel("Status:"));
+        filterPanel.add(statusBox);
+        filterPanel.add(new JLabel("Plan (Regular only):"));
+        filterPanel.add(planBox);
+
+        int choice = JOptionPane.showConfirmDialog(this, filterPanel, "Export Members",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Members (.csv, .jsonl or native data file)");
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        final File output = fileChooser.getSelectedFile();
+
+        String status = (String) statusBox.getSelectedItem();
+        final MemberFilter filter = new MemberFilter(
+                typeBox.getSelectedIndex() == 0 ? null : (String) typeBox.getSelectedItem(),
+                "All".equals(status) ? null : Boolean.valueOf("Active".equals(status)),
+                planBox.getSelectedIndex() == 0 ? null : (String) planBox.getSelectedItem());
+
+        final JProgressBar progressBar = new JProgressBar(0, 100);
+        final JDialog progressDialog = createProgressDialog("Exporting",
+                "Exporting members to " + output.getName() + "...", progressBar);
+
+        setButtonsEnabled(false);
+
+        SwingWorker<ExportResult, Void> exporter = new SwingWorker<ExportResult, Void>() {
+            @Override
+            protected ExportResult doInBackground() throws Exception {
+                return new MemberExporter().exportFile(memberService.listMembers(), output, filter,
+                        new ProgressListener() {
+                            @Override
+                            public void progress(long done, long total) {
+                                setProgress(total == 0 ? 100 : (int) (done * 100 / total));
+                            }
+                        });
             }
 
-            reader.close();
-            System.out.println("Loaded " + members.size() + " members from " + DATA_FILE);
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                setButtonsEnabled(true);
 
-            // Show success message with improved design
-            if (members.size() > 0) {
-                JOptionPane.showMessageDialog(this,
-                        "Successfully loaded " + members.size() + " members from database.",
-                        "Data Loaded", JOptionPane.INFORMATION_MESSAGE);
+                try {
+                    ExportResult result = get();
+                    JOptionPane.showMessageDialog(GymGUI.this, result.toString(), "Export Complete",
+                            JOptionPane.INFORMATION_MESSAGE);
+
+                    // Print to console
+                    System.out.println("Exported members (" + filter + "): " + result);
+                    System.out.println();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(GymGUI.this,
+                            "Error exporting members: " + cause.getMessage(),
+                            "Export Error", JOptionPane.ERROR_MESSAGE);
+                }
             }
-        } catch (IOException | NumberFormatException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading members from file: " + e.getMessage(),
-                    "Load Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+        };
+
+        exporter.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) {
+                    progressBar.setValue((Integer) evt.getNewValue());
+                }
+            }
+        });
+
+        progressDialog.setVisible(true);
+        exporter.execute();
+    }
+
+    /**
+     * Creates a non-modal dialog showing the progress of a background task
+     * @param title the dialog title
+     * @param message the text shown above the progress bar
+     * @param progressBar the progress bar to show
+     * @return the dialog, not yet visible
+     */
+    private JDialog createProgressDialog(String title, String message, JProgressBar progressBar) {
+        progressBar.setStringPainted(true);
+        progressBar.setFont(new Font("Arial", Font.BOLD, 13));
+        progressBar.setForeground(BUTTON_COLOR);
+
+        JLabel messageLabel = new JLabel(message);
+        messageLabel.setFont(new Font("Arial", Font.BOLD, 13));
+        messageLabel.setForeground(TEXT_COLOR);
+
+        JPanel progressPanel = new JPanel(new BorderLayout(10, 10));
+        progressPanel.setBackground(FORM_BG_COLOR);
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        progressPanel.add(messageLabel, BorderLayout.NORTH);
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+
+        JDialog progressDialog = new JDialog(this, title, false);
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        progressDialog.add(progressPanel);
+        progressDialog.setSize(350, 120);
+        progressDialog.setLocationRelativeTo(this);
+        return progressDialog;
+    }
+
+    /**
+     * Enables or disables all action buttons
+     * @param enabled true to enable the buttons
+     */
+    private void setButtonsEnabled(boolean enabled) {
+        JButton[] buttons = {
+                addRegularMemberButton, addPremiumMemberButton,
+                activateMembershipButton, deactivateMembershipButton,
+                markAttendanceButton, batchCheckInButton, checkOutButton, occupancyButton, upgradePlanButton,
+                calculateDiscountButton, payDueAmountButton, revenueReportButton,
+                revertRegularMemberButton, revertPremiumMemberButton,
+                displayButton, clearButton, saveButton, importButton, exportButton
+        };
+        for (JButton button : buttons) {
+            button.setEnabled(enabled);
         }
     }
 
@@ -1877,12 +2072,15 @@ public class GymGUI extends JFrame {
                 GymGUI gui = new GymGUI();
                 gui.setVisible(true);
 
+                // Load existing members from file without blocking the window
+                gui.loadMembersFromFile();
+
                 // Add help dialog showing usage of the application with improved styling
                 JOptionPane.showMessageDialog(gui,
                         "Welcome to Gym Membership Management System!\n\n" +
-                                "• Member ID must contain only numbers\n" +
+                                "• Member ID must contain only numbers, without leading zeros\n" +
                                 "• Trainer's Name is only for Premium Members\n" +
-                                "• Member data is automatically saved to 'gym_members.docx'\n" +
+                                "• Every change is journalled to 'gym_members.journal' and merged into 'gym_members.docx'\n" +
                                 "• You can save the database manually using the 'Save on File' button\n" +
                                 "• Members are automatically loaded when starting the application\n\n" +
                                 "The new interface has improved contrast for better accessibility.",
@@ -1,3 +1,7 @@
+package gym;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 /**
  * GymMember class represents a base class for gym members
  * with common attributes and methods.
@@ -12,15 +16,28 @@ public abstract class GymMember {
     protected String gender;
     protected String dob;
     protected String membershipStartDate;
-    protected int attendance;
-    protected double loyaltyPoints;
-    protected boolean activeStatus;
+    protected volatile boolean activeStatus;
+
+    // Dates as days since 1970-01-01, MemberDates.NO_DATE if they cannot be read
+    private int dobEpochDay;
+    private int membershipStartEpochDay;
+
+    // Attendance in the high 32 bits and loyalty points in hundredths in the low 32 bits,
+    // so a check-in updates both with a single compare-and-set and no lock
+    private volatile long visits;
+    private static final AtomicLongFieldUpdater<GymMember> VISITS =
+            AtomicLongFieldUpdater.newUpdater(GymMember.class, "visits");
+    private static final long LOYALTY_MASK = 0xFFFFFFFFL;
+    private static final int LOYALTY_SCALE = 100;
 
     // Additional attributes
     private String referralSource;
     private double paidAmount;
     private String removalReason;
 
+    // True if the member changed since the member store last saved it; new members start changed
+    private volatile boolean dirty = true;
+
     /**
      * Constructor for GymMember
      */
@@ -30,16 +47,18 @@ public abstract class GymMember {
                      double paidAmount) {
         this.id = id;
         this.name = name;
-        this.location = location;
+        // Repeated attributes share one String per distinct value
+        this.location = AttributeDictionary.LOCATIONS.intern(location);
         this.phone = phone;
         this.email = email;
-        this.gender = gender;
+        this.gender = AttributeDictionary.GENDERS.intern(gender);
         this.dob = dob;
         this.membershipStartDate = membershipStartDate;
-        this.referralSource = referralSource;
+        this.dobEpochDay = MemberDates.toEpochDay(dob);
+        this.membershipStartEpochDay = MemberDates.toEpochDay(membershipStartDate);
+        this.referralSource = AttributeDictionary.REFERRALS.intern(referralSource);
         this.paidAmount = paidAmount;
-        this.attendance = 0;
-        this.loyaltyPoints = 0;
+        this.visits = 0;
         this.activeStatus = false; // New members are inactive by default
         this.removalReason = "";
     }
@@ -51,6 +70,7 @@ public abstract class GymMember {
 
     public void setId(String id) {
         this.id = id;
+        markDirty();
     }
 
     public String getName() {
@@ -59,6 +79,7 @@ public abstract class GymMember {
 
     public void setName(String name) {
         this.name = name;
+        markDirty();
     }
 
     public String getLocation() {
@@ -66,7 +87,8 @@ public abstract class GymMember {
     }
 
     public void setLocation(String location) {
-        this.location = location;
+        this.location = AttributeDictionary.LOCATIONS.intern(location);
+        markDirty();
     }
 
     public String getPhone() {
@@ -75,6 +97,7 @@ public abstract class GymMember {
 
     public void setPhone(String phone) {
         this.phone = phone;
+        markDirty();
     }
 
     public String getEmail() {
@@ -83,6 +106,7 @@ public abstract class GymMember {
 
     public void setEmail(String email) {
         this.email = email;
+        markDirty();
     }
 
     public String getGender() {
@@ -90,7 +114,8 @@ public abstract class GymMember {
     }
 
     public void setGender(String gender) {
-        this.gender = gender;
+        this.gender = AttributeDictionary.GENDERS.intern(gender);
+        markDirty();
     }
 
     public String getDob() {
@@ -99,6 +124,12 @@ public abstract class GymMember {
 
     public void setDob(String dob) {
         this.dob = dob;
+        this.dobEpochDay = MemberDates.toEpochDay(dob);
+        markDirty();
+    }
+
+    public int getDobEpochDay() {
+        return dobEpochDay;
     }
 
     public String getMembershipStartDate() {
@@ -107,6 +138,12 @@ public abstract class GymMember {
 
     public void setMembershipStartDate(String membershipStartDate) {
         this.membershipStartDate = membershipStartDate;
+        this.membershipStartEpochDay = MemberDates.toEpochDay(membershipStartDate);
+        markDirty();
+    }
+
+    public int getMembershipStartEpochDay() {
+        return membershipStartEpochDay;
     }
 
     public String getReferralSource() {
@@ -114,7 +151,8 @@ public abstract class GymMember {
     }
 
     public void setReferralSource(String referralSource) {
-        this.referralSource = referralSource;
+        this.referralSource = AttributeDictionary.REFERRALS.intern(referralSource);
+        markDirty();
     }
 
     public double getPaidAmount() {
@@ -123,6 +161,7 @@ public abstract class GymMember {
 
     public void setPaidAmount(double paidAmount) {
         this.paidAmount = paidAmount;
+        markDirty();
     }
 
     public boolean isActive() {
@@ -131,22 +170,40 @@ public abstract class GymMember {
 
     public void setActive(boolean active) {
         this.activeStatus = active;
+        markDirty();
     }
 
     public int getAttendance() {
-        return attendance;
+        return (int) (visits >>> 32);
     }
 
     public void setAttendance(int attendance) {
-        this.attendance = attendance;
+        if (attendance < 0) {
+            throw new IllegalArgumentException("Attendance cannot be negative: " + attendance);
+        }
+
+        long current;
+        do {
+            current = visits;
+        } while (!VISITS.compareAndSet(this, current, ((long) attendance << 32) | (current & LOYALTY_MASK)));
+        markDirty();
     }
 
     public double getLoyaltyPoints() {
-        return loyaltyPoints;
+        return (visits & LOYALTY_MASK) / (double) LOYALTY_SCALE;
     }
 
     public void setLoyaltyPoints(double loyaltyPoints) {
-        this.loyaltyPoints = loyaltyPoints;
+        long hundredths = Math.round(loyaltyPoints * LOYALTY_SCALE);
+        if (hundredths < 0 || hundredths > LOYALTY_MASK) {
+            throw new IllegalArgumentException("Loyalty points out of range: " + loyaltyPoints);
+        }
+
+        long current;
+        do {
+            current = visits;
+        } while (!VISITS.compareAndSet(this, current, (current & ~LOYALTY_MASK) | hundredths));
+        markDirty();
     }
 
     public String getRemovalReason() {
@@ -155,6 +212,7 @@ public abstract class GymMember {
 
     public void setRemovalReason(String removalReason) {
         this.removalReason = removalReason;
+        markDirty();
     }
 
     // Common methods for all members
@@ -163,6 +221,7 @@ public abstract class GymMember {
      */
     public void activateMembership() {
         this.activeStatus = true;
+        markDirty();
     }
 
     /**
@@ -171,6 +230,7 @@ public abstract class GymMember {
     public void deactivateMembership() {
         if (this.activeStatus) {
             this.activeStatus = false;
+            markDirty();
         }
     }
 
@@ -179,13 +239,58 @@ public abstract class GymMember {
      */
     public abstract void markAttendance();
 
+    /**
+     * Counts one attendance and adds loyalty points in a single atomic step.
+     * Safe to call from many threads at once without locking. The attendance and
+     * loyalty points stop at their largest values instead of overflowing into each other.
+     * @param points the whole loyalty points earned by the visit
+     * @return the attendance count including this visit
+     */
+    protected final int recordVisit(int points) {
+        long current;
+        long next;
+        do {
+            current = visits;
+            long attendance = Math.min((current >>> 32) + 1, Integer.MAX_VALUE);
+            long hundredths = Math.min((current & LOYALTY_MASK) + (long) points * LOYALTY_SCALE, LOYALTY_MASK);
+            next = (attendance << 32) | hundredths;
+        } while (!VISITS.compareAndSet(this, current, next));
+        markDirty();
+        return (int) (next >>> 32);
+    }
+
+    /**
+     * @return true if the member changed since the member store last saved it
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks the member as saved. Called by the member store while no member can change.
+     */
+    public void clearDirty() {
+        dirty = false;
+    }
+
+    /**
+     * Marks the member as changed since it was last saved.
+     * Every method that changes a saved field must call this.
+     */
+    protected final void markDirty() {
+        // Skip the write when already set, so check-ins on other threads do not fight over the cache line
+        if (!dirty) {
+            dirty = true;
+        }
+    }
+
     /**
      * Resets the member to default state
      */
     public void resetMember() {
         this.activeStatus = false;
-        this.attendance = 0;
-        this.loyaltyPoints = 0;
+        this.visits = 0;
+        markDirty();
     }
 
     /**
@@ -206,8 +311,8 @@ public abstract class GymMember {
         System.out.println("Gender: " + gender);
         System.out.println("Date of Birth: " + dob);
         System.out.println("Membership Start Date: " + membershipStartDate);
-        System.out.println("Attendance: " + attendance);
-        System.out.println("Loyalty Points: " + loyaltyPoints);
+        System.out.println("Attendance: " + getAttendance());
+        System.out.println("Loyalty Points: " + getLoyaltyPoints());
         System.out.println("Active Status: " + (activeStatus ? "Active" : "Inactive"));
     }
 
@@ -224,7 +329,7 @@ public abstract class GymMember {
                 "Referral Source: " + referralSource + "\n" +
                 "Paid Amount: " + String.format("%.2f", paidAmount) + "\n" +
                 "Active Status: " + (activeStatus ? "Active" : "Inactive") + "\n" +
-                "Attendance Count: " + attendance + "\n" +
-                "Loyalty Points: " + loyaltyPoints;
+                "Attendance Count: " + getAttendance() + "\n" +
+                "Loyalty Points: " + getLoyaltyPoints();
     }
 }
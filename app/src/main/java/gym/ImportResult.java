@@ -0,0 +1,50 @@
+package gym;
+
+import java.io.File;
+
+/**
+ * ImportResult class summarizes a bulk member import:
+ * how many records were read, imported and rejected, and where the rejects were written.
+ */
+public class ImportResult {
+    private final long records;
+    private final long imported;
+    private final long rejected;
+    private final File errorFile;
+
+    /**
+     * Constructor for ImportResult
+     * @param records the number of records read
+     * @param imported the number of members added
+     * @param rejected the number of records rejected
+     * @param errorFile the file listing the rejected records
+     */
+    public ImportResult(long records, long imported, long rejected, File errorFile) {
+        this.records = records;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errorFile = errorFile;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public File getErrorFile() {
+        return errorFile;
+    }
+
+    @Override
+    public String toString() {
+        return "Records: " + records + ", Imported: " + imported + ", Rejected: " + rejected +
+                (rejected > 0 ? "\nRejected records were written to " + errorFile : "");
+    }
+}
@@ -0,0 +1,536 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JdbcMemberStore class keeps members in an embedded SQL database, one row per
+ * member, such as H2 ("jdbc:h2:file:./gym_members") or SQLite
+ * ("jdbc:sqlite:gym_members.db"). The database driver must be on the classpath.
+ *
+ * Each change updates only the rows of the members it touched: the rows are read,
+ * the journal events are applied to them exactly as when a journal is replayed,
+ * and the rows are written back with batched prepared statements in a single
+ * transaction. The member table is indexed by ID, name and phone. On first use
+ * an empty database is filled from the text data file if there is one.
+ *
+ * Text columns have no length limit. Tables created by older versions limited them
+ * to 255 characters, so longer values are cut to fit those columns. If a batch of
+ * changes cannot be written, its events are lost to the database, so the next full
+ * save rewrites every row from the members instead.
+ */
+public class JdbcMemberStore implements MemberStore {
+    // System property with the JDBC URL that makes the GUI and server use a database
+    public static final String URL_PROPERTY = "gym.database";
+
+    // Rows sent to the database per batch
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String COLUMNS = "type, name, location, phone, email, gender, dob, " +
+            "membership_start_date, referral_source, paid_amount, active, attendance, loyalty_points, " +
+            "plan, price, eligible_for_upgrade, personal_trainer, full_payment, discount_amount, removal_reason";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS members (" +
+            "id VARCHAR PRIMARY KEY, " +
+            "type VARCHAR(16) NOT NULL, " +
+            "name VARCHAR, " +
+            "location VARCHAR, " +
+            "phone VARCHAR, " +
+            "email VARCHAR, " +
+            "gender VARCHAR, " +
+            "dob VARCHAR, " +
+            "membership_start_date VARCHAR, " +
+            "referral_source VARCHAR, " +
+            "paid_amount DOUBLE, " +
+            "active BOOLEAN, " +
+            "attendance INTEGER, " +
+            "loyalty_points DOUBLE, " +
+            "plan VARCHAR, " +
+            "price DOUBLE, " +
+            "eligible_for_upgrade BOOLEAN, " +
+            "personal_trainer VARCHAR, " +
+            "full_payment BOOLEAN, " +
+            "discount_amount DOUBLE, " +
+            "removal_reason VARCHAR)";
+
+    // Columns added after the first version of the table, with their definitions
+    private static final String[][] ADDED_COLUMNS = {
+            {"removal_reason", "VARCHAR"}
+    };
+
+    private static final String[] CREATE_INDEXES = {
+            "CREATE INDEX IF NOT EXISTS members_name ON members (name)",
+            "CREATE INDEX IF NOT EXISTS members_phone ON members (phone)"
+    };
+
+    private static final String SELECT_ALL = "SELECT id, " + COLUMNS + " FROM members";
+    private static final String SELECT_ONE = SELECT_ALL + " WHERE id = ?";
+    private static final String INSERT = "INSERT INTO members (" + COLUMNS + ", id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE members SET " + COLUMNS.replace(",", " = ?,") + " = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM members WHERE id = ?";
+    private static final String DELETE_ALL = "DELETE FROM members";
+
+    private final String url;
+    private final File dataFile;
+    private Connection connection;
+
+    // Longest value of each column in COLUMNS order, or 0 if it has no limit
+    private int[] columnLimits;
+
+    // True after a batch of changes failed, until a full save rewrote every row
+    private boolean resyncNeeded;
+
+    /**
+     * Constructor for JdbcMemberStore
+     * @param url the JDBC URL of the database
+     * @param dataFile the text data file imported into an empty database and written on export, may be null
+     */
+    public JdbcMemberStore(String url, File dataFile) {
+        this.url = url;
+        this.dataFile = dataFile;
+    }
+
+    @Override
+    public int load(MemberRepository members, ProgressListener listener) throws IOException {
+        members.clear();
+        try {
+            if (connection == null) {
+                connection = DriverManager.getConnection(url);
+                connection.setAutoCommit(false);
+                createSchema();
+            }
+
+            int rows = countRows();
+            if (rows == 0 && dataFile != null && dataFile.exists()) {
+                new ParallelMemberLoader().load(dataFile, members, listener);
+                insertAll(members);
+                connection.commit();
+                System.out.println("Imported " + members.size() + " members from " + dataFile + " into " + url);
+                return members.size();
+            }
+
+            PreparedStatement select = connection.prepareStatement(SELECT_ALL);
+            try {
+                select.setFetchSize(BATCH_SIZE);
+                ResultSet result = select.executeQuery();
+                int loaded = 0;
+                while (result.next()) {
+                    // A row with a value out of range, such as a negative attendance, is skipped
+                    try {
+                        members.add(read(result));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid row, skipping member " + result.getString("id") + ": " + e.getMessage());
+                    }
+                    loaded++;
+                    if (listener != null && (loaded % 1000 == 0 || loaded == rows)) {
+                        listener.progress(loaded, Math.max(rows, loaded));
+                    }
+                }
+                result.close();
+            } finally {
+                select.close();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw failure("Cannot load members from " + url, e);
+        }
+
+        System.out.println("Loaded " + members.size() + " members from " + url);
+        return members.size();
+    }
+
+    @Override
+    public void writeChanges(List<String[]> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Rows to insert, update and delete, in the state after all events of the batch
+        Map<String, GymMember> inserted = new LinkedHashMap<>();
+        Map<String, GymMember> updated = new LinkedHashMap<>();
+        Set<String> deleted = new LinkedHashSet<>();
+
+        try {
+            PreparedStatement select = connection.prepareStatement(SELECT_ONE);
+            try {
+                for (String[] event : events) {
+                    String type = event[0];
+                    String id = event[1];
+                    if (MemberJournal.ADD.equals(type)) {
+                        GymMember member = MemberRecordFormat.parse(event[2]);
+                        if (member != null) {
+                            inserted.put(id, member);
+                        }
+                        continue;
+                    }
+
+                    GymMember member = inserted.get(id);
+                    if (member == null) {
+                        member = updated.get(id);
+                    }
+                    if (member == null && !deleted.contains(id)) {
+                        member = selectRow(select, id);
+                        if (member != null) {
+                            updated.put(id, member);
+                        }
+                    }
+                    if (member == null) {
+                        System.out.println("Change for unknown member: " + type + "|" + id);
+                        continue;
+                    }
+
+                    if (!MemberJournal.apply(member, type, event[2])) {
+                        System.out.println("Unknown change: " + type + "|" + id);
+                    } else if (MemberJournal.REVERT.equals(type)) {
+                        if (inserted.remove(id) == null) {
+                            updated.remove(id);
+                            deleted.add(id);
+                        }
+                    }
+                }
+            } finally {
+                select.close();
+            }
+
+            // Deleted first, so a member removed and added again in one batch is inserted afresh
+            executeDeletes(deleted);
+            executeWrites(UPDATE, updated.values());
+            executeWrites(INSERT, inserted.values());
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            // The events of the batch are not in the rows, so only rewriting every row can recover them
+            resyncNeeded = true;
+            throw failure("Cannot write member changes to " + url, e);
+        }
+    }
+
+    @Override
+    public boolean needsFullSave() {
+        // Otherwise every change already updated its rows
+        return resyncNeeded;
+    }
+
+    @Override
+    public Save captureAll(Iterable<GymMember> members, boolean export) throws IOException {
+        // The rows are kept up to date by every change, so only an export or a resync has work to do
+        final byte[] text = export && dataFile != null ? MemberRecordFormat.encodeFile(members, 0) : null;
+        final List<String> records = resyncNeeded ? new ArrayList<String>() : null;
+        if (records != null) {
+            for (GymMember member : members) {
+                records.add(MemberRecordFormat.format(member));
+            }
+        }
+        return new Save() {
+            @Override
+            public void write() throws IOException {
+                if (records != null) {
+                    resync(records);
+                }
+                if (text != null) {
+                    MemberRecordFormat.writeFile(dataFile, text);
+                    System.out.println("Members exported to " + dataFile);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw failure("Cannot close " + url, e);
+        } finally {
+            connection = null;
+        }
+    }
+
+    /**
+     * Creates the member table and its indexes if they do not exist, and adds the
+     * columns missing from a table created by an older version
+     */
+    private void createSchema() throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            statement.executeUpdate(CREATE_TABLE);
+            for (String index : CREATE_INDEXES) {
+                statement.executeUpdate(index);
+            }
+        } finally {
+            statement.close();
+        }
+        connection.commit();
+
+        for (String[] column : ADDED_COLUMNS) {
+            addColumnIfMissing(column[0], column[1]);
+        }
+        columnLimits = readColumnLimits();
+    }
+
+    /**
+     * Reads the longest value each text column holds, set by older versions of the table
+     */
+    private int[] readColumnLimits() throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            ResultSet result = statement.executeQuery("SELECT " + COLUMNS + " FROM members WHERE 1 = 0");
+            ResultSetMetaData metaData = result.getMetaData();
+            int[] limits = new int[metaData.getColumnCount()];
+            for (int i = 0; i < limits.length; i++) {
+                int type = metaData.getColumnType(i + 1);
+                int precision = metaData.getPrecision(i + 1);
+                // Unlimited columns report no precision or a very large one
+                if ((type == Types.VARCHAR || type == Types.CHAR) && precision > 0 && precision <= 0xFFFF) {
+                    limits[i] = precision;
+                }
+            }
+            result.close();
+            connection.commit();
+            return limits;
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Replaces every row with the captured members after a batch of changes failed
+     * @param records the members formatted as data file records
+     */
+    private void resync(List<String> records) throws IOException {
+        List<GymMember> members = new ArrayList<>(records.size());
+        for (String record : records) {
+            members.add(MemberRecordFormat.parse(record));
+        }
+
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                statement.executeUpdate(DELETE_ALL);
+            } finally {
+                statement.close();
+            }
+            insertAll(members);
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw failure("Cannot rewrite the members in " + url, e);
+        }
+        resyncNeeded = false;
+        System.out.println("Rewrote " + members.size() + " members in " + url + " after a failed change");
+    }
+
+    /**
+     * Adds a column to a member table created before the column existed
+     */
+    private void addColumnIfMissing(String column, String definition) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            try {
+                statement.executeQuery("SELECT " + column + " FROM members WHERE 1 = 0").close();
+                connection.commit();
+                return;
+            } catch (SQLException e) {
+                // No such column, undo the failed query before changing the table
+                connection.rollback();
+            }
+            statement.executeUpdate("ALTER TABLE members ADD COLUMN " + column + " " + definition);
+        } finally {
+            statement.close();
+        }
+        connection.commit();
+        System.out.println("Added column " + column + " to the member table in " + url);
+    }
+
+    private int countRows() throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM members");
+            result.next();
+            return result.getInt(1);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Inserts every member in batches
+     */
+    private void insertAll(Iterable<GymMember> members) throws SQLException {
+        executeWrites(INSERT, members);
+    }
+
+    /**
+     * Runs an insert or update for each member in batches of BATCH_SIZE
+     */
+    private void executeWrites(String sql, Iterable<GymMember> members) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            int pending = 0;
+            for (GymMember member : members) {
+                bind(statement, member);
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private void executeDeletes(Set<String> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        PreparedStatement statement = connection.prepareStatement(DELETE);
+        try {
+            for (String id : ids) {
+                statement.setString(1, id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Sets the parameters of an insert or update: the columns in COLUMNS order, then the ID
+     */
+    private void bind(PreparedStatement statement, GymMember member) throws SQLException {
+        boolean regular = member instanceof RegularMember;
+        RegularMember regularMember = regular ? (RegularMember) member : null;
+        PremiumMember premiumMember = member instanceof PremiumMember ? (PremiumMember) member : null;
+
+        statement.setString(1, regular ? "REGULAR" : "PREMIUM");
+        setText(statement, 2, member.getName());
+        setText(statement, 3, member.getLocation());
+        setText(statement, 4, member.getPhone());
+        setText(statement, 5, member.getEmail());
+        setText(statement, 6, member.getGender());
+        setText(statement, 7, member.getDob());
+        setText(statement, 8, member.getMembershipStartDate());
+        setText(statement, 9, member.getReferralSource());
+        statement.setDouble(10, member.getPaidAmount());
+        statement.setBoolean(11, member.isActive());
+        statement.setInt(12, member.getAttendance());
+        statement.setDouble(13, member.getLoyaltyPoints());
+        setText(statement, 14, regular ? regularMember.getPlan() : null);
+        statement.setDouble(15, regular ? regularMember.getPrice() : 0);
+        statement.setBoolean(16, regular && regularMember.isEligibleForUpgrade());
+        setText(statement, 17, premiumMember != null ? premiumMember.getPersonalTrainer() : null);
+        statement.setBoolean(18, premiumMember != null && premiumMember.isFullPayment());
+        statement.setDouble(19, premiumMember != null ? premiumMember.getDiscountAmount() : 0);
+        setText(statement, 20, member.getRemovalReason());
+        statement.setString(21, member.getId());
+    }
+
+    /**
+     * Sets a text parameter, cut to the length of its column if the column has a limit
+     */
+    private void setText(PreparedStatement statement, int index, String value) throws SQLException {
+        int limit = columnLimits[index - 1];
+        if (value != null && limit > 0 && value.length() > limit) {
+            System.out.println("Value too long for column " + index + " of the member table, cut to " +
+                    limit + " characters: " + value);
+            value = value.substring(0, limit);
+        }
+        statement.setString(index, value);
+    }
+
+    /**
+     * Reads the row of one member
+     * @return the member, or null if there is no row with that ID
+     */
+    private static GymMember selectRow(PreparedStatement select, String id) throws SQLException {
+        select.setString(1, id);
+        ResultSet result = select.executeQuery();
+        try {
+            return result.next() ? read(result) : null;
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Builds a member from the current row of a SELECT_ALL or SELECT_ONE result
+     */
+    private static GymMember read(ResultSet row) throws SQLException {
+        String id = row.getString("id");
+        String name = row.getString("name");
+        String location = row.getString("location");
+        String phone = row.getString("phone");
+        String email = row.getString("email");
+        String gender = row.getString("gender");
+        String dob = row.getString("dob");
+        String membershipStartDate = row.getString("membership_start_date");
+        String referralSource = row.getString("referral_source");
+        double paidAmount = row.getDouble("paid_amount");
+
+        GymMember member;
+        if ("REGULAR".equals(row.getString("type"))) {
+            RegularMember regularMember = new RegularMember(id, name, location, phone, email, gender, dob,
+                    membershipStartDate, referralSource, paidAmount, row.getString("plan"));
+            regularMember.setPrice(row.getDouble("price"));
+            regularMember.setEligibleForUpgrade(row.getBoolean("eligible_for_upgrade"));
+            member = regularMember;
+        } else {
+            // Restore the paid amount directly instead of replaying it as a payment
+            PremiumMember premiumMember = new PremiumMember(id, name, location, phone, email, gender, dob,
+                    membershipStartDate, referralSource, 0, row.getString("personal_trainer"));
+            premiumMember.setPaidAmount(paidAmount);
+            premiumMember.setFullPayment(row.getBoolean("full_payment"));
+            premiumMember.setDiscountAmount(row.getDouble("discount_amount"));
+            member = premiumMember;
+        }
+
+        member.setAttendance(row.getInt("attendance"));
+        member.setLoyaltyPoints(row.getDouble("loyalty_points"));
+        member.setRemovalReason(row.getString("removal_reason"));
+        if (row.getBoolean("active")) {
+            member.activateMembership();
+        }
+        return member;
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Wraps a database error, explaining a missing driver
+     */
+    private IOException failure(String message, SQLException e) {
+        if ("08001".equals(e.getSQLState()) || String.valueOf(e.getMessage()).startsWith("No suitable driver")) {
+            message += " (is the database driver on the classpath?)";
+        }
+        return new IOException(message + ": " + e.getMessage(), e);
+    }
+}
@@ -0,0 +1,242 @@
+package gym;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MemberAnalytics class keeps running revenue totals of all members and of
+ * each location, plan and start month, so reports can be read at any time
+ * without scanning the members.
+ *
+ * The totals are built once with a parallel fork-join scan of the members and
+ * then kept up to date as members are added, changed and removed. A change is
+ * applied by capturing the member's contribution before it and replacing it
+ * with the member's new figures afterwards. All methods are thread-safe.
+ */
+public class MemberAnalytics {
+    /**
+     * Ways of grouping the members in a report
+     */
+    public enum Grouping {
+        LOCATION,
+        PLAN,
+        START_MONTH;
+
+        /**
+         * Returns the group a member belongs to
+         * @param member the member
+         * @return the location, the plan ("premium" for premium members)
+         *         or the start month as year-month, "unknown" if missing
+         */
+        public String key(GymMember member) {
+            String key;
+            if (this == LOCATION) {
+                key = member.getLocation();
+            } else if (this == PLAN) {
+                key = member instanceof RegularMember ? ((RegularMember) member).getPlan() : "premium";
+            } else {
+                key = startMonth(member.getMembershipStartEpochDay());
+            }
+            return key == null || key.trim().isEmpty() ? "unknown" : key;
+        }
+    }
+
+    /**
+     * The figures a member adds to the totals, captured before the member changes
+     */
+    public static class Contribution {
+        private final RevenueTotals totals;
+        private final String[] keys;
+
+        private Contribution(GymMember member) {
+            this.totals = new RevenueTotals();
+            this.totals.add(member);
+            this.keys = new String[GROUPINGS.length];
+            for (int i = 0; i < GROUPINGS.length; i++) {
+                keys[i] = GROUPINGS[i].key(member);
+            }
+        }
+    }
+
+    private static final Grouping[] GROUPINGS = Grouping.values();
+
+    // Members scanned by one fork-join task before it stops splitting
+    private static final int SCAN_THRESHOLD = 8192;
+
+    // Totals of all members and of each group, guarded by this
+    private final RevenueTotals total;
+    private final EnumMap<Grouping, Map<String, RevenueTotals>> groups;
+
+    /**
+     * Constructor for MemberAnalytics, starting with no members
+     */
+    public MemberAnalytics() {
+        this.total = new RevenueTotals();
+        this.groups = new EnumMap<>(Grouping.class);
+        for (Grouping grouping : GROUPINGS) {
+            groups.put(grouping, new HashMap<String, RevenueTotals>());
+        }
+    }
+
+    /**
+     * Builds the totals of all members with a parallel scan.
+     * The members must not change while they are scanned.
+     * @param members the members
+     * @return the analytics holding the totals
+     */
+    public static MemberAnalytics scan(MemberRepository members) {
+        return ForkJoinPool.commonPool().invoke(new ScanTask(members, 0, members.size()));
+    }
+
+    /**
+     * Adds the figures of a new member
+     * @param member the member
+     */
+    public synchronized void add(GymMember member) {
+        total.add(member);
+        for (Grouping grouping : GROUPINGS) {
+            group(grouping, grouping.key(member)).add(member);
+        }
+    }
+
+    /**
+     * Removes the figures of a member, before the member is changed or removed
+     * @param member the member, in the same state as when its figures were added
+     */
+    public void remove(GymMember member) {
+        Contribution contribution = capture(member);
+        synchronized (this) {
+            subtract(contribution);
+        }
+    }
+
+    /**
+     * Captures the current figures of a member that is about to change
+     * @param member the member
+     * @return the contribution to pass to replace after the change
+     */
+    public static Contribution capture(GymMember member) {
+        return new Contribution(member);
+    }
+
+    /**
+     * Replaces the figures of a member that has changed, in one step
+     * so reports never see the member missing or counted twice
+     * @param before the contribution captured before the change
+     * @param member the changed member
+     */
+    public synchronized void replace(Contribution before, GymMember member) {
+        subtract(before);
+        add(member);
+    }
+
+    /**
+     * Creates a report of the current totals
+     * @param grouping how to group the members
+     * @return a copy of the totals, groups sorted by name
+     */
+    public synchronized RevenueReport report(Grouping grouping) {
+        TreeMap<String, RevenueTotals> copy = new TreeMap<>();
+        for (Map.Entry<String, RevenueTotals> group : groups.get(grouping).entrySet()) {
+            copy.put(group.getKey(), new RevenueTotals(group.getValue()));
+        }
+        return new RevenueReport(grouping, new RevenueTotals(total), copy);
+    }
+
+    /**
+     * Subtracts a contribution, dropping groups that become empty
+     */
+    private void subtract(Contribution contribution) {
+        total.subtract(contribution.totals);
+        for (int i = 0; i < GROUPINGS.length; i++) {
+            Map<String, RevenueTotals> grouped = groups.get(GROUPINGS[i]);
+            RevenueTotals totals = grouped.get(contribution.keys[i]);
+            if (totals != null) {
+                totals.subtract(contribution.totals);
+                if (totals.isEmpty()) {
+                    grouped.remove(contribution.keys[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the totals of other analytics to these
+     */
+    private synchronized void merge(MemberAnalytics other) {
+        synchronized (other) {
+            total.add(other.total);
+            for (Grouping grouping : GROUPINGS) {
+                for (Map.Entry<String, RevenueTotals> group : other.groups.get(grouping).entrySet()) {
+                    group(grouping, group.getKey()).add(group.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the totals of a group, creating them if needed
+     */
+    private RevenueTotals group(Grouping grouping, String key) {
+        Map<String, RevenueTotals> grouped = groups.get(grouping);
+        RevenueTotals totals = grouped.get(key);
+        if (totals == null) {
+            totals = new RevenueTotals();
+            grouped.put(key, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * Converts a start date to "year-MM" so months sort in order
+     * @return the year and month, or null if the date is unknown
+     */
+    private static String startMonth(int epochDay) {
+        LocalDate date = MemberDates.toLocalDate(epochDay);
+        if (date == null) {
+            return null;
+        }
+        return date.getYear() + (date.getMonthValue() < 10 ? "-0" : "-") + date.getMonthValue();
+    }
+
+    /**
+     * Scans a range of members, splitting it in half until the ranges are small
+     */
+    private static class ScanTask extends RecursiveTask<MemberAnalytics> {
+        private static final long serialVersionUID = 1L;
+
+        private final MemberRepository members;
+        private final int start;
+        private final int end;
+
+        ScanTask(MemberRepository members, int start, int end) {
+            this.members = members;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected MemberAnalytics compute() {
+            if (end - start <= SCAN_THRESHOLD) {
+                MemberAnalytics analytics = new MemberAnalytics();
+                for (int i = start; i < end; i++) {
+                    analytics.add(members.get(i));
+                }
+                return analytics;
+            }
+
+            int middle = (start + end) >>> 1;
+            ScanTask left = new ScanTask(members, start, middle);
+            left.fork();
+            MemberAnalytics right = new ScanTask(members, middle, end).compute();
+            MemberAnalytics analytics = left.join();
+            analytics.merge(right);
+            return analytics;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package gym;
+
+import java.util.Arrays;
+
+/**
+ * MemberColumns class keeps the numeric state of every member in primitive
+ * arrays, one array per field and one entry per repository slot, so scans
+ * such as "active premium members with outstanding dues" run as tight loops
+ * over a few arrays instead of visiting every member object.
+ *
+ * The columns are owned by MemberRepository, which keeps them in the same
+ * slot order as its members. A member's row must be refreshed after the
+ * member changes. Rows of different members can be refreshed concurrently,
+ * but adding and removing rows needs exclusive access, like the repository.
+ */
+public class MemberColumns {
+    // Bits of the flags column
+    private static final byte ACTIVE = 1;
+    private static final byte PREMIUM = 2;
+
+    // Plan ordinal of premium members and unknown plans
+    public static final byte NO_PLAN = -1;
+
+    private int size;
+    private int[] attendance;
+    private double[] loyaltyPoints;
+    private double[] paidAmount;
+    private double[] premiumCharge;
+    private byte[] flags;
+    private byte[] plans;
+    private int[] locations;
+
+    /**
+     * Constructor for MemberColumns
+     */
+    public MemberColumns() {
+        this.attendance = new int[16];
+        this.loyaltyPoints = new double[16];
+        this.paidAmount = new double[16];
+        this.premiumCharge = new double[16];
+        this.flags = new byte[16];
+        this.plans = new byte[16];
+        this.locations = new int[16];
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the current state of a member into a row
+     * @param slot an existing row, or size() to append a row
+     * @param member the member in that slot
+     */
+    void set(int slot, GymMember member) {
+        if (slot == size) {
+            if (size == flags.length) {
+                grow();
+            }
+            size++;
+        }
+
+        attendance[slot] = member.getAttendance();
+        loyaltyPoints[slot] = member.getLoyaltyPoints();
+        paidAmount[slot] = member.getPaidAmount();
+
+        byte memberFlags = member.isActive() ? ACTIVE : 0;
+        if (member instanceof PremiumMember) {
+            memberFlags |= PREMIUM;
+            premiumCharge[slot] = ((PremiumMember) member).getPremiumCharge();
+            plans[slot] = NO_PLAN;
+        } else {
+            premiumCharge[slot] = 0;
+            plans[slot] = member instanceof RegularMember
+                    ? planOrdinal(((RegularMember) member).getPlan()) : NO_PLAN;
+        }
+        flags[slot] = memberFlags;
+        locations[slot] = AttributeDictionary.LOCATIONS.find(member.getLocation());
+    }
+
+    /**
+     * Copies a row over another, when the repository moves a member to a freed slot
+     */
+    void move(int from, int to) {
+        attendance[to] = attendance[from];
+        loyaltyPoints[to] = loyaltyPoints[from];
+        paidAmount[to] = paidAmount[from];
+        premiumCharge[to] = premiumCharge[from];
+        flags[to] = flags[from];
+        plans[to] = plans[from];
+        locations[to] = locations[from];
+    }
+
+    /**
+     * Drops the last row
+     */
+    void removeLast() {
+        size--;
+    }
+
+    /**
+     * Drops all rows
+     */
+    void clear() {
+        size = 0;
+    }
+
+    public int getAttendance(int slot) {
+        return attendance[slot];
+    }
+
+    public double getLoyaltyPoints(int slot) {
+        return loyaltyPoints[slot];
+    }
+
+    public double getPaidAmount(int slot) {
+        return paidAmount[slot];
+    }
+
+    public boolean isActive(int slot) {
+        return (flags[slot] & ACTIVE) != 0;
+    }
+
+    public boolean isPremium(int slot) {
+        return (flags[slot] & PREMIUM) != 0;
+    }
+
+    /**
+     * @param slot the row
+     * @return the plan ordinal: 0 basic, 1 standard, 2 deluxe, or NO_PLAN
+     */
+    public byte getPlan(int slot) {
+        return plans[slot];
+    }
+
+    /**
+     * @param slot the row
+     * @return the code of the location in AttributeDictionary.LOCATIONS, or NO_CODE
+     */
+    public int getLocationCode(int slot) {
+        return locations[slot];
+    }
+
+    /**
+     * Counts the members in each location
+     * @return the number of members indexed by location code in AttributeDictionary.LOCATIONS.
+     *         Members whose location has no code are not counted.
+     */
+    public int[] countByLocation() {
+        int[] counts = new int[AttributeDictionary.LOCATIONS.size()];
+        for (int i = 0; i < size; i++) {
+            int code = locations[i];
+            if (code >= 0) {
+                if (code >= counts.length) {
+                    counts = Arrays.copyOf(counts, AttributeDictionary.LOCATIONS.size());
+                }
+                counts[code]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Finds the active premium members who have not paid the full premium charge
+     * @return the slots of those members, in slot order
+     */
+    public int[] findActivePremiumWithDues() {
+        int[] found = new int[16];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & (ACTIVE | PREMIUM)) == (ACTIVE | PREMIUM) && paidAmount[i] < premiumCharge[i]) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = i;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Adds up the premium charges not paid yet
+     * @param activeOnly true to count active members only
+     * @return the outstanding amount
+     */
+    public double sumOutstandingDues(boolean activeOnly) {
+        byte mask = activeOnly ? (byte) (ACTIVE | PREMIUM) : PREMIUM;
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & mask) == mask) {
+                total += premiumCharge[i] - paidAmount[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of active members
+     */
+    public int countActive() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += flags[i] & ACTIVE;
+        }
+        return count;
+    }
+
+    /**
+     * @return the attendance of all members added up
+     */
+    public long sumAttendance() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += attendance[i];
+        }
+        return total;
+    }
+
+    /**
+     * @return the loyalty points of all members added up
+     */
+    public double sumLoyaltyPoints() {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += loyaltyPoints[i];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the ordinal of a plan name
+     * @param plan the plan name in any case
+     * @return 0 for basic, 1 for standard, 2 for deluxe, NO_PLAN otherwise
+     */
+    public static byte planOrdinal(String plan) {
+        if (plan == null) {
+            return NO_PLAN;
+        }
+        switch (plan.toLowerCase()) {
+            case "basic":
+                return 0;
+            case "standard":
+                return 1;
+            case "deluxe":
+                return 2;
+            default:
+                return NO_PLAN;
+        }
+    }
+
+    /**
+     * Doubles the capacity of every column
+     */
+    private void grow() {
+        int capacity = flags.length * 2;
+        attendance = Arrays.copyOf(attendance, capacity);
+        loyaltyPoints = Arrays.copyOf(loyaltyPoints, capacity);
+        paidAmount = Arrays.copyOf(paidAmount, capacity);
+        premiumCharge = Arrays.copyOf(premiumCharge, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        plans = Arrays.copyOf(plans, capacity);
+        locations = Arrays.copyOf(locations, capacity);
+    }
+}
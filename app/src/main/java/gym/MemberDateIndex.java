@@ -0,0 +1,185 @@
+package gym;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * MemberDateIndex class finds members by membership start date, birthday
+ * and membership anniversary (when the membership is due for renewal).
+ *
+ * Members are kept in sorted sets keyed by the start epoch day and by the
+ * month and day of their birth and start dates, so a query finds the first
+ * match in logarithmic time and then reads only the matching members.
+ * Members whose dates cannot be read are not indexed. Queries can run on
+ * any thread while members are added and removed.
+ */
+public class MemberDateIndex {
+    /**
+     * A member under a date key, ordered by key and then member ID
+     */
+    private static class Entry {
+        private final int key;
+        private final String id;
+        private final GymMember member;
+
+        Entry(int key, String id, GymMember member) {
+            this.key = key;
+            this.id = id;
+            this.member = member;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            int byKey = Integer.compare(a.key, b.key);
+            return byKey != 0 ? byKey : a.id.compareTo(b.id);
+        }
+    };
+
+    // Keys used as range bounds sort before any member ID
+    private static final String LOWEST_ID = "";
+
+    // Months and days use keys month * 32 + day, so February 29 is one more than February 28
+    private static final int FEBRUARY_28 = 2 * 32 + 28;
+
+    private final ConcurrentSkipListSet<Entry> startDays;
+    private final ConcurrentSkipListSet<Entry> birthdays;
+    private final ConcurrentSkipListSet<Entry> anniversaries;
+
+    /**
+     * Constructor for MemberDateIndex
+     */
+    public MemberDateIndex() {
+        this.startDays = new ConcurrentSkipListSet<>(ORDER);
+        this.birthdays = new ConcurrentSkipListSet<>(ORDER);
+        this.anniversaries = new ConcurrentSkipListSet<>(ORDER);
+    }
+
+    /**
+     * Indexes a member. A member must be removed before its dates change.
+     * @param member the member to index
+     */
+    public void add(GymMember member) {
+        int dob = member.getDobEpochDay();
+        int start = member.getMembershipStartEpochDay();
+        if (dob != MemberDates.NO_DATE) {
+            birthdays.add(new Entry(MemberDates.monthDay(LocalDate.ofEpochDay(dob)), member.getId(), member));
+        }
+        if (start != MemberDates.NO_DATE) {
+            startDays.add(new Entry(start, member.getId(), member));
+            anniversaries.add(new Entry(MemberDates.monthDay(LocalDate.ofEpochDay(start)), member.getId(), member));
+        }
+    }
+
+    /**
+     * Removes a member from the index
+     * @param member the member to remove, with the same dates it was added with
+     */
+    public void remove(GymMember member) {
+        int dob = member.getDobEpochDay();
+        int start = member.getMembershipStartEpochDay();
+        if (dob != MemberDates.NO_DATE) {
+            birthdays.remove(new Entry(MemberDates.monthDay(LocalDate.ofEpochDay(dob)), member.getId(), null));
+        }
+        if (start != MemberDates.NO_DATE) {
+            startDays.remove(new Entry(start, member.getId(), null));
+            anniversaries.remove(new Entry(MemberDates.monthDay(LocalDate.ofEpochDay(start)), member.getId(), null));
+        }
+    }
+
+    /**
+     * Removes all members
+     */
+    public void clear() {
+        startDays.clear();
+        birthdays.clear();
+        anniversaries.clear();
+    }
+
+    /**
+     * Finds the members who started between two dates, such as a monthly cohort
+     * @param from the first start date
+     * @param to the last start date, inclusive
+     * @return the members in start date order
+     */
+    public List<GymMember> findStartedBetween(LocalDate from, LocalDate to) {
+        List<GymMember> found = new ArrayList<>();
+        if (!to.isBefore(from)) {
+            collect(startDays, (int) from.toEpochDay(), (int) to.toEpochDay(), found);
+        }
+        return found;
+    }
+
+    /**
+     * Finds the members with a birthday between two dates, such as this week
+     * @param from the first day
+     * @param to the last day, inclusive, less than a year after from
+     * @return the members in birthday order from the first day
+     */
+    public List<GymMember> findBirthdaysBetween(LocalDate from, LocalDate to) {
+        return findByMonthDay(birthdays, from, to);
+    }
+
+    /**
+     * Finds the members whose membership anniversary, when the yearly
+     * membership is due for renewal, falls between two dates
+     * @param from the first day
+     * @param to the last day, inclusive, less than a year after from
+     * @return the members in renewal order from the first day
+     */
+    public List<GymMember> findRenewalsDue(LocalDate from, LocalDate to) {
+        return findByMonthDay(anniversaries, from, to);
+    }
+
+    /**
+     * Finds the members with a month and day key between two dates, wrapping at the end of the year.
+     * February 29 counts as February 28 in years that are not leap years.
+     */
+    private static List<GymMember> findByMonthDay(NavigableSet<Entry> set, LocalDate from, LocalDate to) {
+        List<GymMember> found = new ArrayList<>();
+        if (to.isBefore(from)) {
+            return found;
+        }
+        if (!from.plusYears(1).isAfter(to)) {
+            throw new IllegalArgumentException("Date range must be shorter than a year: " + from + " to " + to);
+        }
+
+        int first = MemberDates.monthDay(from);
+        int last = monthDayUpTo(to);
+        if (first <= last && from.getYear() == to.getYear()) {
+            collect(set, first, last, found);
+        } else {
+            // The range crosses New Year
+            collect(set, first, MemberDates.monthDay(LocalDate.of(from.getYear(), 12, 31)), found);
+            collect(set, MemberDates.monthDay(LocalDate.of(to.getYear(), 1, 1)), last, found);
+        }
+        return found;
+    }
+
+    /**
+     * Returns the month and day key of the last day of a range,
+     * including February 29 when the range ends on February 28 of a non-leap year
+     */
+    private static int monthDayUpTo(LocalDate to) {
+        int key = MemberDates.monthDay(to);
+        return key == FEBRUARY_28 && !to.isLeapYear() ? key + 1 : key;
+    }
+
+    /**
+     * Adds the members with keys between first and last, inclusive
+     */
+    private static void collect(NavigableSet<Entry> set, int first, int last, List<GymMember> found) {
+        if (first > last) {
+            return;
+        }
+        for (Entry entry : set.subSet(new Entry(first, LOWEST_ID, null), true,
+                new Entry(last + 1, LOWEST_ID, null), false)) {
+            found.add(entry.member);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package gym;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * MemberDates class converts the date of birth and membership start date
+ * strings of members to epoch days, the number of days since 1970-01-01.
+ *
+ * Dates are read in the "day-Month-year" form built by the GUI, such as
+ * "26-June-1998", or as ISO dates such as "1998-06-26" from imports.
+ */
+public class MemberDates {
+    // Epoch day of dates that are missing or cannot be read
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final String[] MONTHS = {"january", "february", "march", "april", "may", "june",
+            "july", "august", "september", "october", "november", "december"};
+
+    private MemberDates() {
+    }
+
+    /**
+     * Converts a date string to an epoch day
+     * @param date the date in "day-Month-year" or "year-month-day" form, may be null
+     * @return the epoch day, or NO_DATE if the date is missing or not a real date
+     */
+    public static int toEpochDay(String date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+
+        String[] parts = date.trim().split("-");
+        if (parts.length != 3) {
+            return NO_DATE;
+        }
+
+        try {
+            LocalDate localDate;
+            int month = monthOf(parts[1]);
+            if (month > 0) {
+                localDate = LocalDate.of(Integer.parseInt(parts[2].trim()), month, Integer.parseInt(parts[0].trim()));
+            } else {
+                localDate = LocalDate.of(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                        Integer.parseInt(parts[2].trim()));
+            }
+            return (int) localDate.toEpochDay();
+        } catch (NumberFormatException | DateTimeException e) {
+            return NO_DATE;
+        }
+    }
+
+    /**
+     * Converts an epoch day to a date
+     * @param epochDay the epoch day
+     * @return the date, or null for NO_DATE
+     */
+    public static LocalDate toLocalDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Returns a key that sorts dates by month and day, ignoring the year
+     * @param date the date
+     * @return month * 32 + day
+     */
+    public static int monthDay(LocalDate date) {
+        return date.getMonthValue() * 32 + date.getDayOfMonth();
+    }
+
+    /**
+     * Returns the month of a month name
+     * @return 1 to 12, or 0 if the text is not a month name
+     */
+    private static int monthOf(String name) {
+        String month = name.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (MONTHS[i].equals(month)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+}
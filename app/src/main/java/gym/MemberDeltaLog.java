@@ -0,0 +1,230 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * MemberDeltaLog class keeps the members changed since the last full snapshot,
+ * so a save only writes the members that changed instead of every member.
+ *
+ * Each save appends one segment holding the changed members, encoded like a
+ * snapshot (see MemberSnapshot), and the IDs of the removed members. A segment
+ * records the generation it was saved on top of and carries a CRC32 checksum,
+ * so on load the segments are applied in order on top of the snapshot until one
+ * is damaged, such as the last one after a crash, or does not follow on. The log
+ * is emptied whenever a new full snapshot is written.
+ */
+public class MemberDeltaLog {
+    // Segment identification
+    private static final int MAGIC = 0x47594D44; // "GYMD"
+
+    // Segment header: magic, base generation, record count, snapshot length, removed IDs length
+    private static final int HEADER_SIZE = 4 + 8 + 4 + 4 + 4;
+
+    private final File file;
+
+    // Changed and removed members in the log
+    private int records;
+
+    // True if the log holds segments that were not applied on load
+    private boolean skippedSegments;
+
+    /**
+     * Constructor for MemberDeltaLog
+     * @param file the log file, created on the first save
+     */
+    public MemberDeltaLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the number of changed and removed members in the log
+     */
+    public int getRecords() {
+        return records;
+    }
+
+    /**
+     * @return true if load found segments it could not apply, which the next
+     *         full snapshot replaces
+     */
+    public boolean hasSkippedSegments() {
+        return skippedSegments;
+    }
+
+    /**
+     * Applies the segments saved on top of a snapshot to its members
+     * @param generation the generation of the loaded snapshot
+     * @param members the members loaded from the snapshot
+     * @return the generation after the last applied segment
+     * @throws IOException if the log cannot be read
+     */
+    public long load(long generation, MemberRepository members) throws IOException {
+        records = 0;
+        skippedSegments = false;
+        if (!file.exists()) {
+            return generation;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.BIG_ENDIAN);
+        CRC32 crc = new CRC32();
+        int offset = 0;
+        while (offset < buffer.limit()) {
+            int end = segmentEnd(buffer, offset, crc);
+            if (end < 0) {
+                System.out.println("Skipped a damaged segment at the end of " + file);
+                skippedSegments = true;
+                break;
+            }
+
+            long base = buffer.getLong(offset + 4);
+            if (base != generation) {
+                // Left over from before the last snapshot, or saved on top of another one
+                skippedSegments = true;
+                if (base > generation) {
+                    break;
+                }
+                offset = end;
+                continue;
+            }
+
+            int snapshotLength = buffer.getInt(offset + 16);
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + HEADER_SIZE);
+            view.limit(offset + HEADER_SIZE + snapshotLength);
+            MemberSnapshot changed = MemberSnapshot.decode(view);
+
+            // Removals first, so a member removed and added again under the same ID is kept
+            view.limit(end - 4);
+            view.position(offset + HEADER_SIZE + snapshotLength);
+            for (String id : readIds(view)) {
+                members.remove(id);
+            }
+            for (int i = 0; i < changed.size(); i++) {
+                GymMember member = changed.get(i);
+                members.remove(member.getId());
+                members.add(member);
+                member.clearDirty();
+            }
+
+            records += buffer.getInt(offset + 12);
+            generation = changed.getGeneration();
+            offset = end;
+        }
+        return generation;
+    }
+
+    /**
+     * Encodes a segment holding the members changed since the previous save.
+     * The members must not change while they are being encoded.
+     * @param baseGeneration the generation the segment is saved on top of
+     * @param changed the changed and added members
+     * @param removed the IDs of the removed members
+     * @return the segment, ready to be appended
+     * @throws IOException if there are too many members for one segment
+     */
+    public static ByteBuffer encode(long baseGeneration, List<GymMember> changed, Collection<String> removed)
+            throws IOException {
+        ByteBuffer snapshot = MemberSnapshot.encode(changed, baseGeneration + 1);
+
+        List<byte[]> ids = new ArrayList<>();
+        int removedLength = 4;
+        for (String id : removed) {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            ids.add(bytes);
+            removedLength += 4 + bytes.length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + snapshot.remaining() + removedLength + 4);
+        out.putInt(MAGIC);
+        out.putLong(baseGeneration);
+        out.putInt(changed.size() + removed.size());
+        out.putInt(snapshot.remaining());
+        out.putInt(removedLength);
+        out.put(snapshot);
+        out.putInt(ids.size());
+        for (byte[] bytes : ids) {
+            out.putInt(bytes.length);
+            out.put(bytes);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Appends an encoded segment and forces it to disk
+     * @param segment the segment returned by encode
+     * @throws IOException if the segment cannot be written
+     */
+    public void append(ByteBuffer segment) throws IOException {
+        ByteBuffer out = segment.duplicate();
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        records += segment.getInt(segment.position() + 12);
+    }
+
+    /**
+     * Empties the log after a full snapshot containing every segment was written
+     * @throws IOException if the log cannot be deleted
+     */
+    public void reset() throws IOException {
+        Files.deleteIfExists(file.toPath());
+        records = 0;
+        skippedSegments = false;
+    }
+
+    /**
+     * Checks the segment starting at an offset
+     * @return the offset after the segment, or -1 if it is cut short or damaged
+     */
+    private static int segmentEnd(ByteBuffer buffer, int offset, CRC32 crc) {
+        if (buffer.limit() - offset < HEADER_SIZE || buffer.getInt(offset) != MAGIC) {
+            return -1;
+        }
+        long length = (long) HEADER_SIZE + buffer.getInt(offset + 16) + buffer.getInt(offset + 20) + 4;
+        if (buffer.getInt(offset + 16) < 0 || buffer.getInt(offset + 20) < 4 || length > buffer.limit() - offset) {
+            return -1;
+        }
+
+        int end = offset + (int) length;
+        crc.reset();
+        crc.update(buffer.array(), offset, end - offset - 4);
+        return (int) crc.getValue() == buffer.getInt(end - 4) ? end : -1;
+    }
+
+    /**
+     * Reads the removed member IDs of a segment
+     */
+    private static List<String> readIds(ByteBuffer view) {
+        int count = view.getInt();
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[view.getInt()];
+            view.get(bytes);
+            ids.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,380 @@
+package gym;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * MemberExporter class writes members to a CSV, JSON Lines or native data file,
+ * for example for finance reports covering every member.
+ *
+ * Members are split into chunks that are encoded in parallel, each into its own
+ * reusable ExportBuffer, and the chunks are written in member order. Only a few
+ * chunks are held at once, so memory use does not grow with the number of members.
+ * Members are read without stopping changes, so a member changed during the
+ * export is written as it was when its chunk was encoded.
+ *
+ * CSV and JSON Lines files use the column names read by MemberImporter, so an
+ * export can be imported again. The native format is the pipe-delimited data file.
+ *
+ * Usage: java MemberExporter output.csv|output.jsonl|output.docx [type=Regular|Premium]
+ *        [active=true|false] [plan=Basic|Standard|Deluxe]
+ */
+public class MemberExporter {
+    /**
+     * Supported output formats
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES,
+        NATIVE;
+
+        /**
+         * Picks the format from a file name, .jsonl, .ndjson and .json files are JSON Lines,
+         * .csv files are CSV and any other file uses the native format
+         * @param file the output file
+         * @return the format
+         */
+        public static Format forFile(File file) {
+            String name = file.getName().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+                return JSON_LINES;
+            }
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            return NATIVE;
+        }
+    }
+
+    // Number of members encoded per chunk
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    // Header row of CSV exports, using the column names MemberImporter reads
+    private static final String CSV_HEADER = "type,id,name,location,phone,email,gender,dob," +
+            "membershipStartDate,referralSource,paidAmount,active,attendance,loyaltyPoints," +
+            "plan,price,trainer,fullPayment,discountAmount,fee";
+
+    private final int chunkSize;
+    private final int threads;
+
+    /**
+     * Constructor for MemberExporter, using one thread per processor
+     */
+    public MemberExporter() {
+        this(DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for MemberExporter
+     * @param chunkSize the number of members encoded per chunk
+     * @param threads the number of threads encoding chunks
+     */
+    public MemberExporter(int chunkSize, int threads) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Exports members to a file, picking the format from the file name
+     * @param members the members to export, such as MemberService.listMembers()
+     * @param output the file to write
+     * @param filter selects the members to export
+     * @param listener receives the progress in members, may be null
+     * @return the export summary
+     * @throws IOException if the file cannot be written
+     */
+    public ExportResult exportFile(List<GymMember> members, File output, MemberFilter filter,
+                                   ProgressListener listener) throws IOException {
+        return exportFile(members, output, Format.forFile(output), filter, listener);
+    }
+
+    /**
+     * Exports members to a file
+     * @param members the members to export, such as MemberService.listMembers()
+     * @param output the file to write
+     * @param format the format of the file
+     * @param filter selects the members to export
+     * @param listener receives the progress in members, may be null
+     * @return the export summary
+     * @throws IOException if the file cannot be written
+     */
+    public ExportResult exportFile(List<GymMember> members, File output, Format format, MemberFilter filter,
+                                   ProgressListener listener) throws IOException {
+        OutputStream stream = new FileOutputStream(output);
+        try {
+            ExportResult result = export(members, stream, format, filter, listener);
+            return new ExportResult(result.getScanned(), result.getExported(), result.getBytes(), output);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Exports members to a stream. The stream is flushed but not closed.
+     * @param members the members to export
+     * @param output the stream to write to, unbuffered streams are fine
+     * @param format the output format
+     * @param filter selects the members to export
+     * @param listener receives the progress in members, may be null
+     * @return the export summary
+     * @throws IOException if the stream cannot be written
+     */
+    public ExportResult export(final List<GymMember> members, OutputStream output, final Format format,
+                               final MemberFilter filter, ProgressListener listener) throws IOException {
+        final int total = members.size();
+        int chunks = (total + chunkSize - 1) / chunkSize;
+
+        // Two buffers per thread, so threads can encode while earlier chunks are written.
+        // Chunk i uses buffer i % length, which is free once chunk i - length is written.
+        final ExportBuffer[] buffers = new ExportBuffer[Math.min(threads * 2, Math.max(chunks, 1))];
+        ArrayDeque<Future<Integer>> pending = new ArrayDeque<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, buffers.length),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable task) {
+                        Thread thread = new Thread(task, "member-export");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+
+        long exported = 0;
+        long bytes = 0;
+        try {
+            ExportBuffer header = new ExportBuffer(256);
+            appendHeader(header, format);
+            header.writeTo(output);
+            bytes += header.length();
+
+            int submitted = 0;
+            for (int written = 0; written < chunks; written++) {
+                while (submitted < chunks && submitted - written < buffers.length) {
+                    final int slot = submitted % buffers.length;
+                    final int start = submitted * chunkSize;
+                    final int end = Math.min(start + chunkSize, total);
+                    pending.add(executor.submit(new Callable<Integer>() {
+                        @Override
+                        public Integer call() {
+                            if (buffers[slot] == null) {
+                                buffers[slot] = new ExportBuffer(chunkSize * 128);
+                            }
+                            return encodeChunk(members, start, end, format, filter, buffers[slot]);
+                        }
+                    }));
+                    submitted++;
+                }
+
+                exported += await(pending.removeFirst());
+                ExportBuffer buffer = buffers[written % buffers.length];
+                buffer.writeTo(output);
+                bytes += buffer.length();
+
+                if (listener != null) {
+                    listener.progress(Math.min((long) (written + 1) * chunkSize, total), total);
+                }
+            }
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (listener != null) {
+            listener.progress(total, total);
+        }
+        return new ExportResult(total, exported, bytes, null);
+    }
+
+    /**
+     * Main method to export the members in the default member files
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java MemberExporter output.csv|output.jsonl|output.docx " +
+                    "[type=Regular|Premium] [active=true|false] [plan=Basic|Standard|Deluxe]");
+            return;
+        }
+
+        String type = null;
+        Boolean active = null;
+        String plan = null;
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (option.length == 2 && "type".equalsIgnoreCase(option[0])) {
+                type = option[1];
+            } else if (option.length == 2 && "active".equalsIgnoreCase(option[0])) {
+                active = Boolean.valueOf(option[1]);
+            } else if (option.length == 2 && "plan".equalsIgnoreCase(option[0])) {
+                plan = option[1];
+            } else {
+                System.out.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        File output = new File(args[0]);
+        MemberService memberService = new MemberService(new File("gym_members.snapshot"),
+                new File("gym_members.docx"), new File("gym_members.journal"));
+        memberService.load();
+        try {
+            ExportResult result = new MemberExporter().exportFile(memberService.listMembers(), output,
+                    new MemberFilter(type, active, plan), null);
+            System.out.println(result);
+        } finally {
+            memberService.close();
+        }
+    }
+
+    /**
+     * Encodes the matching members of one chunk into a buffer
+     * @return the number of members encoded
+     */
+    private static int encodeChunk(List<GymMember> members, int start, int end, Format format,
+                                   MemberFilter filter, ExportBuffer buffer) {
+        buffer.reset();
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            GymMember member = members.get(i);
+            if (!filter.matches(member)) {
+                continue;
+            }
+
+            boolean appended;
+            if (format == Format.CSV) {
+                appended = appendCsv(buffer, member);
+            } else if (format == Format.JSON_LINES) {
+                appended = appendJson(buffer, member);
+            } else {
+                appended = MemberRecordFormat.append(buffer, member);
+                if (appended) {
+                    buffer.append(MemberRecordFormat.lineSeparator());
+                }
+            }
+            if (appended) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends the lines that come before the first member
+     */
+    private static void appendHeader(ExportBuffer buffer, Format format) {
+        if (format == Format.CSV) {
+            buffer.append(CSV_HEADER).append('\n');
+        } else if (format == Format.NATIVE) {
+            MemberRecordFormat.appendHeader(buffer);
+            buffer.append(MemberRecordFormat.lineSeparator());
+        }
+    }
+
+    /**
+     * Appends a member as a CSV row, in the order of CSV_HEADER
+     * @return false for unknown member types
+     */
+    private static boolean appendCsv(ExportBuffer buffer, GymMember member) {
+        if (!(member instanceof RegularMember) && !(member instanceof PremiumMember)) {
+            return false;
+        }
+
+        buffer.append(member instanceof RegularMember ? "Regular" : "Premium").append(',')
+                .appendCsv(member.getId()).append(',')
+                .appendCsv(member.getName()).append(',')
+                .appendCsv(member.getLocation()).append(',')
+                .appendCsv(member.getPhone()).append(',')
+                .appendCsv(member.getEmail()).append(',')
+                .appendCsv(member.getGender()).append(',')
+                .appendCsv(member.getDob()).append(',')
+                .appendCsv(member.getMembershipStartDate()).append(',')
+                .appendCsv(member.getReferralSource()).append(',')
+                .append(member.getPaidAmount()).append(',')
+                .append(member.isActive()).append(',')
+                .append(member.getAttendance()).append(',')
+                .append(member.getLoyaltyPoints()).append(',');
+
+        if (member instanceof RegularMember) {
+            RegularMember regularMember = (RegularMember) member;
+            buffer.appendCsv(regularMember.getPlan()).append(',')
+                    .append(regularMember.getPrice()).append(",,,,");
+        } else {
+            PremiumMember premiumMember = (PremiumMember) member;
+            buffer.append(",,")
+                    .appendCsv(premiumMember.getPersonalTrainer()).append(',')
+                    .append(premiumMember.isFullPayment()).append(',')
+                    .append(premiumMember.getDiscountAmount()).append(',');
+        }
+        buffer.append(member.calculateFee()).append('\n');
+        return true;
+    }
+
+    /**
+     * Appends a member as a JSON object on its own line, with the keys of CSV_HEADER.
+     * Fields that do not apply to the member type are left out.
+     * @return false for unknown member types
+     */
+    private static boolean appendJson(ExportBuffer buffer, GymMember member) {
+        if (!(member instanceof RegularMember) && !(member instanceof PremiumMember)) {
+            return false;
+        }
+
+        buffer.append("{\"type\":").append(member instanceof RegularMember ? "\"Regular\"" : "\"Premium\"")
+                .append(",\"id\":").appendJson(member.getId())
+                .append(",\"name\":").appendJson(member.getName())
+                .append(",\"location\":").appendJson(member.getLocation())
+                .append(",\"phone\":").appendJson(member.getPhone())
+                .append(",\"email\":").appendJson(member.getEmail())
+                .append(",\"gender\":").appendJson(member.getGender())
+                .append(",\"dob\":").appendJson(member.getDob())
+                .append(",\"membershipStartDate\":").appendJson(member.getMembershipStartDate())
+                .append(",\"referralSource\":").appendJson(member.getReferralSource())
+                .append(",\"paidAmount\":").append(member.getPaidAmount())
+                .append(",\"active\":").append(member.isActive())
+                .append(",\"attendance\":").append(member.getAttendance())
+                .append(",\"loyaltyPoints\":").append(member.getLoyaltyPoints());
+
+        if (member instanceof RegularMember) {
+            RegularMember regularMember = (RegularMember) member;
+            buffer.append(",\"plan\":").appendJson(regularMember.getPlan())
+                    .append(",\"price\":").append(regularMember.getPrice());
+        } else {
+            PremiumMember premiumMember = (PremiumMember) member;
+            buffer.append(",\"trainer\":").appendJson(premiumMember.getPersonalTrainer())
+                    .append(",\"fullPayment\":").append(premiumMember.isFullPayment())
+                    .append(",\"discountAmount\":").append(premiumMember.getDiscountAmount());
+        }
+        buffer.append(",\"fee\":").append(member.calculateFee()).append("}\n");
+        return true;
+    }
+
+    /**
+     * Waits for an encoded chunk
+     * @return the number of members in the chunk
+     */
+    private static int await(Future<Integer> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting members", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
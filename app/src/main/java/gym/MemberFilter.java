@@ -0,0 +1,59 @@
+package gym;
+
+/**
+ * MemberFilter class selects members by membership type, active status and plan.
+ * A criterion left as null matches every member.
+ */
+public class MemberFilter {
+    // Matches every member
+    public static final MemberFilter ALL = new MemberFilter(null, null, null);
+
+    private final String type;
+    private final Boolean active;
+    private final String plan;
+
+    /**
+     * Constructor for MemberFilter
+     * @param type "Regular" or "Premium" in any case, or null for both
+     * @param active true for active members, false for inactive ones, or null for both
+     * @param plan the plan of regular members in any case, or null for any plan.
+     *             Premium members have no plan and never match a plan.
+     * @throws IllegalArgumentException if the type is not Regular or Premium
+     */
+    public MemberFilter(String type, Boolean active, String plan) {
+        if (type != null && !"regular".equalsIgnoreCase(type) && !"premium".equalsIgnoreCase(type)) {
+            throw new IllegalArgumentException("Membership type must be Regular or Premium: " + type);
+        }
+        this.type = type;
+        this.active = active;
+        this.plan = plan;
+    }
+
+    /**
+     * Checks if a member matches every criterion
+     * @param member the member to check
+     * @return true if the member matches
+     */
+    public boolean matches(GymMember member) {
+        if (type != null) {
+            boolean premium = member instanceof PremiumMember;
+            if (premium != "premium".equalsIgnoreCase(type)) {
+                return false;
+            }
+        }
+        if (active != null && member.isActive() != active) {
+            return false;
+        }
+        if (plan != null) {
+            return member instanceof RegularMember && plan.equalsIgnoreCase(((RegularMember) member).getPlan());
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "type=" + (type == null ? "any" : type) +
+                ", active=" + (active == null ? "any" : active) +
+                ", plan=" + (plan == null ? "any" : plan);
+    }
+}
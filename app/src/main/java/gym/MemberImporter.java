@@ -0,0 +1,646 @@
+package gym;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * MemberImporter class adds members in bulk from a CSV or JSON Lines file,
+ * for example when a whole branch moves over from another system.
+ *
+ * The file is read one record at a time and members are added in batches
+ * through MemberService.addMembers, so memory use does not grow with the
+ * size of the file and each batch is journalled with a single fsync.
+ * Records are validated with the same rules as the member form; rejected
+ * records are written to an error file with the reason.
+ *
+ * CSV files start with a header row naming the columns. A value may be quoted
+ * to hold commas, doubled quotes and line breaks; a quote opens a quoted value
+ * only at the start of the value, elsewhere it is kept as it is. A record
+ * spanning more than MAX_RECORD_LINES lines or MAX_RECORD_CHARS characters is
+ * rejected, so a stray quote cannot swallow the rest of the file. JSON Lines files
+ * hold one flat JSON object per line. Recognized column names, in any case
+ * and with or without spaces or underscores: type, id, name, location,
+ * phone, email, gender, dob, membershipStartDate, referralSource,
+ * paidAmount, plan (regular members) and trainer (premium members).
+ *
+ * Usage: java MemberImporter input.csv|input.jsonl [error file]
+ */
+public class MemberImporter {
+    /**
+     * Supported input formats
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        /**
+         * Picks the format from a file name, .jsonl, .ndjson and .json files are JSON Lines
+         * @param file the input file
+         * @return the format
+         */
+        public static Format forFile(File file) {
+            String name = file.getName().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+                return JSON_LINES;
+            }
+            return CSV;
+        }
+    }
+
+    // Number of members added per batch
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // Longest CSV record, in lines and in characters, before it is rejected as an unterminated quoted value
+    public static final int MAX_RECORD_LINES = 100;
+    public static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    // Header of the error file, each reject is one tab-separated line
+    private static final String ERROR_HEADER = "# LINE\tSTATUS\tMESSAGE\tRECORD";
+
+    // Accepted column names, normalized, mapped to the field they hold
+    private static final Map<String, String> COLUMNS = new HashMap<>();
+
+    static {
+        String[][] aliases = {
+                {"type", "type", "membershiptype", "membertype"},
+                {"id", "id", "memberid"},
+                {"name", "name", "fullname"},
+                {"location", "location", "address"},
+                {"phone", "phone", "phonenumber"},
+                {"email", "email", "emailaddress"},
+                {"gender", "gender"},
+                {"dob", "dob", "dateofbirth"},
+                {"start", "membershipstartdate", "membershipstart", "startdate"},
+                {"referral", "referralsource", "referral"},
+                {"paid", "paidamount", "paid"},
+                {"plan", "plan"},
+                {"trainer", "trainer", "personaltrainer", "trainername"}
+        };
+        for (String[] alias : aliases) {
+            for (int i = 1; i < alias.length; i++) {
+                COLUMNS.put(alias[i], alias[0]);
+            }
+        }
+    }
+
+    private final MemberService memberService;
+    private final int batchSize;
+
+    /**
+     * Constructor for MemberImporter
+     * @param memberService the loaded service to add members to
+     */
+    public MemberImporter(MemberService memberService) {
+        this(memberService, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor for MemberImporter
+     * @param memberService the loaded service to add members to
+     * @param batchSize the number of members added per batch
+     */
+    public MemberImporter(MemberService memberService, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.memberService = memberService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the default error file for an input file
+     * @param input the input file
+     * @return the input file name with ".errors" appended
+     */
+    public static File errorFileFor(File input) {
+        return new File(input.getPath() + ".errors");
+    }
+
+    /**
+     * Imports members, picking the format from the file name
+     * @param input the CSV or JSON Lines file
+     * @param errorFile the file to write rejected records to, removed if nothing is rejected
+     * @param listener receives the progress in bytes, may be null
+     * @return the import summary
+     * @throws IOException if a file cannot be read or written
+     */
+    public ImportResult importFile(File input, File errorFile, ProgressListener listener) throws IOException {
+        return importFile(input, Format.forFile(input), errorFile, listener);
+    }
+
+    /**
+     * Imports members from a file
+     * @param input the CSV or JSON Lines file
+     * @param format the format of the file
+     * @param errorFile the file to write rejected records to, removed if nothing is rejected
+     * @param listener receives the progress in bytes, may be null
+     * @return the import summary
+     * @throws IOException if a file cannot be read or written
+     */
+    public ImportResult importFile(File input, Format format, File errorFile, ProgressListener listener)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8));
+        BufferedWriter errors = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(errorFile), StandardCharsets.UTF_8));
+        long total = input.length();
+        Batch batch = new Batch();
+
+        try {
+            errors.write(ERROR_HEADER);
+            errors.newLine();
+
+            // Column names of a CSV file, taken from its first line
+            List<String> header = null;
+            // A CSV record, reused for every record
+            StringBuilder record = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Progress is approximate, a line break is counted as one byte
+                batch.bytesRead += utf8Length(line) + 1;
+                batch.lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                long recordLine = batch.lineNumber;
+                String raw = line;
+                Map<String, String> fields;
+                try {
+                    if (format == Format.CSV) {
+                        // A quoted CSV field can continue on the next line
+                        boolean quoted = hasOpenQuote(line, false);
+                        if (quoted) {
+                            record.setLength(0);
+                            record.append(line);
+                            int lines = 1;
+                            while (quoted) {
+                                if (lines == MAX_RECORD_LINES || record.length() > MAX_RECORD_CHARS) {
+                                    raw = record.toString();
+                                    throw new IllegalArgumentException("Unterminated quoted field, record longer than " +
+                                            MAX_RECORD_LINES + " lines or " + MAX_RECORD_CHARS + " characters");
+                                }
+                                String next = reader.readLine();
+                                if (next == null) {
+                                    raw = record.toString();
+                                    throw new IllegalArgumentException("Unterminated quoted field");
+                                }
+                                batch.bytesRead += utf8Length(next) + 1;
+                                batch.lineNumber++;
+                                lines++;
+                                record.append('\n').append(next);
+                                quoted = hasOpenQuote(next, true);
+                            }
+                            raw = record.toString();
+                        }
+
+                        List<String> values = parseCsv(raw);
+                        if (header == null) {
+                            header = values;
+                            continue;
+                        }
+                        fields = toFields(header, values);
+                    } else {
+                        fields = parseJson(raw);
+                    }
+
+                    batch.add(toMember(fields), null, recordLine, raw);
+                } catch (IllegalArgumentException e) {
+                    // Kept in the batch so the error file stays in input order
+                    batch.add(null, MemberResult.failure(MemberResult.Status.INVALID_INPUT, e.getMessage()),
+                            recordLine, raw);
+                }
+
+                if (batch.size() >= batchSize) {
+                    batch.commit(errors);
+                    if (listener != null) {
+                        listener.progress(Math.min(batch.bytesRead, total), total);
+                    }
+                }
+            }
+            batch.commit(errors);
+        } finally {
+            reader.close();
+            errors.close();
+        }
+
+        if (batch.rejected == 0) {
+            errorFile.delete();
+        }
+        if (listener != null) {
+            listener.progress(total, total);
+        }
+        return new ImportResult(batch.records, batch.imported, batch.rejected, errorFile);
+    }
+
+    /**
+     * Main method to import members into the default member files
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java MemberImporter input.csv|input.jsonl [error file]");
+            return;
+        }
+
+        File input = new File(args[0]);
+        File errorFile = args.length > 1 ? new File(args[1]) : errorFileFor(input);
+        MemberService memberService = new MemberService(new File("gym_members.snapshot"),
+                new File("gym_members.docx"), new File("gym_members.journal"));
+        memberService.load();
+        try {
+            ImportResult result = new MemberImporter(memberService).importFile(input, errorFile, null);
+            System.out.println(result);
+        } finally {
+            memberService.close();
+        }
+    }
+
+    /**
+     * Records waiting to be added, with the counts of the import so far.
+     * Each record holds either a member or the reason it could not be read.
+     */
+    private class Batch {
+        private final List<GymMember> members = new ArrayList<>();
+        private final List<MemberResult> failures = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+        private final List<String> raws = new ArrayList<>();
+
+        private long lineNumber;
+        private long bytesRead;
+        private long records;
+        private long imported;
+        private long rejected;
+
+        int size() {
+            return members.size();
+        }
+
+        void add(GymMember member, MemberResult failure, long line, String raw) {
+            members.add(member);
+            failures.add(failure);
+            lines.add(line);
+            raws.add(raw);
+            records++;
+        }
+
+        /**
+         * Adds the waiting members and writes the ones the service rejected
+         */
+        void commit(Writer errors) throws IOException {
+            if (members.isEmpty()) {
+                return;
+            }
+
+            List<GymMember> readable = new ArrayList<>(members.size());
+            for (GymMember member : members) {
+                if (member != null) {
+                    readable.add(member);
+                }
+            }
+
+            List<MemberResult> results = memberService.addMembers(readable);
+            int next = 0;
+            for (int i = 0; i < members.size(); i++) {
+                MemberResult result = members.get(i) != null ? results.get(next++) : failures.get(i);
+                if (result.isSuccess()) {
+                    imported++;
+                } else {
+                    reject(errors, lines.get(i), result.getStatus(), result.getMessage(), raws.get(i));
+                }
+            }
+
+            members.clear();
+            failures.clear();
+            lines.clear();
+            raws.clear();
+        }
+
+        private void reject(Writer errors, long line, MemberResult.Status status, String message, String raw)
+                throws IOException {
+            rejected++;
+            errors.write(line + "\t" + status + "\t" + singleLine(message) + "\t" + singleLine(raw));
+            errors.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Creates a member from the fields of a record
+     * @throws IllegalArgumentException if the type or paid amount is invalid
+     */
+    private static GymMember toMember(Map<String, String> fields) {
+        String type = value(fields, "type").toLowerCase(Locale.ROOT);
+        double paidAmount = 0;
+        String paid = value(fields, "paid");
+        if (!paid.isEmpty()) {
+            try {
+                paidAmount = Double.parseDouble(paid);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Paid Amount must be a valid number!");
+            }
+            if (Double.isNaN(paidAmount) || Double.isInfinite(paidAmount)) {
+                throw new IllegalArgumentException("Paid Amount must be a valid number!");
+            }
+        }
+
+        String id = value(fields, "id");
+        String name = value(fields, "name");
+        String location = value(fields, "location");
+        String phone = value(fields, "phone");
+        String email = value(fields, "email");
+        String gender = value(fields, "gender");
+        String dob = value(fields, "dob");
+        String start = value(fields, "start");
+        String referral = value(fields, "referral");
+
+        // Checked before the member is built, as a premium member ignores an initial payment it cannot take
+        if (paidAmount < 0) {
+            throw new IllegalArgumentException("Paid Amount cannot be negative!");
+        }
+        if ("premium".equals(type) && paidAmount > PremiumMember.PREMIUM_CHARGE) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                    "Paid Amount cannot exceed the premium charge of %.2f!", PremiumMember.PREMIUM_CHARGE));
+        }
+
+        if ("regular".equals(type)) {
+            return new RegularMember(id, name, location, phone, email, gender, dob,
+                    start, referral, paidAmount, value(fields, "plan"));
+        } else if ("premium".equals(type)) {
+            return new PremiumMember(id, name, location, phone, email, gender, dob,
+                    start, referral, paidAmount, value(fields, "trainer"));
+        }
+        throw new IllegalArgumentException("Membership type must be Regular or Premium!");
+    }
+
+    /**
+     * Returns a trimmed field value, or an empty string if it is missing
+     */
+    private static String value(Map<String, String> fields, String field) {
+        String value = fields.get(field);
+        return value == null ? "" : value.trim();
+    }
+
+    /**
+     * Matches CSV values to the header, ignoring unknown columns
+     */
+    private static Map<String, String> toFields(List<String> header, List<String> values) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Record has " + values.size() +
+                    " values but the header has " + header.size() + " columns");
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String field = COLUMNS.get(normalizeColumn(header.get(i)));
+            if (field != null) {
+                fields.put(field, values.get(i));
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Lower-cases a column name and drops everything but letters and digits
+     */
+    private static String normalizeColumn(String column) {
+        StringBuilder sb = new StringBuilder(column.length());
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Checks if a line of a CSV record ends inside a quoted field
+     * @param line the line
+     * @param quoted true if the line starts inside a quoted field
+     */
+    private static boolean hasOpenQuote(String line, boolean quoted) {
+        boolean fieldStart = !quoted;
+        // True right after a closing quote, where another quote makes a doubled quote
+        boolean closed = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                quoted = c != '"';
+                closed = !quoted;
+            } else {
+                quoted = c == '"' && (fieldStart || closed);
+                closed = false;
+            }
+            fieldStart = !quoted && c == ',';
+        }
+        return quoted;
+    }
+
+    /**
+     * Splits a CSV record into values. Values quoted from their start may
+     * contain commas, new lines and doubled quotes.
+     */
+    private static List<String> parseCsv(String record) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+                fieldStart = false;
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+                fieldStart = true;
+            } else {
+                value.append(c);
+                fieldStart = false;
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Counts the bytes of a line in UTF-8, for the import progress
+     */
+    private static int utf8Length(String line) {
+        int bytes = line.length();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= 0x800 && !Character.isSurrogate(c)) {
+                bytes += 2;
+            } else if (c >= 0x80) {
+                // Two bytes, or half of a four-byte surrogate pair
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings, numbers, booleans or null
+     * @throws IllegalArgumentException if the line is not such an object
+     */
+    private static Map<String, String> parseJson(String line) {
+        Map<String, String> fields = new HashMap<>();
+        int[] position = {skipSpaces(line, 0)};
+        expect(line, position, '{');
+
+        if (peek(line, position) == '}') {
+            position[0]++;
+        } else {
+            while (true) {
+                String key = parseJsonString(line, position);
+                expect(line, position, ':');
+                String value = parseJsonValue(line, position);
+
+                String field = COLUMNS.get(normalizeColumn(key));
+                if (field != null && value != null) {
+                    fields.put(field, value);
+                }
+
+                char c = peek(line, position);
+                position[0]++;
+                if (c == '}') {
+                    break;
+                } else if (c != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at position " + (position[0] - 1));
+                }
+            }
+        }
+
+        if (skipSpaces(line, position[0]) != line.length()) {
+            throw new IllegalArgumentException("Unexpected text after the JSON object");
+        }
+        return fields;
+    }
+
+    /**
+     * Parses a JSON value as text, null for a JSON null
+     */
+    private static String parseJsonValue(String line, int[] position) {
+        char c = peek(line, position);
+        if (c == '"') {
+            return parseJsonString(line, position);
+        }
+        if (c == '{' || c == '[') {
+            throw new IllegalArgumentException("Nested JSON values are not supported");
+        }
+
+        int start = position[0];
+        while (position[0] < line.length() && ",} \t".indexOf(line.charAt(position[0])) < 0) {
+            position[0]++;
+        }
+        String literal = line.substring(start, position[0]);
+        if (literal.isEmpty()) {
+            throw new IllegalArgumentException("Missing value at position " + start);
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    /**
+     * Parses a JSON string, including escapes
+     */
+    private static String parseJsonString(String line, int[] position) {
+        expect(line, position, '"');
+        StringBuilder sb = new StringBuilder();
+        while (position[0] < line.length()) {
+            char c = line.charAt(position[0]++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (position[0] >= line.length()) {
+                break;
+            }
+
+            char escaped = line.charAt(position[0]++);
+            switch (escaped) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'u':
+                    if (position[0] + 4 > line.length()) {
+                        throw new IllegalArgumentException("Invalid unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(line.substring(position[0], position[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid unicode escape");
+                    }
+                    position[0] += 4;
+                    break;
+                default:
+                    // \" \\ and \/
+                    sb.append(escaped);
+                    break;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated JSON string");
+    }
+
+    /**
+     * Skips spaces and checks the next character
+     */
+    private static void expect(String line, int[] position, char expected) {
+        if (peek(line, position) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at position " + position[0]);
+        }
+        position[0]++;
+    }
+
+    /**
+     * Skips spaces and returns the next character, or 0 at the end of the line
+     */
+    private static char peek(String line, int[] position) {
+        position[0] = skipSpaces(line, position[0]);
+        return position[0] < line.length() ? line.charAt(position[0]) : 0;
+    }
+
+    private static int skipSpaces(String line, int position) {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Replaces tabs and line breaks so a value fits on one error file line
+     */
+    private static String singleLine(String text) {
+        return text == null ? "" : text.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+}
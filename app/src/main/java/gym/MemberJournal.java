@@ -0,0 +1,323 @@
+package gym;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * MemberJournal class is an append-only log of member changes.
+ * Each change is appended and forced to disk as one small line, and the
+ * journal is replayed on top of the last snapshot when the application starts.
+ *
+ * Every snapshot records the journal generation it contains. When a snapshot
+ * is written the generation is increased and the journal is emptied, so a
+ * journal older than the snapshot is never replayed twice.
+ *
+ * Event arguments are escaped as fields of the data file are (see MemberSchema),
+ * so arguments with line breaks, pipes or backslashes replay exactly. Events
+ * after a FORMAT_PREFIX line are escaped; journals written before escaping was
+ * added have none, and their events are replayed as they are.
+ */
+public class MemberJournal {
+    // Event types written to the journal
+    public static final String ADD = "ADD";
+    public static final String ACTIVATE = "ACTIVATE";
+    public static final String DEACTIVATE = "DEACTIVATE";
+    public static final String ATTENDANCE = "ATTENDANCE";
+    public static final String UPGRADE = "UPGRADE";
+    public static final String DISCOUNT = "DISCOUNT";
+    public static final String PAYMENT = "PAYMENT";
+    public static final String REVERT = "REVERT";
+
+    // Header line carrying the generation, shared with the snapshot file
+    public static final String GENERATION_PREFIX = "# JOURNAL GENERATION: ";
+
+    // Header written before escaped events, with the version of the event format
+    public static final String FORMAT_PREFIX = "# JOURNAL FORMAT: ";
+    private static final int ESCAPED_FORMAT = 2;
+
+    // Number of events after which a snapshot should be written
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 500;
+
+    private final File file;
+    private final int compactionThreshold;
+    private FileOutputStream output;
+    private long generation;
+    private int pendingEvents;
+
+    /**
+     * Constructor for MemberJournal
+     * @param file the journal file
+     */
+    public MemberJournal(File file) {
+        this(file, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructor for MemberJournal
+     * @param file the journal file
+     * @param compactionThreshold number of events after which compaction is due
+     */
+    public MemberJournal(File file, int compactionThreshold) {
+        this.file = file;
+        this.compactionThreshold = compactionThreshold;
+        this.generation = 0;
+        this.pendingEvents = 0;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getPendingEvents() {
+        return pendingEvents;
+    }
+
+    /**
+     * Checks if enough events were appended that a snapshot should be written.
+     * A snapshot costs time in proportion to the number of members, so with many
+     * members compaction waits until the journal holds events for half of them,
+     * which keeps bulk changes such as imports from writing a snapshot per batch.
+     * @param memberCount the number of members in the last snapshot
+     * @return true if a snapshot should be written
+     */
+    public boolean needsCompaction(int memberCount) {
+        return pendingEvents >= Math.max(compactionThreshold, memberCount / 2);
+    }
+
+    /**
+     * Replays the journal on top of a loaded snapshot and opens it for appending
+     * @param snapshotGeneration the generation recorded in the snapshot
+     * @param members the members loaded from the snapshot
+     * @return the number of replayed events
+     * @throws IOException if the journal cannot be read or opened
+     */
+    public int open(long snapshotGeneration, MemberRepository members) throws IOException {
+        int replayed = 0;
+        long journalGeneration = -1;
+        // True once a format header says the following events are escaped
+        boolean escaped = false;
+
+        if (file.exists()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(file), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(GENERATION_PREFIX)) {
+                        journalGeneration = Long.parseLong(line.substring(GENERATION_PREFIX.length()).trim());
+                        escaped = false;
+                        continue;
+                    }
+                    if (line.startsWith(FORMAT_PREFIX)) {
+                        escaped = Integer.parseInt(line.substring(FORMAT_PREFIX.length()).trim()) >= ESCAPED_FORMAT;
+                        continue;
+                    }
+
+                    // Events from an older generation are already in the snapshot
+                    if (journalGeneration != snapshotGeneration || line.trim().isEmpty()) {
+                        continue;
+                    }
+
+                    // A damaged entry, such as a line cut short by a crash, is skipped
+                    try {
+                        if (replay(line, escaped, members)) {
+                            replayed++;
+                        }
+                    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                        // Includes values out of range, such as a negative attendance
+                        System.out.println("Invalid journal entry: " + line);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        if (journalGeneration == snapshotGeneration) {
+            generation = snapshotGeneration;
+            pendingEvents = replayed;
+            output = new FileOutputStream(file, true);
+            if (!escaped) {
+                // Events appended to an older journal from now on are escaped
+                writeHeader(FORMAT_PREFIX + ESCAPED_FORMAT);
+            }
+        } else {
+            // Missing or stale journal: start a fresh one for the snapshot's generation
+            generation = snapshotGeneration;
+            pendingEvents = 0;
+            reset();
+        }
+
+        return replayed;
+    }
+
+    /**
+     * Appends an event and forces it to disk
+     * @param type the event type
+     * @param id the member ID
+     * @param argument the event argument, may be empty
+     * @throws IOException if the event cannot be written
+     */
+    public void append(String type, String id, String argument) throws IOException {
+        if (output == null) {
+            throw new IOException("Journal " + file + " is not open");
+        }
+
+        String line = type + "|" + id + "|" + MemberSchema.escape(argument) + "\n";
+        output.write(line.getBytes(StandardCharsets.UTF_8));
+        output.getChannel().force(false);
+        pendingEvents++;
+    }
+
+    /**
+     * Appends several events and forces them to disk once
+     * @param events the events, each holding a type, member ID and argument
+     * @throws IOException if the events cannot be written
+     */
+    public void appendAll(List<String[]> events) throws IOException {
+        if (output == null) {
+            throw new IOException("Journal " + file + " is not open");
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String[] event : events) {
+            sb.append(event[0]).append('|').append(event[1]).append('|')
+                    .append(MemberSchema.escape(event[2])).append('\n');
+        }
+        output.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        output.getChannel().force(false);
+        pendingEvents += events.size();
+    }
+
+    /**
+     * Starts the next generation after a snapshot containing all events was written
+     * @throws IOException if the journal cannot be truncated
+     */
+    public void startNextGeneration() throws IOException {
+        generation++;
+        reset();
+    }
+
+    /**
+     * Closes the journal file
+     */
+    public void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    /**
+     * Reads the journal generation recorded in a snapshot file
+     * @param snapshot the snapshot file
+     * @return the recorded generation, or 0 if none is present
+     */
+    public static long readGeneration(File snapshot) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(snapshot), StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null && line.startsWith("#")) {
+                if (line.startsWith(GENERATION_PREFIX)) {
+                    return Long.parseLong(line.substring(GENERATION_PREFIX.length()).trim());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return 0;
+    }
+
+    /**
+     * Truncates the journal and writes the current generation header
+     */
+    private void reset() throws IOException {
+        close();
+        output = new FileOutputStream(file, false);
+        writeHeader(GENERATION_PREFIX + generation + "\n" + FORMAT_PREFIX + ESCAPED_FORMAT);
+        pendingEvents = 0;
+    }
+
+    /**
+     * Writes header lines and forces them to disk
+     */
+    private void writeHeader(String lines) throws IOException {
+        output.write((lines + "\n").getBytes(StandardCharsets.UTF_8));
+        output.getChannel().force(false);
+    }
+
+    /**
+     * Applies a single journal line to the members
+     * @param escaped true if the argument is escaped
+     * @return true if the event was applied
+     */
+    private boolean replay(String line, boolean escaped, MemberRepository members) {
+        String[] parts = line.split("\\|", 3);
+        if (parts.length < 3) {
+            System.out.println("Invalid journal entry: " + line);
+            return false;
+        }
+
+        String type = parts[0];
+        String id = parts[1];
+        String argument = escaped ? MemberSchema.unescape(parts[2]) : parts[2];
+
+        if (ADD.equals(type)) {
+            GymMember member = MemberRecordFormat.parse(argument);
+            return member != null && members.add(member);
+        }
+
+        GymMember member = members.findById(id);
+        if (member == null) {
+            System.out.println("Journal entry for unknown member: " + line);
+            return false;
+        }
+
+        if (!apply(member, type, argument)) {
+            System.out.println("Unknown journal entry: " + line);
+            return false;
+        }
+        if (REVERT.equals(type)) {
+            members.remove(id);
+        }
+        return true;
+    }
+
+    /**
+     * Applies an event other than ADD to a member. A REVERT event reverts the
+     * member but leaves removing it to the caller.
+     * @param member the member the event is for
+     * @param type the event type
+     * @param argument the event argument
+     * @return false if the event type is unknown or does not fit the member type
+     */
+    public static boolean apply(GymMember member, String type, String argument) {
+        if (ACTIVATE.equals(type)) {
+            member.activateMembership();
+        } else if (DEACTIVATE.equals(type)) {
+            member.deactivateMembership();
+        } else if (ATTENDANCE.equals(type)) {
+            member.markAttendance();
+        } else if (UPGRADE.equals(type) && member instanceof RegularMember) {
+            ((RegularMember) member).upgradePlan(argument);
+        } else if (DISCOUNT.equals(type) && member instanceof PremiumMember) {
+            ((PremiumMember) member).calculateDiscount();
+        } else if (PAYMENT.equals(type) && member instanceof PremiumMember) {
+            ((PremiumMember) member).payDueAmount(Double.parseDouble(argument));
+        } else if (REVERT.equals(type)) {
+            if (member instanceof RegularMember) {
+                ((RegularMember) member).revertRegularMember(argument);
+            } else if (member instanceof PremiumMember) {
+                ((PremiumMember) member).revertPremiumMember(argument);
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
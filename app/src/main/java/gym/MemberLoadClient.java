@@ -0,0 +1,106 @@
+package gym;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * MemberLoadClient class sends concurrent requests to a MemberServer
+ * and reports the throughput and latency. Each client mixes member lookups
+ * with attendance check-ins for random member IDs.
+ *
+ * Usage: java MemberLoadClient [host] [port] [clients] [requests per client] [highest member ID]
+ * The defaults are localhost 8080 50 1000 1000.
+ */
+public class MemberLoadClient {
+    // Status codes are counted in buckets of 100 (2xx, 3xx, 4xx, 5xx)
+    private static final int STATUS_BUCKETS = 6;
+
+    /**
+     * Main method to run the load test
+     */
+    public static void main(String[] args) throws Exception {
+        final String host = args.length > 0 ? args[0] : "localhost";
+        final int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        final int clients = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        final int requestsPerClient = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        final int highestId = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+
+        final long[] latencies = new long[clients * requestsPerClient];
+        final AtomicIntegerArray statusCounts = new AtomicIntegerArray(STATUS_BUCKETS);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(client);
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        String id = String.valueOf(1 + random.nextInt(highestId));
+                        boolean checkIn = random.nextBoolean();
+                        String path = checkIn ? "/members/" + id + "/attendance" : "/members/" + id;
+
+                        long requestStart = System.nanoTime();
+                        int status = send(host, port, checkIn ? "POST" : "GET", path);
+                        latencies[client * requestsPerClient + i] = System.nanoTime() - requestStart;
+                        statusCounts.incrementAndGet(Math.max(0, Math.min(STATUS_BUCKETS - 1, status / 100)));
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.println("Requests:    " + latencies.length);
+        System.out.println("Throughput:  " + String.format("%.0f", latencies.length / (elapsed / 1e9)) + " requests/sec");
+        System.out.println("Latency p50: " + String.format("%.2f", percentile(latencies, 0.50) / 1e6) + " ms");
+        System.out.println("Latency p99: " + String.format("%.2f", percentile(latencies, 0.99) / 1e6) + " ms");
+        System.out.println("Latency max: " + String.format("%.2f", latencies[latencies.length - 1] / 1e6) + " ms");
+        System.out.println("Responses:   2xx=" + statusCounts.get(2) + " 4xx=" + statusCounts.get(4) +
+                " 5xx=" + statusCounts.get(5) + " failed=" + statusCounts.get(0));
+    }
+
+    /**
+     * Sends one request and reads the whole response
+     * @return the HTTP status code, or 0 if the request failed
+     */
+    private static int send(String host, int port, String method, String path) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http", host, port, path).openConnection();
+            connection.setRequestMethod(method);
+            int status = connection.getResponseCode();
+
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (body != null) {
+                byte[] buffer = new byte[4096];
+                while (body.read(buffer) != -1) {
+                    // Drain the body so the connection can be reused
+                }
+                body.close();
+            }
+            return status;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the value at the given fraction of a sorted array
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
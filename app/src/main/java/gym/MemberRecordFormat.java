@@ -0,0 +1,364 @@
+package gym;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * MemberRecordFormat class converts gym members to and from
+ * the pipe-delimited lines stored in the member data file.
+ *
+ * Members are written as records of the current version of MemberSchema, which
+ * keep every field exactly. Version 1 lines, written before the format had a
+ * version and starting with the member type, are still read, filling in what
+ * they can, so existing files and journals move to the current version with
+ * the next save.
+ *
+ * Lines in the data file end with a CRC32 checksum field, such as "|#1a2b3c4d",
+ * so damaged lines are skipped on load instead of stopping it. Lines without a
+ * checksum, from older or hand-edited files, are read as they are.
+ */
+public class MemberRecordFormat {
+    // Header lines written at the top of the data file
+    public static final String HEADER_TITLE = "# GYM MEMBER DATABASE";
+    public static final String HEADER_FORMAT = "# FORMAT VERSION: " + MemberSchema.CURRENT_VERSION;
+
+    // Number of fields in a version 1 member line
+    public static final int FIELD_COUNT = 15;
+
+    // Line separator used by the data file, same as PrintWriter.println
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    // Checksum field: a separator, a marker and 8 hex digits
+    static final String CHECKSUM_MARKER = "|#";
+    static final int CHECKSUM_FIELD_LENGTH = CHECKSUM_MARKER.length() + 8;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private MemberRecordFormat() {
+    }
+
+    /**
+     * Formats a member as a single data file line
+     * @param member the member to format
+     * @return the pipe-delimited line, or null for unknown member types
+     */
+    public static String format(GymMember member) {
+        ExportBuffer buffer = new ExportBuffer(256);
+        if (!append(buffer, member)) {
+            return null;
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends a member as a single data file line, without the line separator.
+     * Produces the same text as format without building a String per field.
+     * @param buffer the buffer to append to
+     * @param member the member to append
+     * @return true if the member was appended, false for unknown member types
+     */
+    public static boolean append(ExportBuffer buffer, GymMember member) {
+        return MemberSchema.append(buffer, member);
+    }
+
+    /**
+     * Appends the header lines of the data file
+     * @param buffer the buffer to append to
+     */
+    public static void appendHeader(ExportBuffer buffer) {
+        buffer.append(HEADER_TITLE).append(LINE_SEPARATOR);
+        buffer.append(HEADER_FORMAT).append(LINE_SEPARATOR);
+        for (String type : new String[] {MemberSchema.REGULAR, MemberSchema.PREMIUM}) {
+            buffer.append("# ").append(type).append(": ").append(MemberSchema.describe(type))
+                    .append(CHECKSUM_MARKER).append("CRC32").append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * @return the line separator used by the data file
+     */
+    public static String lineSeparator() {
+        return LINE_SEPARATOR;
+    }
+
+    /**
+     * Parses a data file line into a member
+     * @param line the pipe-delimited line
+     * @return the parsed member, or null if the line is not a member record
+     * @throws NumberFormatException if a numeric field is malformed
+     */
+    public static GymMember parse(String line) {
+        return parse(split(line, '|'));
+    }
+
+    /**
+     * Builds a member from the fields of a data file line of any version
+     * @param parts the fields of the line
+     * @return the parsed member, or null if the fields are not a member record
+     * @throws NumberFormatException if a numeric field is malformed
+     */
+    public static GymMember parse(String[] parts) {
+        if (!MemberSchema.REGULAR.equals(parts[0]) && !MemberSchema.PREMIUM.equals(parts[0])) {
+            return MemberSchema.parse(parts);
+        }
+        return parseVersion1(parts);
+    }
+
+    /**
+     * Builds a member from a version 1 line. These lines do not hold the removal
+     * reason or upgrade eligibility, so eligibility is worked out from the attendance.
+     */
+    private static GymMember parseVersion1(String[] parts) {
+        if (parts.length < FIELD_COUNT) {
+            System.out.println("Invalid line format: " + String.join("|", parts));
+            return null;
+        }
+
+        String type = parts[0];
+        String id = parts[1];
+        String name = parts[2];
+        String location = parts[3];
+        String phone = parts[4];
+        String email = parts[5];
+        String gender = parts[6];
+        String dob = parts[7];
+        String membershipStartDate = parts[8];
+        String referralSource = parts[9];
+        double paidAmount = Double.parseDouble(parts[10]);
+        boolean active = Boolean.parseBoolean(parts[11]);
+        int attendance = Integer.parseInt(parts[12]);
+        double loyaltyPoints = Double.parseDouble(parts[13]);
+        String additionalData = parts[14];
+
+        if ("REGULAR".equals(type)) {
+            String[] planData = split(additionalData, ',');
+            String plan = planData[0];
+            // Create regular member
+            RegularMember regularMember = new RegularMember(
+                    id, name, location, phone, email, gender, dob,
+                    membershipStartDate, referralSource, paidAmount, plan
+            );
+
+            // Set additional properties
+            regularMember.setAttendance(attendance);
+            regularMember.setLoyaltyPoints(loyaltyPoints);
+            if (active) {
+                regularMember.activateMembership();
+            }
+            if (planData.length > 1) {
+                regularMember.setPrice(Double.parseDouble(planData[1]));
+            }
+            regularMember.setEligibleForUpgrade(attendance >= regularMember.getAttendanceLimit());
+
+            return regularMember;
+        } else if ("PREMIUM".equals(type)) {
+            String[] premiumData = split(additionalData, ',');
+            String trainer = premiumData[0];
+
+            // Create premium member, restoring the paid amount directly instead of replaying it as a payment
+            PremiumMember premiumMember = new PremiumMember(
+                    id, name, location, phone, email, gender, dob,
+                    membershipStartDate, referralSource, 0, trainer
+            );
+            premiumMember.setPaidAmount(paidAmount);
+            premiumMember.setFullPayment(paidAmount >= premiumMember.getPremiumCharge());
+
+            // Set additional properties
+            premiumMember.setAttendance(attendance);
+            premiumMember.setLoyaltyPoints(loyaltyPoints);
+            if (active) {
+                premiumMember.activateMembership();
+            }
+
+            // Set premium-specific properties if available
+            if (premiumData.length > 1) {
+                boolean fullPayment = Boolean.parseBoolean(premiumData[1]);
+                premiumMember.setFullPayment(fullPayment);
+            }
+
+            if (premiumData.length > 2) {
+                double discountAmount = Double.parseDouble(premiumData[2]);
+                premiumMember.setDiscountAmount(discountAmount);
+            }
+
+            return premiumMember;
+        }
+        return null;
+    }
+
+    /**
+     * Splits a line at every delimiter. Unlike String.split this needs no regular
+     * expression and keeps trailing empty fields.
+     * @param line the line
+     * @param delimiter the delimiter
+     * @return the fields, at least one
+     */
+    public static String[] split(String line, char delimiter) {
+        int count = 1;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == delimiter) {
+                count++;
+            }
+        }
+
+        String[] fields = new String[count];
+        int start = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int end = line.indexOf(delimiter, start);
+            fields[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        fields[count - 1] = line.substring(start);
+        return fields;
+    }
+
+    /**
+     * Writes all members to a text data file
+     * @param file the data file
+     * @param members the members to write
+     * @param generation the journal generation contained in the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeFile(File file, Iterable<GymMember> members, long generation) throws IOException {
+        writeFile(file, encodeFile(members, generation));
+    }
+
+    /**
+     * Encodes all members into the text data file contents.
+     * The members must not change while they are being encoded.
+     * @param members the members to encode
+     * @param generation the journal generation contained in the file
+     * @return the file contents, ready to be written
+     */
+    public static byte[] encodeFile(Iterable<GymMember> members, long generation) {
+        ExportBuffer buffer = new ExportBuffer(8192);
+
+        // Write header, including the journal generation this file contains
+        appendHeader(buffer);
+        buffer.append(MemberJournal.GENERATION_PREFIX).append(generation).append(LINE_SEPARATOR);
+        buffer.append(LINE_SEPARATOR);
+
+        // Write each member as a line ending with its checksum
+        CRC32 crc = new CRC32();
+        for (GymMember member : members) {
+            int start = buffer.length();
+            if (append(buffer, member)) {
+                int checksum = buffer.checksum(start, crc);
+                buffer.append(CHECKSUM_MARKER);
+                for (int shift = 28; shift >= 0; shift -= 4) {
+                    buffer.append(HEX_DIGITS[(checksum >>> shift) & 0xF]);
+                }
+                buffer.append(LINE_SEPARATOR);
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes encoded text contents to a data file. The file is replaced
+     * atomically and its previous versions are kept as backups.
+     * @param file the data file
+     * @param contents the contents returned by encodeFile
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeFile(File file, byte[] contents) throws IOException {
+        AtomicFiles.replace(file, contents);
+    }
+
+    /**
+     * Reads all members from a text data file
+     * @param file the data file
+     * @param members the repository to add the members to
+     * @return the number of members added
+     * @throws IOException if the file cannot be read
+     */
+    public static int readFile(File file, MemberRepository members) throws IOException {
+        return readFile(file, members, null);
+    }
+
+    /**
+     * Reads all members from a text data file, skipping damaged lines
+     * @param file the data file
+     * @param members the repository to add the members to
+     * @param listener receives the progress in bytes, may be null
+     * @return the number of members added
+     * @throws IOException if the file cannot be read
+     */
+    public static int readFile(File file, MemberRepository members, ProgressListener listener) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+        long total = file.length();
+        long done = 0;
+        int lines = 0;
+        int added = 0;
+        int damaged = 0;
+        CRC32 crc = new CRC32();
+        try {
+            String line;
+
+            // Skip header lines
+            while ((line = reader.readLine()) != null) {
+                // Progress is approximate, characters are counted as bytes
+                done += line.length() + 1;
+                if (listener != null && ++lines % 1000 == 0) {
+                    listener.progress(Math.min(done, total), total);
+                }
+
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                GymMember member = parseChecked(line, crc);
+                if (member == null) {
+                    damaged++;
+                } else if (members.add(member)) {
+                    added++;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        if (damaged > 0) {
+            System.out.println("Skipped " + damaged + " damaged lines in " + file);
+        }
+
+        if (listener != null) {
+            listener.progress(total, total);
+        }
+        return added;
+    }
+
+    /**
+     * Parses a data file line, verifying its checksum if it has one
+     * @param line the line
+     * @param crc the checksum to reuse
+     * @return the member, or null if the line is damaged or not a member record
+     */
+    private static GymMember parseChecked(String line, CRC32 crc) {
+        int checksumStart = line.length() - CHECKSUM_FIELD_LENGTH;
+        if (checksumStart > 0 && line.startsWith(CHECKSUM_MARKER, checksumStart)) {
+            String record = line.substring(0, checksumStart);
+            crc.reset();
+            crc.update(record.getBytes(StandardCharsets.UTF_8));
+            int expected;
+            try {
+                expected = Integer.parseUnsignedInt(line.substring(checksumStart + CHECKSUM_MARKER.length()), 16);
+            } catch (NumberFormatException e) {
+                expected = ~(int) crc.getValue();
+            }
+            if (expected != (int) crc.getValue()) {
+                System.out.println("Checksum mismatch, skipping line: " + line);
+                return null;
+            }
+            line = record;
+        }
+
+        // Includes values out of range, such as a negative attendance
+        try {
+            return parse(line);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Invalid line, skipping: " + line);
+            return null;
+        }
+    }
+}
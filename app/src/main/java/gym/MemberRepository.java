@@ -0,0 +1,188 @@
+package gym;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * MemberRepository class keeps all gym members in memory
+ * with an ID index for constant time lookup, duplicate checks and removal.
+ * The numeric state of the members is mirrored in MemberColumns for fast scans;
+ * call refresh after changing a member so its row stays in sync.
+ */
+public class MemberRepository implements Iterable<GymMember> {
+    // Members in slot order, used for iteration and positional access
+    private final ArrayList<GymMember> members;
+
+    // Index from member ID to its slot in the members list
+    private final HashMap<String, Integer> slots;
+
+    // Numeric fields of the members, in the same slot order
+    private final MemberColumns columns;
+
+    // Incremented whenever members are added or removed, so views know to refresh
+    private int modificationCount;
+
+    /**
+     * Constructor for MemberRepository
+     */
+    public MemberRepository() {
+        this.members = new ArrayList<>();
+        this.slots = new HashMap<>();
+        this.columns = new MemberColumns();
+    }
+
+    /**
+     * Adds a member if no other member has the same ID
+     * @param member the member to add
+     * @return true if the member was added, false if the ID already exists
+     */
+    public boolean add(GymMember member) {
+        String id = member.getId();
+        if (slots.containsKey(id)) {
+            return false;
+        }
+
+        slots.put(id, members.size());
+        columns.set(members.size(), member);
+        members.add(member);
+        modificationCount++;
+        return true;
+    }
+
+    /**
+     * Checks if a member with the given ID exists
+     * @param id the ID to check
+     * @return true if the ID already exists, false otherwise
+     */
+    public boolean contains(String id) {
+        return slots.containsKey(id);
+    }
+
+    /**
+     * Finds a member by their ID
+     * @param id the ID to search for
+     * @return the GymMember object if found, null otherwise
+     */
+    public GymMember findById(String id) {
+        Integer slot = slots.get(id);
+        return slot == null ? null : members.get(slot);
+    }
+
+    /**
+     * Removes the member with the given ID.
+     * The last member is moved into the freed slot so removal stays O(1).
+     * @param id the ID of the member to remove
+     * @return the removed member, or null if not found
+     */
+    public GymMember remove(String id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return null;
+        }
+
+        int lastSlot = members.size() - 1;
+        GymMember removed = members.get(slot);
+        GymMember last = members.remove(lastSlot);
+
+        if (slot != lastSlot) {
+            members.set(slot, last);
+            slots.put(last.getId(), slot);
+            columns.move(lastSlot, slot);
+        }
+        columns.removeLast();
+
+        modificationCount++;
+        return removed;
+    }
+
+    /**
+     * Copies the current state of a member into its column row
+     * @param member the member that changed
+     * @return true if the member is in the repository
+     */
+    public boolean refresh(GymMember member) {
+        Integer slot = slots.get(member.getId());
+        if (slot == null || members.get(slot) != member) {
+            return false;
+        }
+
+        columns.set(slot, member);
+        return true;
+    }
+
+    /**
+     * Copies the current state of every member into the columns,
+     * after members were changed without refresh
+     */
+    public void refreshAll() {
+        for (int i = 0; i < members.size(); i++) {
+            columns.set(i, members.get(i));
+        }
+    }
+
+    /**
+     * @return the numeric fields of the members, indexed by slot
+     */
+    public MemberColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the member stored in the given slot
+     * @param slot the slot between 0 and size() - 1
+     * @return the member in that slot
+     */
+    public GymMember get(int slot) {
+        return members.get(slot);
+    }
+
+    /**
+     * @return the number of members
+     */
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * @return true if there are no members
+     */
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * Removes all members
+     */
+    public void clear() {
+        members.clear();
+        slots.clear();
+        columns.clear();
+        modificationCount++;
+    }
+
+    /**
+     * @return a count that changes whenever members are added or removed
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    @Override
+    public Iterator<GymMember> iterator() {
+        final Iterator<GymMember> delegate = members.iterator();
+
+        // Read-only iterator so removals always go through remove(id)
+        return new Iterator<GymMember>() {
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public GymMember next() {
+                return delegate.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package gym;
+
+/**
+ * MemberResult class describes the outcome of a MemberService operation
+ * with a status that callers can act on and a message that can be shown to users.
+ */
+public class MemberResult {
+    /**
+     * Possible outcomes of a member operation
+     */
+    public enum Status {
+        SUCCESS,
+        INVALID_INPUT,
+        NOT_FOUND,
+        DUPLICATE_ID,
+        WRONG_MEMBER_TYPE,
+        ALREADY_ACTIVE,
+        ALREADY_INACTIVE,
+        INACTIVE,
+        LOCATION_FULL,
+        NOT_CHECKED_IN,
+        NOT_ELIGIBLE,
+        SAME_PLAN,
+        INVALID_PLAN,
+        ALREADY_PAID,
+        EXCEEDS_CHARGE,
+        NO_DISCOUNT,
+        STORAGE_ERROR
+    }
+
+    private final Status status;
+    private final String message;
+    private final GymMember member;
+
+    /**
+     * Constructor for MemberResult
+     * @param status the outcome
+     * @param message a message describing the outcome
+     * @param member the member the operation applied to, may be null
+     */
+    public MemberResult(Status status, String message, GymMember member) {
+        this.status = status;
+        this.message = message;
+        this.member = member;
+    }
+
+    /**
+     * Creates a successful result
+     */
+    public static MemberResult success(String message, GymMember member) {
+        return new MemberResult(Status.SUCCESS, message, member);
+    }
+
+    /**
+     * Creates a failed result
+     */
+    public static MemberResult failure(Status status, String message) {
+        return new MemberResult(status, message, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public GymMember getMember() {
+        return member;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    @Override
+    public String toString() {
+        return status + ": " + message;
+    }
+}
@@ -0,0 +1,550 @@
+package gym;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MemberSchema class lists the fields each member type keeps in the text data
+ * file, for every version of the record format, and reads and writes records
+ * with them.
+ *
+ * A record starts with the format version and the member type, followed by the
+ * fields of that type in schema order. Records are written with CURRENT_VERSION
+ * and read with the schema of the version they were written in. Every field is
+ * set directly on a blank member, without replaying payments or upgrades, so a
+ * record is read back into a member equal to the one written: doubles are written
+ * in a form that parses to the same value, and text is escaped so it can hold any
+ * character, including the '|' delimiter, line breaks and null.
+ *
+ * Version 1 records, which start with the member type and do not hold every field,
+ * are read by MemberRecordFormat and written as the current version on the next save.
+ */
+public class MemberSchema {
+    // Version written by append
+    public static final int CURRENT_VERSION = 2;
+
+    // Member types as written in records
+    public static final String REGULAR = "REGULAR";
+    public static final String PREMIUM = "PREMIUM";
+
+    /**
+     * One field of a member record
+     */
+    public abstract static class Field {
+        private final String name;
+
+        protected Field(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the name of the field in the file header
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Appends the value of the field, holding no '|' or line break
+         * @param buffer the buffer to append to
+         * @param member the member
+         */
+        public abstract void append(ExportBuffer buffer, GymMember member);
+
+        /**
+         * Sets the field from a value written by append
+         * @param member the member being read
+         * @param value the value
+         * @throws NumberFormatException if a numeric or boolean value is malformed
+         */
+        public abstract void read(GymMember member, String value);
+    }
+
+    /**
+     * A text field, escaped in the record
+     */
+    private abstract static class TextField extends Field {
+        TextField(String name) {
+            super(name);
+        }
+
+        abstract String get(GymMember member);
+
+        abstract void set(GymMember member, String value);
+
+        @Override
+        public void append(ExportBuffer buffer, GymMember member) {
+            buffer.append(escape(get(member)));
+        }
+
+        @Override
+        public void read(GymMember member, String value) {
+            set(member, unescape(value));
+        }
+    }
+
+    /**
+     * A double field, such as an amount
+     */
+    private abstract static class AmountField extends Field {
+        AmountField(String name) {
+            super(name);
+        }
+
+        abstract double get(GymMember member);
+
+        abstract void set(GymMember member, double value);
+
+        @Override
+        public void append(ExportBuffer buffer, GymMember member) {
+            buffer.append(get(member));
+        }
+
+        @Override
+        public void read(GymMember member, String value) {
+            set(member, Double.parseDouble(value));
+        }
+    }
+
+    /**
+     * A boolean field, written as true or false
+     */
+    private abstract static class FlagField extends Field {
+        FlagField(String name) {
+            super(name);
+        }
+
+        abstract boolean get(GymMember member);
+
+        abstract void set(GymMember member, boolean value);
+
+        @Override
+        public void append(ExportBuffer buffer, GymMember member) {
+            buffer.append(get(member));
+        }
+
+        @Override
+        public void read(GymMember member, String value) {
+            if ("true".equals(value)) {
+                set(member, true);
+            } else if ("false".equals(value)) {
+                set(member, false);
+            } else {
+                throw new NumberFormatException("Not a boolean: " + value);
+            }
+        }
+    }
+
+    // Fields of every member
+    private static final Field ID = new TextField("ID") {
+        @Override
+        String get(GymMember member) {
+            return member.getId();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setId(value);
+        }
+    };
+
+    private static final Field NAME = new TextField("NAME") {
+        @Override
+        String get(GymMember member) {
+            return member.getName();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setName(value);
+        }
+    };
+
+    private static final Field LOCATION = new TextField("LOCATION") {
+        @Override
+        String get(GymMember member) {
+            return member.getLocation();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setLocation(value);
+        }
+    };
+
+    private static final Field PHONE = new TextField("PHONE") {
+        @Override
+        String get(GymMember member) {
+            return member.getPhone();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setPhone(value);
+        }
+    };
+
+    private static final Field EMAIL = new TextField("EMAIL") {
+        @Override
+        String get(GymMember member) {
+            return member.getEmail();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setEmail(value);
+        }
+    };
+
+    private static final Field GENDER = new TextField("GENDER") {
+        @Override
+        String get(GymMember member) {
+            return member.getGender();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setGender(value);
+        }
+    };
+
+    private static final Field DOB = new TextField("DOB") {
+        @Override
+        String get(GymMember member) {
+            return member.getDob();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setDob(value);
+        }
+    };
+
+    private static final Field MEMBERSHIP_START = new TextField("MEMBERSHIP_START") {
+        @Override
+        String get(GymMember member) {
+            return member.getMembershipStartDate();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setMembershipStartDate(value);
+        }
+    };
+
+    private static final Field REFERRAL = new TextField("REFERRAL") {
+        @Override
+        String get(GymMember member) {
+            return member.getReferralSource();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setReferralSource(value);
+        }
+    };
+
+    private static final Field PAID_AMOUNT = new AmountField("PAID_AMOUNT") {
+        @Override
+        double get(GymMember member) {
+            return member.getPaidAmount();
+        }
+
+        @Override
+        void set(GymMember member, double value) {
+            member.setPaidAmount(value);
+        }
+    };
+
+    private static final Field ACTIVE = new FlagField("ACTIVE") {
+        @Override
+        boolean get(GymMember member) {
+            return member.isActive();
+        }
+
+        @Override
+        void set(GymMember member, boolean value) {
+            member.setActive(value);
+        }
+    };
+
+    private static final Field ATTENDANCE = new Field("ATTENDANCE") {
+        @Override
+        public void append(ExportBuffer buffer, GymMember member) {
+            buffer.append((long) member.getAttendance());
+        }
+
+        @Override
+        public void read(GymMember member, String value) {
+            member.setAttendance(Integer.parseInt(value));
+        }
+    };
+
+    private static final Field LOYALTY = new AmountField("LOYALTY") {
+        @Override
+        double get(GymMember member) {
+            return member.getLoyaltyPoints();
+        }
+
+        @Override
+        void set(GymMember member, double value) {
+            member.setLoyaltyPoints(value);
+        }
+    };
+
+    private static final Field REMOVAL_REASON = new TextField("REMOVAL_REASON") {
+        @Override
+        String get(GymMember member) {
+            return member.getRemovalReason();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            member.setRemovalReason(value);
+        }
+    };
+
+    // Fields of regular members
+    private static final Field PLAN = new TextField("PLAN") {
+        @Override
+        String get(GymMember member) {
+            return ((RegularMember) member).getPlan();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            ((RegularMember) member).setPlan(value);
+        }
+    };
+
+    private static final Field PRICE = new AmountField("PRICE") {
+        @Override
+        double get(GymMember member) {
+            return ((RegularMember) member).getPrice();
+        }
+
+        @Override
+        void set(GymMember member, double value) {
+            ((RegularMember) member).setPrice(value);
+        }
+    };
+
+    private static final Field ELIGIBLE_FOR_UPGRADE = new FlagField("ELIGIBLE_FOR_UPGRADE") {
+        @Override
+        boolean get(GymMember member) {
+            return ((RegularMember) member).isEligibleForUpgrade();
+        }
+
+        @Override
+        void set(GymMember member, boolean value) {
+            ((RegularMember) member).setEligibleForUpgrade(value);
+        }
+    };
+
+    // Fields of premium members
+    private static final Field TRAINER = new TextField("TRAINER") {
+        @Override
+        String get(GymMember member) {
+            return ((PremiumMember) member).getPersonalTrainer();
+        }
+
+        @Override
+        void set(GymMember member, String value) {
+            ((PremiumMember) member).setPersonalTrainer(value);
+        }
+    };
+
+    private static final Field FULL_PAYMENT = new FlagField("FULL_PAYMENT") {
+        @Override
+        boolean get(GymMember member) {
+            return ((PremiumMember) member).isFullPayment();
+        }
+
+        @Override
+        void set(GymMember member, boolean value) {
+            ((PremiumMember) member).setFullPayment(value);
+        }
+    };
+
+    private static final Field DISCOUNT_AMOUNT = new AmountField("DISCOUNT_AMOUNT") {
+        @Override
+        double get(GymMember member) {
+            return ((PremiumMember) member).getDiscountAmount();
+        }
+
+        @Override
+        void set(GymMember member, double value) {
+            ((PremiumMember) member).setDiscountAmount(value);
+        }
+    };
+
+    // Fields of each member type by version, keyed by "version|type"
+    private static final Map<String, Field[]> SCHEMAS = new HashMap<>();
+
+    static {
+        SCHEMAS.put(key(2, REGULAR), new Field[] {
+                ID, NAME, LOCATION, PHONE, EMAIL, GENDER, DOB, MEMBERSHIP_START, REFERRAL,
+                PAID_AMOUNT, ACTIVE, ATTENDANCE, LOYALTY, REMOVAL_REASON,
+                PLAN, PRICE, ELIGIBLE_FOR_UPGRADE
+        });
+        SCHEMAS.put(key(2, PREMIUM), new Field[] {
+                ID, NAME, LOCATION, PHONE, EMAIL, GENDER, DOB, MEMBERSHIP_START, REFERRAL,
+                PAID_AMOUNT, ACTIVE, ATTENDANCE, LOYALTY, REMOVAL_REASON,
+                TRAINER, FULL_PAYMENT, DISCOUNT_AMOUNT
+        });
+    }
+
+    // Escaped form of null, which no escaped string can equal
+    private static final String NULL_TEXT = "\\0";
+
+    private MemberSchema() {
+    }
+
+    /**
+     * Describes the current record layout of a member type, for the file header
+     * @param type REGULAR or PREMIUM
+     * @return the field names separated by '|'
+     */
+    public static String describe(String type) {
+        StringBuilder sb = new StringBuilder("VERSION|TYPE");
+        for (Field field : SCHEMAS.get(key(CURRENT_VERSION, type))) {
+            sb.append('|').append(field.getName());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Appends a member as a record of the current version, without the line separator
+     * @param buffer the buffer to append to
+     * @param member the member to append
+     * @return true if the member was appended, false for unknown member types
+     */
+    public static boolean append(ExportBuffer buffer, GymMember member) {
+        String type = typeOf(member);
+        if (type == null) {
+            return false;
+        }
+
+        buffer.append((long) CURRENT_VERSION).append('|').append(type);
+        for (Field field : SCHEMAS.get(key(CURRENT_VERSION, type))) {
+            buffer.append('|');
+            field.append(buffer, member);
+        }
+        return true;
+    }
+
+    /**
+     * Builds a member from the fields of a record written by append
+     * @param parts the record split at '|', starting with the version and the type
+     * @return the member, or null if the version, type or number of fields is not known
+     * @throws NumberFormatException if the version or a numeric field is malformed
+     */
+    public static GymMember parse(String[] parts) {
+        int version = Integer.parseInt(parts[0]);
+        Field[] fields = parts.length > 1 ? SCHEMAS.get(key(version, parts[1])) : null;
+        if (fields == null) {
+            System.out.println("Unsupported record version or member type: " + String.join("|", parts));
+            return null;
+        }
+        if (parts.length != fields.length + 2) {
+            System.out.println("Invalid line format: " + String.join("|", parts));
+            return null;
+        }
+
+        GymMember member = REGULAR.equals(parts[1])
+                ? new RegularMember(null, null, null, null, null, null, null, null, null, 0, null)
+                : new PremiumMember(null, null, null, null, null, null, null, null, null, 0, null);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].read(member, parts[i + 2]);
+        }
+        return member;
+    }
+
+    private static String key(int version, String type) {
+        return version + "|" + type;
+    }
+
+    /**
+     * Returns the record type of a member, or null for unknown member types
+     */
+    private static String typeOf(GymMember member) {
+        if (member instanceof RegularMember) {
+            return REGULAR;
+        }
+        if (member instanceof PremiumMember) {
+            return PREMIUM;
+        }
+        return null;
+    }
+
+    /**
+     * Escapes '\', '|' and line breaks, and writes null as NULL_TEXT
+     */
+    static String escape(String text) {
+        if (text == null) {
+            return NULL_TEXT;
+        }
+
+        int i = 0;
+        while (i < text.length() && !needsEscape(text.charAt(i))) {
+            i++;
+        }
+        if (i == text.length()) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(text.length() + 8).append(text, 0, i);
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c == '|') {
+                sb.append("\\p");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean needsEscape(char c) {
+        return c == '\\' || c == '|' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * Reverses escape
+     */
+    static String unescape(String value) {
+        if (NULL_TEXT.equals(value)) {
+            return null;
+        }
+        int i = value.indexOf('\\');
+        if (i < 0) {
+            return value;
+        }
+
+        StringBuilder sb = new StringBuilder(value.length()).append(value, 0, i);
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            if (escaped == 'p') {
+                sb.append('|');
+            } else if (escaped == 'n') {
+                sb.append('\n');
+            } else if (escaped == 'r') {
+                sb.append('\r');
+            } else {
+                sb.append(escaped);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,161 @@
+package gym;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * MemberSearchIndex class finds members by the start of their ID, any word
+ * of their name, their full name, phone number or email address.
+ *
+ * Every searchable term is stored in a sorted map as "term \0 id", so all
+ * members matching a prefix sit next to each other and the first matches
+ * are found without scanning other members. Searches can run on any thread
+ * while members are added and removed.
+ */
+public class MemberSearchIndex {
+    // Separates the term from the member ID in index keys, sorts before any other character
+    private static final char SEPARATOR = '\0';
+
+    private final ConcurrentSkipListMap<String, GymMember> index;
+
+    /**
+     * Constructor for MemberSearchIndex
+     */
+    public MemberSearchIndex() {
+        this.index = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Indexes a member. A member must be removed before its searchable fields change.
+     * @param member the member to index
+     */
+    public void add(GymMember member) {
+        for (String term : terms(member)) {
+            index.put(term + SEPARATOR + member.getId(), member);
+        }
+    }
+
+    /**
+     * Removes a member from the index
+     * @param member the member to remove, with the same searchable fields it was added with
+     */
+    public void remove(GymMember member) {
+        for (String term : terms(member)) {
+            index.remove(term + SEPARATOR + member.getId());
+        }
+    }
+
+    /**
+     * Removes all members
+     */
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * Finds the members with a term starting with the query
+     * @param query the start of an ID, name, phone number or email, case is ignored
+     * @param limit the maximum number of members to return
+     * @return up to limit matching members in term order, each member at most once
+     */
+    public List<GymMember> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        // A member can match through several terms, keep the first match only
+        Map<String, GymMember> matches = new LinkedHashMap<>();
+        searchPrefix(prefix, limit, matches);
+
+        // Phone numbers are also indexed as digits only, so "980-12" finds 98012...
+        String digits = digits(prefix);
+        if (matches.size() < limit && !digits.isEmpty() && !digits.equals(prefix)) {
+            searchPrefix(digits, limit, matches);
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * @return the number of indexed terms
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Adds the members whose terms start with the prefix until the limit is reached
+     */
+    private void searchPrefix(String prefix, int limit, Map<String, GymMember> matches) {
+        for (Map.Entry<String, GymMember> entry
+                : index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            GymMember member = entry.getValue();
+            if (!matches.containsKey(member.getId())) {
+                matches.put(member.getId(), member);
+                if (matches.size() >= limit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the searchable terms of a member
+     */
+    private static List<String> terms(GymMember member) {
+        List<String> terms = new ArrayList<>();
+        addTerm(terms, member.getId());
+
+        // Each word of the name and the full name, so "smi" and "john sm" both match
+        String name = normalize(member.getName());
+        if (!name.isEmpty()) {
+            for (String word : name.split(" ")) {
+                addTerm(terms, word);
+            }
+            addTerm(terms, name);
+        }
+
+        String phone = normalize(member.getPhone());
+        addTerm(terms, phone);
+        addTerm(terms, digits(phone));
+        addTerm(terms, normalize(member.getEmail()));
+        return terms;
+    }
+
+    /**
+     * Adds a term if it is not empty or already present
+     */
+    private static void addTerm(List<String> terms, String term) {
+        if (term != null && !term.isEmpty() && !terms.contains(term)) {
+            terms.add(term);
+        }
+    }
+
+    /**
+     * Lower-cases text and collapses whitespace
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Keeps only the digits of text
+     */
+    private static String digits(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,355 @@
+package gym;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MemberServer class serves member operations over HTTP so several
+ * turnstiles and desks can share one member store.
+ *
+ * Endpoints (responses are JSON):
+ *   GET  /members/{id}                      member details
+ *   POST /members/{id}/attendance           mark attendance and check in
+ *   POST /members/{id}/checkout             check out
+ *   POST /members/{id}/payment?amount=N     pay due amount (premium members)
+ *   POST /members/{id}/upgrade?plan=NAME    upgrade plan (regular members)
+ *   GET  /occupancy                         members inside each location
+ *
+ * Each request runs on its own virtual thread when the JVM supports them
+ * (Java 21 or later), otherwise on a cached thread pool. Members are read
+ * under their lock, so a response never shows a change half done.
+ *
+ * Small responses are held back by Nagle's algorithm unless the JVM is started
+ * with -Dsun.net.httpserver.nodelay=true, which main sets when it is not given.
+ * The property applies to every HttpServer in the JVM, so an application that
+ * embeds MemberServer sets it itself.
+ *
+ * Usage: java [-Dgym.database=JDBC_URL] [-Dsun.net.httpserver.nodelay=true] MemberServer [port]
+ */
+public class MemberServer {
+    // Default port and member files, the same files the GUI uses
+    private static final int DEFAULT_PORT = 8080;
+    private static final String DATA_FILE = "gym_members.docx";
+    private static final String SNAPSHOT_FILE = "gym_members.snapshot";
+    private static final String JOURNAL_FILE = "gym_members.journal";
+    private static final String ATTENDANCE_FILE = "gym_members.attendance";
+
+    // Formats a member read under its lock
+    private static final MemberService.MemberReader<String> MEMBER_JSON = new MemberService.MemberReader<String>() {
+        @Override
+        public String read(GymMember member) {
+            return memberJson(member);
+        }
+    };
+
+    private final MemberService memberService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for MemberServer
+     * @param memberService the loaded member service
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be opened
+     */
+    public MemberServer(MemberService memberService, int port) throws IOException {
+        this.memberService = memberService;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+        this.server.setExecutor(executor);
+        this.server.createContext("/members/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleMembers(exchange);
+            }
+        });
+        this.server.createContext("/occupancy", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleOccupancy(exchange);
+            }
+        });
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for running ones
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Main method to run the server
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        // Small responses are otherwise held back by Nagle's algorithm. Read once by
+        // the first HttpServer, so it must be set before the server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        // Members are kept in a database when a JDBC URL is given
+        String databaseUrl = System.getProperty(JdbcMemberStore.URL_PROPERTY);
+        MemberStore store = databaseUrl != null
+                ? new JdbcMemberStore(databaseUrl, new File(DATA_FILE))
+                : new FileMemberStore(new File(SNAPSHOT_FILE), new File(DATA_FILE), new File(JOURNAL_FILE));
+        final MemberService memberService = new MemberService(store, new File(ATTENDANCE_FILE));
+        memberService.load();
+
+        final MemberServer memberServer = new MemberServer(memberService, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                memberServer.stop();
+                memberService.close();
+            }
+        }));
+
+        memberServer.start();
+        System.out.println("Member server listening on port " + memberServer.getPort());
+    }
+
+    /**
+     * Creates an executor that runs each request on a virtual thread if available
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Virtual threads need Java 21
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Routes a request under /members/
+     */
+    private void handleMembers(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().substring("/members/".length()).split("/");
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String id = path[0];
+
+            if (path.length == 1 && "GET".equals(method)) {
+                String json = memberService.readMember(id, MEMBER_JSON);
+                if (json == null) {
+                    send(exchange, 404, resultJson(MemberResult.failure(
+                            MemberResult.Status.NOT_FOUND, "Member with ID " + id + " not found!")));
+                } else {
+                    send(exchange, 200, json);
+                }
+            } else if (path.length == 2 && "POST".equals(method) && "attendance".equals(path[1])) {
+                sendResult(exchange, memberService.markAttendance(id));
+            } else if (path.length == 2 && "POST".equals(method) && "checkout".equals(path[1])) {
+                sendResult(exchange, memberService.checkOut(id));
+            } else if (path.length == 2 && "POST".equals(method) && "payment".equals(path[1])) {
+                double amount;
+                try {
+                    amount = Double.parseDouble(query.get("amount"));
+                } catch (NumberFormatException | NullPointerException e) {
+                    sendResult(exchange, MemberResult.failure(MemberResult.Status.INVALID_INPUT,
+                            "Paid Amount must be a valid number!"));
+                    return;
+                }
+                sendResult(exchange, memberService.payDueAmount(id, amount));
+            } else if (path.length == 2 && "POST".equals(method) && "upgrade".equals(path[1])) {
+                sendResult(exchange, memberService.upgradePlan(id, query.get("plan")));
+            } else {
+                send(exchange, 404, "{\"status\":\"NOT_FOUND\",\"message\":\"Unknown request\"}");
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, "{\"status\":\"ERROR\",\"message\":" + quote(String.valueOf(e.getMessage())) + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Lists the live occupancy of each location
+     */
+    private void handleOccupancy(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 404, "{\"status\":\"NOT_FOUND\",\"message\":\"Unknown request\"}");
+                return;
+            }
+
+            StringBuilder sb = new StringBuilder("[");
+            for (OccupancyTracker.Occupancy occupancy : memberService.getOccupancy().getLocations()) {
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                sb.append("{\"location\":").append(quote(occupancy.getLocation()));
+                sb.append(",\"current\":").append(occupancy.getCurrent());
+                sb.append(",\"peakToday\":").append(occupancy.getPeakToday());
+                if (occupancy.getCapacity() != OccupancyTracker.UNLIMITED) {
+                    sb.append(",\"capacity\":").append(occupancy.getCapacity());
+                }
+                sb.append('}');
+            }
+            send(exchange, 200, sb.append(']').toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Sends a member operation result with a matching HTTP status code
+     */
+    private void sendResult(HttpExchange exchange, MemberResult result) throws IOException {
+        int code;
+        switch (result.getStatus()) {
+            case SUCCESS:
+                code = 200;
+                break;
+            case NOT_FOUND:
+                code = 404;
+                break;
+            case INVALID_INPUT:
+                code = 400;
+                break;
+            case STORAGE_ERROR:
+                code = 500;
+                break;
+            default:
+                // The request was valid but a business rule rejected it
+                code = 409;
+                break;
+        }
+        send(exchange, code, resultJson(result));
+    }
+
+    /**
+     * Writes a JSON response body
+     */
+    private void send(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, body.length);
+        OutputStream output = exchange.getResponseBody();
+        output.write(body);
+        output.close();
+    }
+
+    /**
+     * Formats a result as JSON, with the member as it is now, read under its lock
+     */
+    private String resultJson(MemberResult result) {
+        String json = "{\"status\":\"" + result.getStatus() + "\",\"message\":" + quote(result.getMessage());
+        String member = result.getMember() == null ? null
+                : memberService.readMember(result.getMember().getId(), MEMBER_JSON);
+        if (member != null) {
+            json += ",\"member\":" + member;
+        }
+        return json + "}";
+    }
+
+    /**
+     * Formats the main member fields as JSON
+     */
+    private static String memberJson(GymMember member) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"id\":").append(quote(member.getId()));
+        sb.append(",\"name\":").append(quote(member.getName()));
+        sb.append(",\"location\":").append(quote(member.getLocation()));
+        sb.append(",\"active\":").append(member.isActive());
+        sb.append(",\"attendance\":").append(member.getAttendance());
+        sb.append(",\"loyaltyPoints\":").append(member.getLoyaltyPoints());
+
+        if (member instanceof RegularMember) {
+            RegularMember regularMember = (RegularMember) member;
+            sb.append(",\"type\":\"REGULAR\"");
+            sb.append(",\"plan\":").append(quote(regularMember.getPlan()));
+            sb.append(",\"price\":").append(regularMember.getPrice());
+            sb.append(",\"eligibleForUpgrade\":").append(regularMember.isEligibleForUpgrade());
+        } else if (member instanceof PremiumMember) {
+            PremiumMember premiumMember = (PremiumMember) member;
+            sb.append(",\"type\":\"PREMIUM\"");
+            sb.append(",\"personalTrainer\":").append(quote(premiumMember.getPersonalTrainer()));
+            sb.append(",\"paidAmount\":").append(premiumMember.getPaidAmount());
+            sb.append(",\"fullPayment\":").append(premiumMember.isFullPayment());
+        }
+        return sb.append("}").toString();
+    }
+
+    /**
+     * Quotes and escapes a JSON string
+     */
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Parses a URL query string into a map
+     */
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> values = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return values;
+        }
+
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            try {
+                if (equals > 0) {
+                    values.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+                            URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+                }
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return values;
+    }
+}
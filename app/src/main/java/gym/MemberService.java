@@ -0,0 +1,922 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MemberService class contains the member operations used by the GUI
+ * and by any other client such as kiosks or batch jobs.
+ * It validates input, applies the change to the member, journals it and
+ * reports the outcome as a MemberResult. It never shows dialogs and all
+ * public methods are safe to call from multiple threads.
+ * Changes are written to the member store by a background PersistenceWriter.
+ *
+ * Changes to one member hold the shared members lock and that member's
+ * striped lock, so different members can be changed in parallel while
+ * check-then-act steps such as payments never interleave for the same member.
+ * Adding and removing members, loading and snapshots hold the members lock
+ * exclusively. Members returned by the service must only be changed through it.
+ */
+public class MemberService {
+    // Members kept in memory
+    private final MemberRepository members;
+
+    // Number of per-member locks
+    private static final int LOCK_STRIPES = 256;
+
+    // Shared by changes to single members, exclusive when members are added, removed or captured
+    private final ReentrantReadWriteLock membersLock;
+    private final StripedLocks memberLocks;
+
+    // Index for searching members by ID, name, phone and email
+    private final MemberSearchIndex searchIndex;
+
+    // Index for finding members by start date, birthday and renewal date
+    private final MemberDateIndex dateIndex;
+
+    // Members inside each location, updated on check-in and check-out
+    private final OccupancyTracker occupancy;
+
+    // Running revenue totals, rebuilt on load and updated with every change that affects them
+    private volatile MemberAnalytics analytics;
+
+    // Where members are kept between runs
+    private final MemberStore store;
+    private final File attendanceFile;
+    private volatile PersistenceWriter writer;
+
+    // Log of every visit, opened on load, null if visits are not logged
+    private volatile AttendanceLog attendanceLog;
+    private PersistenceWriter.ErrorListener errorListener;
+
+    /**
+     * A change applied to a single member while its lock is held
+     */
+    private interface MemberChange {
+        /**
+         * Applies the change
+         * @param member the member, never null
+         * @return the outcome
+         */
+        MemberResult apply(GymMember member);
+    }
+
+    /**
+     * Reads the fields of a single member while its lock is held, so no change
+     * to the member is seen half done
+     */
+    public interface MemberReader<T> {
+        /**
+         * Reads the member
+         * @param member the member, never null
+         * @return what was read
+         */
+        T read(GymMember member);
+    }
+
+    /**
+     * Constructor for MemberService
+     * @param snapshotFile the binary snapshot loaded at startup
+     * @param dataFile the text data file used for import and export
+     * @param journalFile the journal of changes since the last snapshot
+     */
+    public MemberService(File snapshotFile, File dataFile, File journalFile) {
+        this(snapshotFile, dataFile, journalFile, null);
+    }
+
+    /**
+     * Constructor for MemberService
+     * @param snapshotFile the binary snapshot loaded at startup
+     * @param dataFile the text data file used for import and export
+     * @param journalFile the journal of changes since the last snapshot
+     * @param attendanceFile the log of every visit, or null to not log visits
+     */
+    public MemberService(File snapshotFile, File dataFile, File journalFile, File attendanceFile) {
+        this(new FileMemberStore(snapshotFile, dataFile, journalFile), attendanceFile);
+    }
+
+    /**
+     * Constructor for MemberService
+     * @param store where members are kept between runs, such as a FileMemberStore or JdbcMemberStore
+     * @param attendanceFile the log of every visit, or null to not log visits
+     */
+    public MemberService(MemberStore store, File attendanceFile) {
+        this.members = new MemberRepository();
+        this.membersLock = new ReentrantReadWriteLock();
+        this.memberLocks = new StripedLocks(LOCK_STRIPES);
+        this.searchIndex = new MemberSearchIndex();
+        this.dateIndex = new MemberDateIndex();
+        this.occupancy = new OccupancyTracker(OccupancyTracker.UNLIMITED);
+        this.analytics = new MemberAnalytics();
+        this.store = store;
+        this.attendanceFile = attendanceFile;
+    }
+
+    /**
+     * Loads members from the member store, such as the binary snapshot with the
+     * journal replayed on top of it
+     * @return the number of loaded members
+     * @throws IOException if a file cannot be read
+     */
+    public int load() throws IOException {
+        return load(null);
+    }
+
+    /**
+     * Loads members from the member store, such as the binary snapshot with the
+     * journal replayed on top of it. Starts the background writer once the members are loaded.
+     * @param listener receives the load progress, may be null
+     * @return the number of loaded members
+     * @throws IOException if a file cannot be read
+     */
+    public int load(ProgressListener listener) throws IOException {
+        membersLock.writeLock().lock();
+        try {
+            return loadMembers(listener);
+        } finally {
+            membersLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the members, called while holding the members lock exclusively
+     */
+    private int loadMembers(ProgressListener listener) throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("Members are already loaded");
+        }
+
+        store.load(members, listener);
+        members.refreshAll();
+        searchIndex.clear();
+        dateIndex.clear();
+        for (GymMember member : members) {
+            searchIndex.add(member);
+            dateIndex.add(member);
+        }
+        analytics = MemberAnalytics.scan(members);
+
+        if (attendanceFile != null && attendanceLog == null) {
+            attendanceLog = AttendanceLog.open(attendanceFile);
+        }
+
+        PersistenceWriter newWriter = new PersistenceWriter(membersLock.writeLock(), members, store, attendanceLog);
+        synchronized (this) {
+            newWriter.setErrorListener(errorListener);
+            writer = newWriter;
+        }
+        newWriter.start();
+        return members.size();
+    }
+
+    /**
+     * Saves all members with a full save of the member store, such as a new binary
+     * snapshot, text data file and journal. Waits until the members are written.
+     * @throws IOException if a file cannot be written
+     */
+    public void save() throws IOException {
+        PersistenceWriter currentWriter = writer;
+        if (currentWriter == null) {
+            throw new IOException("Members have not been loaded");
+        }
+
+        // Must not hold the members lock while waiting, the writer needs it to take the snapshot
+        try {
+            currentWriter.requestSnapshot(true).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving members", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+
+        AttendanceLog log = attendanceLog;
+        if (log != null) {
+            log.sync();
+        }
+    }
+
+    /**
+     * Writes all pending changes and stops the background writer
+     */
+    public void close() {
+        PersistenceWriter currentWriter = writer;
+        if (currentWriter != null) {
+            currentWriter.close();
+        }
+
+        AttendanceLog log = attendanceLog;
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return the log of every visit, or null if visits are not logged or members are not loaded
+     */
+    public AttendanceLog getAttendanceLog() {
+        return attendanceLog;
+    }
+
+    /**
+     * Sets the listener for errors that happen while writing changes in the background
+     * @param errorListener the listener
+     */
+    public synchronized void setPersistenceErrorListener(PersistenceWriter.ErrorListener errorListener) {
+        this.errorListener = errorListener;
+        if (writer != null) {
+            writer.setErrorListener(errorListener);
+        }
+    }
+
+    /**
+     * Finds a member by their ID
+     * @param id the ID to search for
+     * @return the member, or null if not found
+     */
+    public GymMember findMember(String id) {
+        membersLock.readLock().lock();
+        try {
+            return members.findById(id);
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a member while holding its lock, so fields changed together, such as the
+     * paid amount and full payment flag, are read together
+     * @param id the member ID
+     * @param reader reads the member
+     * @return what the reader returned, or null if there is no member with that ID
+     */
+    public <T> T readMember(String id, MemberReader<T> reader) {
+        membersLock.readLock().lock();
+        try {
+            ReentrantLock lock = memberLocks.get(id);
+            lock.lock();
+            try {
+                GymMember member = members.findById(id);
+                return member == null ? null : reader.read(member);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of members
+     */
+    public int size() {
+        membersLock.readLock().lock();
+        try {
+            return members.size();
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the member in a repository slot, for views that page through
+     * the members without copying them. Slots change when members are removed.
+     * @param slot the slot between 0 and size() - 1
+     * @return the member, or null if the slot no longer exists
+     */
+    public GymMember getMemberAt(int slot) {
+        membersLock.readLock().lock();
+        try {
+            return slot < members.size() ? members.get(slot) : null;
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return a count that changes whenever members are added or removed
+     */
+    public int getModificationCount() {
+        membersLock.readLock().lock();
+        try {
+            return members.getModificationCount();
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds members by the start of their ID, a name, phone number or email.
+     * Does not wait for changes to other members, so it can be called while typing.
+     * @param query the text to search for, case is ignored
+     * @param limit the maximum number of members to return
+     * @return the first matching members
+     */
+    public List<GymMember> searchMembers(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Finds the members who started between two dates, such as a monthly cohort
+     * @param from the first start date
+     * @param to the last start date, inclusive
+     * @return the members in start date order
+     */
+    public List<GymMember> findStartedBetween(LocalDate from, LocalDate to) {
+        return dateIndex.findStartedBetween(from, to);
+    }
+
+    /**
+     * Finds the members with a birthday between two dates, such as this week
+     * @param from the first day
+     * @param to the last day, inclusive, less than a year after from
+     * @return the members in birthday order
+     */
+    public List<GymMember> findBirthdays(LocalDate from, LocalDate to) {
+        return dateIndex.findBirthdaysBetween(from, to);
+    }
+
+    /**
+     * Finds the members whose yearly membership renewal falls between two dates
+     * @param from the first day
+     * @param to the last day, inclusive, less than a year after from
+     * @return the members in renewal order
+     */
+    public List<GymMember> findRenewalsDue(LocalDate from, LocalDate to) {
+        return dateIndex.findRenewalsDue(from, to);
+    }
+
+    /**
+     * Reports revenue, outstanding balances, discounts and the plan mix
+     * from running totals, without scanning the members
+     * @param grouping how to group the members
+     * @return the report
+     */
+    public RevenueReport getRevenueReport(MemberAnalytics.Grouping grouping) {
+        return analytics.report(grouping);
+    }
+
+    /**
+     * Finds the active premium members who have not paid the full premium charge,
+     * scanning the member columns rather than the members
+     * @return the members in slot order
+     */
+    public List<GymMember> findActivePremiumWithDues() {
+        membersLock.readLock().lock();
+        try {
+            int[] slots = members.getColumns().findActivePremiumWithDues();
+            List<GymMember> found = new ArrayList<>(slots.length);
+            for (int slot : slots) {
+                found.add(members.get(slot));
+            }
+            return found;
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return a copy of all members
+     */
+    public List<GymMember> listMembers() {
+        membersLock.readLock().lock();
+        try {
+            List<GymMember> copy = new ArrayList<>(members.size());
+            for (GymMember member : members) {
+                copy.add(member);
+            }
+            return copy;
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a new member
+     * @param member the member to add
+     * @return the outcome
+     */
+    public MemberResult addMember(GymMember member) {
+        MemberResult invalid = validateNewMember(member);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        membersLock.writeLock().lock();
+        try {
+            if (!members.add(member)) {
+                return duplicateId();
+            }
+            searchIndex.add(member);
+            dateIndex.add(member);
+            analytics.add(member);
+
+            return record(MemberJournal.ADD, member, MemberRecordFormat.format(member), addedMessage(member));
+        } finally {
+            membersLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of new members, such as records from a bulk import.
+     * Each member is validated like addMember, and the accepted members
+     * are added under one lock and journalled with a single fsync.
+     * @param batch the members to add
+     * @return the outcome for each member, in the same order
+     */
+    public List<MemberResult> addMembers(List<GymMember> batch) {
+        List<MemberResult> results = new ArrayList<>(batch.size());
+        List<String[]> events = new ArrayList<>();
+
+        membersLock.writeLock().lock();
+        try {
+            PersistenceWriter currentWriter = writer;
+            for (GymMember member : batch) {
+                MemberResult invalid = validateNewMember(member);
+                if (invalid != null) {
+                    results.add(invalid);
+                } else if (!members.add(member)) {
+                    results.add(duplicateId());
+                } else {
+                    searchIndex.add(member);
+                    dateIndex.add(member);
+                    analytics.add(member);
+                    events.add(new String[] {MemberJournal.ADD, member.getId(), MemberRecordFormat.format(member)});
+                    results.add(currentWriter == null
+                            ? new MemberResult(MemberResult.Status.STORAGE_ERROR, addedMessage(member) +
+                                    "\nWarning: the change could not be saved: members have not been loaded", member)
+                            : MemberResult.success(addedMessage(member), member));
+                }
+            }
+
+            if (currentWriter != null) {
+                currentWriter.appendAll(events);
+            }
+        } finally {
+            membersLock.writeLock().unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Activates the membership of a member
+     * @param id the member ID
+     * @return the outcome
+     */
+    public MemberResult activateMembership(final String id) {
+        return change(id, new MemberChange() {
+            @Override
+            public MemberResult apply(GymMember member) {
+                if (member.isActive()) {
+                    return new MemberResult(MemberResult.Status.ALREADY_ACTIVE, "The user is already activated.", member);
+                }
+
+                MemberAnalytics.Contribution before = MemberAnalytics.capture(member);
+                member.activateMembership();
+                analytics.replace(before, member);
+                return record(MemberJournal.ACTIVATE, member, "", "Membership activated successfully for ID: " + id);
+            }
+        });
+    }
+
+    /**
+     * Deactivates the membership of a member
+     * @param id the member ID
+     * @return the outcome
+     */
+    public MemberResult deactivateMembership(final String id) {
+        return change(id, new MemberChange() {
+            @Override
+            public MemberResult apply(GymMember member) {
+                if (!member.isActive()) {
+                    return new MemberResult(MemberResult.Status.ALREADY_INACTIVE,
+                            "The user is already deactivated.", member);
+                }
+
+                MemberAnalytics.Contribution before = MemberAnalytics.capture(member);
+                member.deactivateMembership();
+                analytics.replace(before, member);
+                return record(MemberJournal.DEACTIVATE, member, "", "Membership deactivated successfully for ID: " + id);
+            }
+        });
+    }
+
+    /**
+     * Marks attendance for an active member and checks the member in to the
+     * member's location. A member who checks in again without checking out
+     * is counted once in the occupancy.
+     * @param id the member ID
+     * @return the outcome, LOCATION_FULL if the location is at capacity
+     */
+    public MemberResult markAttendance(final String id) {
+        return change(id, new MemberChange() {
+            @Override
+            public MemberResult apply(GymMember member) {
+                if (!member.isActive()) {
+                    return new MemberResult(MemberResult.Status.INACTIVE,
+                            "Cannot mark attendance: Member is not active!", member);
+                }
+                if (occupancy.checkIn(id, member.getLocation()) == OccupancyTracker.Outcome.FULL) {
+                    return new MemberResult(MemberResult.Status.LOCATION_FULL,
+                            "Cannot mark attendance: " + member.getLocation() + " is full!", member);
+                }
+
+                member.markAttendance();
+                logVisit(member);
+                return record(MemberJournal.ATTENDANCE, member, "", "Attendance marked successfully for ID: " + id);
+            }
+        });
+    }
+
+    /**
+     * Marks attendance for a batch of members, such as a burst of turnstile card swipes.
+     * All IDs are processed in one pass and the changes are queued for the writer thread,
+     * which writes the events queued while it is busy with a single fsync.
+     * @param ids the member IDs in the order they were scanned
+     * @return the outcome for each ID
+     */
+    public BatchCheckInResult checkInBatch(Iterable<String> ids) {
+        BatchCheckInResult result = new BatchCheckInResult(16);
+
+        membersLock.readLock().lock();
+        try {
+            PersistenceWriter currentWriter = writer;
+            for (String id : ids) {
+                String trimmed = id == null ? "" : id.trim();
+                if (validateId(trimmed) != null) {
+                    result.add(trimmed, BatchCheckInResult.Outcome.INVALID_ID);
+                    continue;
+                }
+
+                // Only one member lock is held at a time, so batches cannot deadlock each other
+                ReentrantLock lock = memberLocks.get(trimmed);
+                lock.lock();
+                try {
+                    GymMember member = members.findById(trimmed);
+                    if (member == null) {
+                        result.add(trimmed, BatchCheckInResult.Outcome.UNKNOWN);
+                    } else if (!member.isActive()) {
+                        result.add(trimmed, BatchCheckInResult.Outcome.INACTIVE);
+                    } else if (occupancy.checkIn(trimmed, member.getLocation()) == OccupancyTracker.Outcome.FULL) {
+                        result.add(trimmed, BatchCheckInResult.Outcome.LOCATION_FULL);
+                    } else {
+                        member.markAttendance();
+                        members.refresh(member);
+                        logVisit(member);
+                        // Queued under the member lock, so a later change to the member is journaled after it
+                        if (currentWriter != null) {
+                            currentWriter.append(MemberJournal.ATTENDANCE, trimmed, "");
+                        }
+                        result.add(trimmed, BatchCheckInResult.Outcome.CHECKED_IN);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            membersLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Checks a member out of the location the member checked in to
+     * @param id the member ID
+     * @return the outcome, NOT_CHECKED_IN if the member is not inside
+     */
+    public MemberResult checkOut(final String id) {
+        return change(id, new MemberChange() {
+            @Override
+            public MemberResult apply(GymMember member) {
+                String location = occupancy.checkOut(id);
+                if (location == null) {
+                    return new MemberResult(MemberResult.Status.NOT_CHECKED_IN,
+                            "Cannot check out: Member is not checked in!", member);
+                }
+                return MemberResult.success("Checked out ID: " + id + " from " + location, member);
+            }
+        });
+    }
+
+    /**
+     * @return the live occupancy of each location, where capacities can also be set
+     */
+    public OccupancyTracker getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Upgrades the plan of an active regular member
+     * @param id the member ID
+     * @param newPlan the plan to upgrade to
+     * @return the outcome
+     */
+    public MemberResult upgradePlan(final String id, final String newPlan) {
+        return change(id, new MemberChange() {
+            @Override
+            public MemberResult apply(GymMember member) {
+                if (!(member instanceof RegularMember)) {
+                    return new MemberResult(MemberResult.Status.WRONG_MEMBER_TYPE,
+                            "Member with ID " + id + " is not a Regular Member!", member);
+                }
+
+                RegularMember regularMember = (RegularMember) member;
+                if (!regularMember.isActive()) {
+                    return new MemberResult(MemberResult.Status.INACTIVE,
+                            "Cannot upgrade plan: Member is not active!", member);
+                }
+
+                // Same checks as RegularMember.upgradePlan, reported as statuses
+                if (!regularMember.isEligibleForUpgrade()
+                        && regularMember.getAttendance() < regularMember.getAttendanceLimit()) {
+                    return new MemberResult(MemberResult.Status.NOT_ELIGIBLE,
+                            regularMember.upgradePlan(newPlan), member);
+                }
+                if (regularMember.getPlan().equalsIgnoreCase(newPlan)) {
+                    return new MemberResult(MemberResult.Status.SAME_PLAN,
+                            "Member is already subscribed to " + regularMember.getPlan() + " plan.", member);
+                }
+                if (newPlan == null || regularMember.getPlanPrice(newPlan) == -1) {
+                    return new MemberResult(MemberResult.Status.INVALID_PLAN,
+                            "Invalid plan selected. Available plans: Basic, Standard, Deluxe", member);
+                }
+
+                MemberAnalytics.Contribution before = MemberAnalytics.capture(member);
+                String message = regularMember.upgradePlan(newPlan);
+                analytics.replace(before, member);
+                return record(MemberJournal.UPGRADE, member, newPlan, message);
+            }
+        });
+    }
+
+    /**
+     * Calculates the discount of a premium member
+     * @param id the member ID
+     * @return the outcome
+     */
+    public MemberResult calculateDiscount(final String id) {
+        return change(id, new MemberChange() {
+            @Override
+            public MemberResult apply(GymMember member) {
+                if (!(member instanceof PremiumMember)) {
+                    return new MemberResult(MemberResult.Status.WRONG_MEMBER_TYPE,
+                            "Member with ID " + id + " is not a Premium Member!", member);
+                }
+
+                PremiumMember premiumMember = (PremiumMember) member;
+                if (!premiumMember.isFullPayment()) {
+                    return new MemberResult(MemberResult.Status.NO_DISCOUNT,
+                            premiumMember.calculateDiscount(), member);
+                }
+
+                MemberAnalytics.Contribution before = MemberAnalytics.capture(member);
+                String message = premiumMember.calculateDiscount();
+                analytics.replace(before, member);
+                return record(MemberJournal.DISCOUNT, member, "", message);
+            }
+        });
+    }
+
+    /**
+     * Pays part of the due amount of a premium member
+     * @param id the member ID
+     * @param amount the amount to pay
+     * @return the outcome
+     */
+    public MemberResult payDueAmount(final String id, final double amount) {
+        if (amount <= 0 || Double.isNaN(amount) || Double.isInfinite(amount)) {
+            MemberResult invalid = validateId(id);
+            return invalid != null ? invalid : MemberResult.failure(MemberResult.Status.INVALID_INPUT,
+                    "Paid Amount must be greater than zero!");
+        }
+
+        return change(id, new MemberChange() {
+            @Override
+            public MemberResult apply(GymMember member) {
+                if (!(member instanceof PremiumMember)) {
+                    return new MemberResult(MemberResult.Status.WRONG_MEMBER_TYPE,
+                            "Member with ID " + id + " is not a Premium Member!", member);
+                }
+
+                // Same checks as PremiumMember.payDueAmount, reported as statuses.
+                // The member lock keeps the check and the payment together.
+                PremiumMember premiumMember = (PremiumMember) member;
+                if (premiumMember.isFullPayment()) {
+                    return new MemberResult(MemberResult.Status.ALREADY_PAID,
+                            premiumMember.payDueAmount(amount), member);
+                }
+                if (premiumMember.getPaidAmount() + amount > premiumMember.getPremiumCharge()) {
+                    return new MemberResult(MemberResult.Status.EXCEEDS_CHARGE,
+                            premiumMember.payDueAmount(amount), member);
+                }
+
+                MemberAnalytics.Contribution before = MemberAnalytics.capture(member);
+                String message = premiumMember.payDueAmount(amount);
+                analytics.replace(before, member);
+                return record(MemberJournal.PAYMENT, member, String.valueOf(amount), message);
+            }
+        });
+    }
+
+    /**
+     * Reverts and removes a regular member
+     * @param id the member ID
+     * @param removalReason the reason for removal
+     * @return the outcome
+     */
+    public MemberResult revertRegularMember(String id, String removalReason) {
+        return revertMember(id, removalReason, true);
+    }
+
+    /**
+     * Reverts and removes a premium member
+     * @param id the member ID
+     * @param removalReason the reason for removal
+     * @return the outcome
+     */
+    public MemberResult revertPremiumMember(String id, String removalReason) {
+        return revertMember(id, removalReason, false);
+    }
+
+    /**
+     * Reverts and removes a member of the expected type
+     */
+    private MemberResult revertMember(String id, String removalReason, boolean regular) {
+        MemberResult invalid = validateId(id);
+        if (invalid != null) {
+            return invalid;
+        }
+        if (removalReason == null || removalReason.trim().isEmpty()) {
+            return MemberResult.failure(MemberResult.Status.INVALID_INPUT, "Please enter a removal reason!");
+        }
+
+        String type = regular ? "Regular" : "Premium";
+        membersLock.writeLock().lock();
+        try {
+            GymMember member = members.findById(id);
+            if (regular ? !(member instanceof RegularMember) : !(member instanceof PremiumMember)) {
+                return MemberResult.failure(MemberResult.Status.NOT_FOUND,
+                        type + " Member with ID " + id + " not found!");
+            }
+
+            searchIndex.remove(member);
+            dateIndex.remove(member);
+            analytics.remove(member);
+            occupancy.checkOut(id);
+            if (regular) {
+                ((RegularMember) member).revertRegularMember(removalReason);
+            } else {
+                ((PremiumMember) member).revertPremiumMember(removalReason);
+            }
+            members.remove(id);
+
+            return record(MemberJournal.REVERT, member, removalReason,
+                    type + " Member with ID " + id + " has been removed.");
+        } finally {
+            membersLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Validates an ID and applies a change to the member while holding its lock
+     * @return the outcome of the change, or a failed result if the ID is invalid or unknown
+     */
+    private MemberResult change(String id, MemberChange change) {
+        MemberResult invalid = validateId(id);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        membersLock.readLock().lock();
+        try {
+            ReentrantLock lock = memberLocks.get(id);
+            lock.lock();
+            try {
+                GymMember member = members.findById(id);
+                if (member == null) {
+                    return notFound(id);
+                }
+
+                MemberResult result = change.apply(member);
+                members.refresh(member);
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            membersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks the fields of a member that is about to be added
+     * @return a failed result, or null if the member is valid
+     */
+    private MemberResult validateNewMember(GymMember member) {
+        MemberResult invalid = validateId(member.getId());
+        if (invalid != null) {
+            return invalid;
+        }
+        if (member.getName() == null || member.getName().trim().isEmpty()) {
+            return MemberResult.failure(MemberResult.Status.INVALID_INPUT, "Name is required!");
+        }
+        if (member.getPaidAmount() < 0) {
+            return MemberResult.failure(MemberResult.Status.INVALID_INPUT, "Paid Amount cannot be negative!");
+        }
+        if (member instanceof RegularMember && ((RegularMember) member).getPrice() == -1) {
+            return MemberResult.failure(MemberResult.Status.INVALID_PLAN,
+                    "Invalid plan selected. Available plans: Basic, Standard, Deluxe");
+        }
+        if (member instanceof PremiumMember) {
+            String trainer = ((PremiumMember) member).getPersonalTrainer();
+            if (trainer == null || trainer.trim().isEmpty()) {
+                return MemberResult.failure(MemberResult.Status.INVALID_INPUT,
+                        "Trainer's Name is required for Premium Members!");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the result for an ID that is already taken
+     */
+    private MemberResult duplicateId() {
+        return MemberResult.failure(MemberResult.Status.DUPLICATE_ID,
+                "Member ID already exists. Each member must have a unique ID.");
+    }
+
+    /**
+     * Creates the message for a member that was added
+     */
+    private String addedMessage(GymMember member) {
+        return (member instanceof PremiumMember ? "Premium" : "Regular") + " Member added successfully!";
+    }
+
+    /**
+     * Checks that an ID is present and a number without leading zeros, as the
+     * attendance log stores it as a number
+     * @return a failed result, or null if the ID is valid
+     */
+    private MemberResult validateId(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return MemberResult.failure(MemberResult.Status.INVALID_INPUT, "Member ID is required!");
+        }
+
+        try {
+            Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            return MemberResult.failure(MemberResult.Status.INVALID_INPUT, "Member ID must contain only numbers!");
+        }
+        try {
+            AttendanceLog.parseMemberId(id);
+        } catch (NumberFormatException e) {
+            return MemberResult.failure(MemberResult.Status.INVALID_INPUT,
+                    "Member ID cannot start with zero or a plus sign!");
+        }
+        return null;
+    }
+
+    /**
+     * Creates the result for an unknown member
+     */
+    private MemberResult notFound(String id) {
+        return MemberResult.failure(MemberResult.Status.NOT_FOUND, "Member with ID " + id + " not found!");
+    }
+
+    /**
+     * Adds a visit to the attendance log, if visits are logged. The visit is only
+     * buffered, the writer thread writes it with the journal events.
+     */
+    private void logVisit(GymMember member) {
+        AttendanceLog log = attendanceLog;
+        if (log != null) {
+            log.record(member.getId(), member.getLocation(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Queues a change that was applied in memory for the journal
+     * @return a successful result, or a storage error if members were never loaded
+     */
+    private MemberResult record(String type, GymMember member, String argument, String message) {
+        PersistenceWriter currentWriter = writer;
+        if (currentWriter == null) {
+            return new MemberResult(MemberResult.Status.STORAGE_ERROR,
+                    message + "\nWarning: the change could not be saved: members have not been loaded", member);
+        }
+
+        currentWriter.append(type, member.getId(), argument);
+        return MemberResult.success(message, member);
+    }
+}
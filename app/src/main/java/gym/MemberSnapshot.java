@@ -0,0 +1,436 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * MemberSnapshot class reads and writes the binary member snapshot.
+ *
+ * The file holds a header, a string table and one fixed-width record per member.
+ * Records refer to strings by their index in the table, so repeated values such as
+ * locations, plans and trainers are stored once, and each string of the table is
+ * decoded once however many members refer to it.
+ *
+ * Loading is not lazy: FileMemberStore decodes every member at startup, because the
+ * repository, the search and date indexes and the analytics need every member anyway,
+ * and opening checks every record up front so the members can be counted and indexed
+ * without the damaged ones. The file is therefore read into the heap in one go rather
+ * than memory-mapped, which would save no copying when every byte is read at once and
+ * would keep the file mapped until the snapshot is collected.
+ *
+ * The header, the string table and every record carry a CRC32 checksum. A damaged
+ * header or string table makes the whole file unreadable, while damaged records are
+ * skipped so the other members still load. Version 1 files without checksums are
+ * still read. Files are replaced atomically with rolling backups (see AtomicFiles).
+ */
+public class MemberSnapshot extends AbstractList<GymMember> {
+    // File identification
+    private static final int MAGIC = 0x47594D53; // "GYMS"
+    private static final int VERSION = 2;
+
+    // Version without checksums
+    private static final int UNCHECKED_VERSION = 1;
+
+    // Header: magic, version, generation, string count, record count, records offset,
+    // then the checksums of the string table and of the header itself
+    private static final int UNCHECKED_HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 8;
+    private static final int HEADER_SIZE = UNCHECKED_HEADER_SIZE + 4 + 4;
+
+    // Record: 4 flag bytes, 11 string references, attendance, 3 amounts, then its checksum
+    private static final int STRING_FIELDS = 11;
+    private static final int RECORD_SIZE = 4 + STRING_FIELDS * 4 + 4 + 3 * 8;
+    private static final int CHECKED_RECORD_SIZE = RECORD_SIZE + 4;
+
+    // Member type codes
+    private static final byte TYPE_REGULAR = 1;
+    private static final byte TYPE_PREMIUM = 2;
+
+    private final ByteBuffer buffer;
+    private final long generation;
+    private final int stringCount;
+    private final int recordCount;
+    private final int recordsOffset;
+    private final int headerSize;
+    private final int recordStride;
+
+    // Records whose checksum matched, or null if all did
+    private final int[] validRecords;
+
+    // Strings and members decoded so far
+    private final String[] strings;
+    private final GymMember[] decoded;
+
+    private MemberSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.capacity() < UNCHECKED_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a member snapshot file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION && version != UNCHECKED_VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+
+        boolean checked = version == VERSION;
+        this.headerSize = checked ? HEADER_SIZE : UNCHECKED_HEADER_SIZE;
+        this.recordStride = checked ? CHECKED_RECORD_SIZE : RECORD_SIZE;
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        if (checked && (buffer.capacity() < HEADER_SIZE
+                || checksum(crc, view, 0, HEADER_SIZE - 4) != buffer.getInt(HEADER_SIZE - 4))) {
+            throw new IOException("Snapshot header is corrupted");
+        }
+
+        this.generation = buffer.getLong(8);
+        this.stringCount = buffer.getInt(16);
+        this.recordCount = buffer.getInt(20);
+        this.recordsOffset = (int) buffer.getLong(24);
+        this.strings = new String[stringCount];
+        this.decoded = new GymMember[recordCount];
+
+        if ((long) recordsOffset + (long) recordCount * recordStride > buffer.capacity()) {
+            throw new IOException("Snapshot file is truncated");
+        }
+
+        if (checked) {
+            if (checksum(crc, view, headerSize, recordsOffset - headerSize) != buffer.getInt(UNCHECKED_HEADER_SIZE)) {
+                throw new IOException("Snapshot string table is corrupted");
+            }
+            this.validRecords = checkRecords(crc, view);
+        } else {
+            this.validRecords = null;
+        }
+    }
+
+    /**
+     * Finds the records whose checksum matches
+     * @return the valid record indexes, or null if every record is valid
+     */
+    private int[] checkRecords(CRC32 crc, ByteBuffer view) {
+        int[] valid = new int[recordCount];
+        int count = 0;
+        for (int i = 0; i < recordCount; i++) {
+            int offset = recordsOffset + i * recordStride;
+            if (checksum(crc, view, offset, RECORD_SIZE) == buffer.getInt(offset + RECORD_SIZE)) {
+                valid[count++] = i;
+            }
+        }
+
+        if (count == recordCount) {
+            return null;
+        }
+        System.out.println("Skipped " + (recordCount - count) + " corrupted records in the snapshot");
+        return Arrays.copyOf(valid, count);
+    }
+
+    /**
+     * Computes the CRC32 of a range of a buffer
+     * @param view a duplicate of the buffer whose position and limit may be changed
+     */
+    private static int checksum(CRC32 crc, ByteBuffer view, int offset, int length) {
+        crc.reset();
+        view.clear();
+        view.position(offset);
+        view.limit(offset + length);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Opens a snapshot file by reading the whole file
+     * @param file the snapshot file
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static MemberSnapshot open(File file) throws IOException {
+        return new MemberSnapshot(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+    }
+
+    /**
+     * Reads a snapshot from encoded contents, such as a segment of MemberDeltaLog
+     * @param contents the contents returned by encode, from the position to the limit
+     * @return the snapshot
+     * @throws IOException if the contents are not a snapshot
+     */
+    public static MemberSnapshot decode(ByteBuffer contents) throws IOException {
+        return new MemberSnapshot(contents.slice());
+    }
+
+    /**
+     * @return the journal generation contained in this snapshot
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the number of members, not counting corrupted records
+     */
+    @Override
+    public int size() {
+        return validRecords == null ? recordCount : validRecords.length;
+    }
+
+    /**
+     * Returns the member in the given record, decoding it on first access
+     * @param index the member index, not counting corrupted records
+     * @return the member
+     */
+    @Override
+    public GymMember get(int index) {
+        int record = record(index);
+        GymMember member = decoded[record];
+        if (member == null) {
+            member = decode(recordsOffset + record * recordStride);
+            decoded[record] = member;
+        }
+        return member;
+    }
+
+    /**
+     * Reads the ID of a record without decoding the whole member
+     * @param index the member index, not counting corrupted records
+     * @return the member ID
+     */
+    public String getId(int index) {
+        return string(buffer.getInt(recordsOffset + record(index) * recordStride + 4));
+    }
+
+    /**
+     * Returns the record of a member, skipping corrupted records
+     */
+    private int record(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Member " + index + " of " + size());
+        }
+        return validRecords == null ? index : validRecords[index];
+    }
+
+    /**
+     * Writes all members to a snapshot file
+     * @param file the snapshot file
+     * @param members the members to write
+     * @param generation the journal generation contained in the snapshot
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, Iterable<GymMember> members, long generation) throws IOException {
+        write(file, encode(members, generation));
+    }
+
+    /**
+     * Encodes all members into the snapshot file contents.
+     * The members must not change while they are being encoded.
+     * @param members the members to encode
+     * @param generation the journal generation contained in the snapshot
+     * @return the file contents, ready to be written
+     * @throws IOException if there are too many members for one snapshot
+     */
+    public static ByteBuffer encode(Iterable<GymMember> members, long generation) throws IOException {
+        // Build the string table
+        HashMap<String, Integer> stringIndex = new HashMap<>();
+        ArrayList<byte[]> stringBytes = new ArrayList<>();
+        ArrayList<GymMember> records = new ArrayList<>();
+        int stringTableSize = 0;
+
+        for (GymMember member : members) {
+            if (!(member instanceof RegularMember) && !(member instanceof PremiumMember)) {
+                continue;
+            }
+            records.add(member);
+            for (String value : stringFields(member)) {
+                if (!stringIndex.containsKey(value)) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    stringIndex.put(value, stringBytes.size());
+                    stringBytes.add(bytes);
+                    stringTableSize += 4 + bytes.length;
+                }
+            }
+        }
+
+        // Offsets of each string follow the header, then the string data, then the records
+        int offsetsStart = HEADER_SIZE;
+        int stringsStart = offsetsStart + stringBytes.size() * 4;
+        int recordsStart = stringsStart + stringTableSize;
+        long fileSize = (long) recordsStart + (long) records.size() * CHECKED_RECORD_SIZE;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Too many members for a single snapshot");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) fileSize);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putLong(generation);
+        out.putInt(stringBytes.size());
+        out.putInt(records.size());
+        out.putLong(recordsStart);
+        out.putInt(0);
+        out.putInt(0);
+
+        int stringOffset = stringsStart;
+        for (byte[] bytes : stringBytes) {
+            out.putInt(stringOffset);
+            stringOffset += 4 + bytes.length;
+        }
+        for (byte[] bytes : stringBytes) {
+            out.putInt(bytes.length);
+            out.put(bytes);
+        }
+
+        CRC32 crc = new CRC32();
+        for (GymMember member : records) {
+            int start = out.position();
+            encode(out, member, stringIndex);
+            crc.reset();
+            crc.update(out.array(), start, RECORD_SIZE);
+            out.putInt((int) crc.getValue());
+        }
+
+        // Checksums of the string table and the header
+        crc.reset();
+        crc.update(out.array(), offsetsStart, recordsStart - offsetsStart);
+        out.putInt(UNCHECKED_HEADER_SIZE, (int) crc.getValue());
+        crc.reset();
+        crc.update(out.array(), 0, HEADER_SIZE - 4);
+        out.putInt(HEADER_SIZE - 4, (int) crc.getValue());
+
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Writes encoded snapshot contents to a file and forces them to disk.
+     * The file is replaced atomically and its previous versions are kept as backups.
+     * @param file the snapshot file
+     * @param contents the contents returned by encode
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, ByteBuffer contents) throws IOException {
+        AtomicFiles.replace(file, contents, AtomicFiles.DEFAULT_BACKUPS);
+    }
+
+    /**
+     * Returns the string fields of a member in record order
+     */
+    private static String[] stringFields(GymMember member) {
+        String extra = member instanceof RegularMember
+                ? ((RegularMember) member).getPlan()
+                : ((PremiumMember) member).getPersonalTrainer();
+
+        String[] fields = {
+                member.getId(), member.getName(), member.getLocation(), member.getPhone(),
+                member.getEmail(), member.getGender(), member.getDob(),
+                member.getMembershipStartDate(), member.getReferralSource(),
+                member.getRemovalReason(), extra
+        };
+
+        // Missing values are stored as empty strings
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] == null) {
+                fields[i] = "";
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Writes one fixed-width record
+     */
+    private static void encode(ByteBuffer out, GymMember member, HashMap<String, Integer> stringIndex) {
+        boolean regular = member instanceof RegularMember;
+        out.put(regular ? TYPE_REGULAR : TYPE_PREMIUM);
+        out.put((byte) (member.isActive() ? 1 : 0));
+        if (regular) {
+            out.put((byte) (((RegularMember) member).isEligibleForUpgrade() ? 1 : 0));
+        } else {
+            out.put((byte) (((PremiumMember) member).isFullPayment() ? 1 : 0));
+        }
+        out.put((byte) 0);
+
+        for (String value : stringFields(member)) {
+            out.putInt(stringIndex.get(value));
+        }
+
+        out.putInt(member.getAttendance());
+        out.putDouble(member.getLoyaltyPoints());
+        out.putDouble(member.getPaidAmount());
+        if (regular) {
+            out.putDouble(((RegularMember) member).getPrice());
+        } else {
+            out.putDouble(((PremiumMember) member).getDiscountAmount());
+        }
+    }
+
+    /**
+     * Decodes the record at the given file offset
+     */
+    private GymMember decode(int offset) {
+        byte type = buffer.get(offset);
+        boolean active = buffer.get(offset + 1) != 0;
+        boolean flag = buffer.get(offset + 2) != 0;
+
+        String[] fields = new String[STRING_FIELDS];
+        for (int i = 0; i < STRING_FIELDS; i++) {
+            fields[i] = string(buffer.getInt(offset + 4 + i * 4));
+        }
+
+        int numbers = offset + 4 + STRING_FIELDS * 4;
+        int attendance = buffer.getInt(numbers);
+        double loyaltyPoints = buffer.getDouble(numbers + 4);
+        double paidAmount = buffer.getDouble(numbers + 12);
+        double amount = buffer.getDouble(numbers + 20);
+
+        GymMember member;
+        if (type == TYPE_REGULAR) {
+            RegularMember regularMember = new RegularMember(
+                    fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6],
+                    fields[7], fields[8], paidAmount, fields[10]);
+            regularMember.setPlan(fields[10]);
+            regularMember.setPrice(amount);
+            regularMember.setEligibleForUpgrade(flag);
+            member = regularMember;
+        } else {
+            // Restore the paid amount directly instead of replaying it as a payment
+            PremiumMember premiumMember = new PremiumMember(
+                    fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6],
+                    fields[7], fields[8], 0, fields[10]);
+            premiumMember.setPaidAmount(paidAmount);
+            premiumMember.setFullPayment(flag);
+            premiumMember.setDiscountAmount(amount);
+            member = premiumMember;
+        }
+
+        member.setRemovalReason(fields[9]);
+        member.setAttendance(attendance);
+        member.setLoyaltyPoints(loyaltyPoints);
+        member.setActive(active);
+        return member;
+    }
+
+    /**
+     * Returns a string from the table, decoding it on first access
+     */
+    private String string(int index) {
+        String value = strings[index];
+        if (value == null) {
+            int offset = buffer.getInt(headerSize + index * 4);
+            int length = buffer.getInt(offset);
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(offset + 4 + i);
+            }
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,66 @@
+package gym;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * MemberStore interface is where MemberService keeps its members between runs.
+ *
+ * Changes to single members reach the store as journal events (see MemberJournal)
+ * in the order they were made, so a store can write each change on its own instead
+ * of rewriting every member. A full save brings the store up to date with every
+ * member: it is captured while no member can change and written afterwards, so
+ * changes can go on meanwhile. Members changed since the previous full save report
+ * GymMember.isDirty, so a store may write only those and clear their flags.
+ * All methods except load are called from the PersistenceWriter thread only.
+ */
+public interface MemberStore {
+    /**
+     * A full save captured while no member could change
+     */
+    interface Save {
+        /**
+         * Writes the captured members. Changes written to the store after the
+         * capture was taken are kept on top of it.
+         * @throws IOException if the members cannot be written
+         */
+        void write() throws IOException;
+    }
+
+    /**
+     * Loads every member, including the changes written since the last full save
+     * @param members the repository to load into, cleared first
+     * @param listener receives the load progress, may be null
+     * @return the number of loaded members
+     * @throws IOException if the members cannot be read
+     */
+    int load(MemberRepository members, ProgressListener listener) throws IOException;
+
+    /**
+     * Writes changes to single members and makes them durable
+     * @param events the events in the order the changes were made, each holding a type, member ID and argument
+     * @throws IOException if the changes cannot be written
+     */
+    void writeChanges(List<String[]> events) throws IOException;
+
+    /**
+     * @return true if enough changes were written that a full save should follow
+     */
+    boolean needsFullSave();
+
+    /**
+     * Captures every member for a full save. Called while no member can change,
+     * after every change made so far was passed to writeChanges.
+     * @param members all members
+     * @param export true to also export the members to the text data file
+     * @return the save to write once changes may continue
+     * @throws IOException if the members cannot be captured
+     */
+    Save captureAll(Iterable<GymMember> members, boolean export) throws IOException;
+
+    /**
+     * Closes the store after the last change was written
+     * @throws IOException if the store cannot be closed cleanly
+     */
+    void close() throws IOException;
+}
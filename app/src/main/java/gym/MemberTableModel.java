@@ -0,0 +1,143 @@
+package gym;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * MemberTableModel class shows the members of a MemberService in a JTable.
+ * Rows are read from the service only when the table paints or sorts them,
+ * so opening the table does not copy or format every member.
+ */
+public class MemberTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    // Column indexes
+    public static final int ID_COLUMN = 0;
+    public static final int NAME_COLUMN = 1;
+    public static final int TYPE_COLUMN = 2;
+    public static final int LOCATION_COLUMN = 3;
+    public static final int PHONE_COLUMN = 4;
+    public static final int EMAIL_COLUMN = 5;
+    public static final int ACTIVE_COLUMN = 6;
+    public static final int ATTENDANCE_COLUMN = 7;
+    public static final int LOYALTY_COLUMN = 8;
+    public static final int PLAN_COLUMN = 9;
+    public static final int PAID_COLUMN = 10;
+
+    // Values of the type column
+    public static final String REGULAR = "Regular";
+    public static final String PREMIUM = "Premium";
+
+    private static final String[] COLUMN_NAMES = {
+            "ID", "Name", "Type", "Location", "Phone", "Email",
+            "Active", "Attendance", "Loyalty Points", "Plan / Trainer", "Paid Amount"
+    };
+
+    private final MemberService memberService;
+
+    // Row count and member modification count as of the last refresh
+    private int rowCount;
+    private int modificationCount;
+
+    /**
+     * Constructor for MemberTableModel
+     * @param memberService the service holding the members
+     */
+    public MemberTableModel(MemberService memberService) {
+        this.memberService = memberService;
+        this.modificationCount = memberService.getModificationCount();
+        this.rowCount = memberService.size();
+    }
+
+    /**
+     * Updates the rows if members were added or removed, otherwise only
+     * repaints the values. Must be called on the Swing event thread.
+     */
+    public void refresh() {
+        int currentModificationCount = memberService.getModificationCount();
+        if (currentModificationCount != modificationCount) {
+            modificationCount = currentModificationCount;
+            rowCount = memberService.size();
+            fireTableDataChanged();
+        } else if (rowCount > 0) {
+            fireTableRowsUpdated(0, rowCount - 1);
+        }
+    }
+
+    /**
+     * Returns the member shown in a model row
+     * @param row the model row
+     * @return the member, or null if it was removed since the last refresh
+     */
+    public GymMember getMember(int row) {
+        return memberService.getMemberAt(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case ACTIVE_COLUMN:
+                return Boolean.class;
+            case ATTENDANCE_COLUMN:
+                return Integer.class;
+            case LOYALTY_COLUMN:
+            case PAID_COLUMN:
+                return Double.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        GymMember member = memberService.getMemberAt(row);
+        if (member == null) {
+            // Removed since the last refresh, shown empty until the next one
+            return null;
+        }
+
+        switch (column) {
+            case ID_COLUMN:
+                return member.getId();
+            case NAME_COLUMN:
+                return member.getName();
+            case TYPE_COLUMN:
+                return member instanceof PremiumMember ? PREMIUM : REGULAR;
+            case LOCATION_COLUMN:
+                return member.getLocation();
+            case PHONE_COLUMN:
+                return member.getPhone();
+            case EMAIL_COLUMN:
+                return member.getEmail();
+            case ACTIVE_COLUMN:
+                return member.isActive();
+            case ATTENDANCE_COLUMN:
+                return member.getAttendance();
+            case LOYALTY_COLUMN:
+                return member.getLoyaltyPoints();
+            case PLAN_COLUMN:
+                if (member instanceof RegularMember) {
+                    return ((RegularMember) member).getPlan();
+                }
+                return member instanceof PremiumMember ? ((PremiumMember) member).getPersonalTrainer() : null;
+            case PAID_COLUMN:
+                return member.getPaidAmount();
+            default:
+                return null;
+        }
+    }
+}
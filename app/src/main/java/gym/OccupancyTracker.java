@@ -0,0 +1,269 @@
+package gym;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OccupancyTracker class keeps a live count of the members inside each
+ * location, updated on every check-in and check-out.
+ *
+ * Counts are atomic counters, so events at different desks never wait for each
+ * other and every event costs a map lookup and a few compare-and-set steps.
+ * A check-in is rejected when the location is at its capacity. The highest
+ * count of the day is kept per location and starts again from the current
+ * count at midnight. Occupancy is kept in memory only, so everyone counts as
+ * checked out after a restart. All methods are thread-safe.
+ */
+public class OccupancyTracker {
+    /**
+     * Possible outcomes of a check-in
+     */
+    public enum Outcome {
+        CHECKED_IN,
+        ALREADY_IN,
+        FULL
+    }
+
+    // Capacity of locations without a limit
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * Live occupancy of one location
+     */
+    public static class Occupancy {
+        private final String location;
+        private final AtomicInteger current;
+        private final AtomicInteger peakToday;
+        private volatile int capacity;
+
+        Occupancy(String location, int capacity) {
+            this.location = location;
+            this.current = new AtomicInteger();
+            this.peakToday = new AtomicInteger();
+            this.capacity = capacity;
+        }
+
+        /**
+         * Counts a member in if there is room
+         * @return false if the location is full
+         */
+        boolean enter() {
+            while (true) {
+                int count = current.get();
+                if (count >= capacity) {
+                    return false;
+                }
+                if (current.compareAndSet(count, count + 1)) {
+                    raisePeak(count + 1);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Counts a member out
+         */
+        void leave() {
+            current.decrementAndGet();
+        }
+
+        /**
+         * Raises the peak to the given count if it is higher
+         */
+        void raisePeak(int count) {
+            int peak = peakToday.get();
+            while (count > peak && !peakToday.compareAndSet(peak, count)) {
+                peak = peakToday.get();
+            }
+        }
+
+        /**
+         * Starts a new day with the current count as its peak
+         */
+        void resetPeak() {
+            peakToday.set(current.get());
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public int getCurrent() {
+            return current.get();
+        }
+
+        public int getPeakToday() {
+            return peakToday.get();
+        }
+
+        /**
+         * @return the most members allowed inside, or UNLIMITED
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public String toString() {
+            return location + ": " + getCurrent() + " inside, peak today " + getPeakToday() +
+                    (capacity == UNLIMITED ? "" : ", capacity " + capacity);
+        }
+    }
+
+    private final int defaultCapacity;
+    private final ZoneId zone;
+
+    // Occupancy by location, and the location each member inside checked in to
+    private final ConcurrentHashMap<String, Occupancy> locations;
+    private final ConcurrentHashMap<String, String> inside;
+
+    // Time the current day ends, when the daily peaks start again
+    private volatile long dayEnd;
+
+    /**
+     * Constructor for OccupancyTracker
+     * @param defaultCapacity the capacity of locations without their own capacity, or UNLIMITED
+     */
+    public OccupancyTracker(int defaultCapacity) {
+        this(defaultCapacity, ZoneId.systemDefault());
+    }
+
+    /**
+     * Constructor for OccupancyTracker
+     * @param defaultCapacity the capacity of locations without their own capacity, or UNLIMITED
+     * @param zone the time zone whose midnight starts a new day
+     */
+    public OccupancyTracker(int defaultCapacity, ZoneId zone) {
+        if (defaultCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + defaultCapacity);
+        }
+        this.defaultCapacity = defaultCapacity;
+        this.zone = zone;
+        this.locations = new ConcurrentHashMap<>();
+        this.inside = new ConcurrentHashMap<>();
+        this.dayEnd = nextMidnight();
+    }
+
+    /**
+     * Checks a member in to a location
+     * @param memberId the member ID
+     * @param location the location, such as the member's location
+     * @return CHECKED_IN, ALREADY_IN if the member has not checked out since the last
+     *         check-in (the member is not counted twice), or FULL if the location is at capacity
+     */
+    public Outcome checkIn(String memberId, String location) {
+        startDayIfOver();
+        if (inside.containsKey(memberId)) {
+            return Outcome.ALREADY_IN;
+        }
+
+        // The place is taken before the member is registered, so a check-out can never count down first
+        String key = location == null ? "" : location;
+        Occupancy occupancy = occupancy(key);
+        if (!occupancy.enter()) {
+            return Outcome.FULL;
+        }
+        if (inside.putIfAbsent(memberId, key) != null) {
+            occupancy.leave();
+            return Outcome.ALREADY_IN;
+        }
+        return Outcome.CHECKED_IN;
+    }
+
+    /**
+     * Checks a member out of the location the member checked in to
+     * @param memberId the member ID
+     * @return the location, or null if the member was not checked in
+     */
+    public String checkOut(String memberId) {
+        startDayIfOver();
+        String location = inside.remove(memberId);
+        if (location != null) {
+            occupancy(location).leave();
+        }
+        return location;
+    }
+
+    /**
+     * @param memberId the member ID
+     * @return true if the member has checked in and not checked out
+     */
+    public boolean isInside(String memberId) {
+        return inside.containsKey(memberId);
+    }
+
+    /**
+     * Sets the capacity of a location. Members already inside are not checked out
+     * if the location is over its new capacity; further check-ins are rejected.
+     * @param location the location
+     * @param capacity the most members allowed inside, or UNLIMITED
+     */
+    public void setCapacity(String location, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        occupancy(location == null ? "" : location).capacity = capacity;
+    }
+
+    /**
+     * @param location the location
+     * @return the live occupancy of the location, never null
+     */
+    public Occupancy getOccupancy(String location) {
+        startDayIfOver();
+        return occupancy(location == null ? "" : location);
+    }
+
+    /**
+     * @return the live occupancy of every location with check-ins or a capacity, in no particular order
+     */
+    public List<Occupancy> getLocations() {
+        startDayIfOver();
+        return new ArrayList<>(locations.values());
+    }
+
+    /**
+     * Returns the occupancy of a location, adding it on first use
+     */
+    private Occupancy occupancy(String location) {
+        Occupancy occupancy = locations.get(location);
+        if (occupancy == null) {
+            Occupancy added = new Occupancy(location, defaultCapacity);
+            occupancy = locations.putIfAbsent(location, added);
+            if (occupancy == null) {
+                occupancy = added;
+            }
+        }
+        return occupancy;
+    }
+
+    /**
+     * Starts a new day once midnight has passed
+     */
+    private void startDayIfOver() {
+        if (System.currentTimeMillis() >= dayEnd) {
+            startDay();
+        }
+    }
+
+    private synchronized void startDay() {
+        if (System.currentTimeMillis() < dayEnd) {
+            return;
+        }
+        for (Occupancy occupancy : locations.values()) {
+            occupancy.resetPeak();
+        }
+        dayEnd = nextMidnight();
+    }
+
+    /**
+     * Returns the time of the next midnight in the tracker's time zone
+     */
+    private long nextMidnight() {
+        return LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
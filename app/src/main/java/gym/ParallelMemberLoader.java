@@ -0,0 +1,311 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32;
+
+/**
+ * ParallelMemberLoader class reads a text data file (see MemberRecordFormat)
+ * by parsing chunks of it on a fork-join pool.
+ *
+ * The file is split into chunks of about CHUNK_BYTES that end at a line break,
+ * and each chunk is read and parsed by its own task straight from the bytes:
+ * lines and fields are found by scanning for the delimiters, and the checksum
+ * of a line is computed on its bytes without building a String first. The
+ * parsed chunks are added to the repository in file order on the calling
+ * thread, so when an ID appears more than once the first member is kept,
+ * as with MemberRecordFormat.readFile, and the repository needs no locking.
+ */
+public class ParallelMemberLoader {
+    // Bytes of the file parsed by one task
+    public static final int CHUNK_BYTES = 1 << 20;
+
+    // Bytes read at a time while looking for the line break that ends a chunk
+    private static final int SCAN_BYTES = 4096;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    /**
+     * Constructor for ParallelMemberLoader, parsing on the common pool
+     */
+    public ParallelMemberLoader() {
+        this(ForkJoinPool.commonPool(), CHUNK_BYTES);
+    }
+
+    /**
+     * Constructor for ParallelMemberLoader
+     * @param pool the pool the chunks are parsed on
+     * @param chunkBytes the bytes of the file parsed by one task
+     */
+    public ParallelMemberLoader(ForkJoinPool pool, int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkBytes);
+        }
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Reads all members from a text data file, skipping damaged lines and
+     * members whose ID is already in the repository
+     * @param file the data file
+     * @param members the repository to add the members to
+     * @param listener receives the progress in bytes, may be null
+     * @return the number of members added
+     * @throws IOException if the file cannot be read
+     */
+    public int load(File file, MemberRepository members, ProgressListener listener) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        int added = 0;
+        int damaged = 0;
+        int duplicates = 0;
+        long total;
+        try {
+            total = channel.size();
+            List<ChunkTask> tasks = split(channel, total);
+            for (ChunkTask task : tasks) {
+                pool.execute(task);
+            }
+
+            // Later chunks are still being parsed while the earlier ones are added
+            long done = 0;
+            for (ChunkTask task : tasks) {
+                Chunk chunk = task.join();
+                if (chunk.error != null) {
+                    throw chunk.error;
+                }
+                for (GymMember member : chunk.members) {
+                    if (members.add(member)) {
+                        added++;
+                    } else {
+                        duplicates++;
+                    }
+                }
+                damaged += chunk.damaged;
+                done += task.length;
+                if (listener != null) {
+                    listener.progress(done, total);
+                }
+            }
+        } finally {
+            channel.close();
+        }
+
+        if (damaged > 0) {
+            System.out.println("Skipped " + damaged + " damaged lines in " + file);
+        }
+        if (duplicates > 0) {
+            System.out.println("Skipped " + duplicates + " members with duplicate IDs in " + file);
+        }
+
+        if (listener != null) {
+            listener.progress(total, total);
+        }
+        return added;
+    }
+
+    /**
+     * Splits the file into chunks that each end after a line break, or at the end of the file
+     */
+    private List<ChunkTask> split(FileChannel channel, long size) throws IOException {
+        List<ChunkTask> tasks = new ArrayList<>();
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BYTES);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkBytes;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = nextLine(channel, end, size, scan);
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line too long at byte " + start);
+            }
+            tasks.add(new ChunkTask(channel, start, (int) (end - start)));
+            start = end;
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the position after the next line break at or after a position
+     */
+    private static long nextLine(FileChannel channel, long position, long size, ByteBuffer scan) throws IOException {
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Members parsed from one chunk, in file order
+     */
+    private static class Chunk {
+        private final List<GymMember> members = new ArrayList<>();
+        private int damaged;
+        private IOException error;
+    }
+
+    /**
+     * Reads and parses one chunk of the file
+     */
+    private static class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final int length;
+
+        ChunkTask(FileChannel channel, long start, int length) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        protected Chunk compute() {
+            Chunk chunk = new Chunk();
+            byte[] bytes = new byte[length];
+            try {
+                // Positional reads do not share the channel position, so chunks read at the same time
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new IOException("File changed while loading");
+                    }
+                }
+            } catch (IOException e) {
+                chunk.error = e;
+                return chunk;
+            }
+
+            CRC32 crc = new CRC32();
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+                parseLine(bytes, lineStart, lineEnd, chunk, crc);
+                lineStart = next;
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Parses one line, verifying its checksum if it has one, and adds the member to the chunk
+     */
+    private static void parseLine(byte[] bytes, int start, int end, Chunk chunk, CRC32 crc) {
+        if (isBlank(bytes, start, end) || bytes[start] == '#') {
+            return;
+        }
+
+        int recordEnd = end;
+        int checksumStart = end - MemberRecordFormat.CHECKSUM_FIELD_LENGTH;
+        if (checksumStart > start && bytes[checksumStart] == '|' && bytes[checksumStart + 1] == '#') {
+            crc.reset();
+            crc.update(bytes, start, checksumStart - start);
+            if (readHex(bytes, checksumStart + MemberRecordFormat.CHECKSUM_MARKER.length(), end) != crc.getValue()) {
+                System.out.println("Checksum mismatch, skipping line: " + text(bytes, start, end));
+                chunk.damaged++;
+                return;
+            }
+            recordEnd = checksumStart;
+        }
+
+        // Includes values out of range, such as a negative attendance
+        GymMember member;
+        try {
+            member = MemberRecordFormat.parse(fields(bytes, start, recordEnd));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Invalid line, skipping: " + text(bytes, start, end));
+            member = null;
+        }
+
+        if (member == null) {
+            chunk.damaged++;
+        } else {
+            chunk.members.add(member);
+        }
+    }
+
+    /**
+     * Splits a record at every '|' into its fields
+     */
+    private static String[] fields(byte[] bytes, int start, int end) {
+        int count = 1;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == '|') {
+                count++;
+            }
+        }
+
+        String[] fields = new String[count];
+        int field = 0;
+        int fieldStart = start;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == '|') {
+                fields[field++] = text(bytes, fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        fields[field] = text(bytes, fieldStart, end);
+        return fields;
+    }
+
+    /**
+     * Reads hex digits up to the end of the line
+     * @return the value, or -1 if a character is not a hex digit
+     */
+    private static long readHex(byte[] bytes, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit((char) bytes[i], 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Checks if a line holds only whitespace, as String.trim sees it
+     */
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((bytes[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String text(byte[] bytes, int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+}
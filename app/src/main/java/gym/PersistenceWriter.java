@@ -0,0 +1,273 @@
+package gym;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * PersistenceWriter class writes member changes to disk on a single background thread,
+ * so callers such as the Swing event thread never wait for the disk.
+ *
+ * Journal events queued while the writer is busy are passed to the member store
+ * together, so they are written with one fsync or transaction. Snapshot requests made
+ * while one is already pending are coalesced into a single full save, and a full save
+ * is also written whenever the store asks for one, such as when the journal needs compaction.
+ * Visits recorded in the attendance log are written and forced to disk after each batch
+ * of events, so check-ins never wait for the log's disk writes.
+ * If writing fails and the store asks for a full save to recover, the full save is
+ * retried every few seconds until it succeeds, and once more on close.
+ */
+public class PersistenceWriter implements Runnable {
+    /**
+     * Receives errors that happen on the writer thread
+     */
+    public interface ErrorListener {
+        void persistenceFailed(IOException e);
+    }
+
+    // Members and the lock that stops all changes while they are read
+    private final Lock memberLock;
+    private final Iterable<GymMember> members;
+
+    // Where the members are written
+    private final MemberStore store;
+
+    // The log of every visit, or null if visits are not logged
+    private final AttendanceLog attendanceLog;
+
+    // Delay between attempts at a full save after writing failed
+    private static final long RETRY_MILLIS = 5000;
+
+    private final Thread thread;
+
+    // Work waiting for the writer thread, guarded by this
+    private ArrayList<String[]> pendingEvents;
+    private boolean snapshotRequested;
+    private boolean exportRequested;
+    private ArrayList<CompletableFuture<Void>> snapshotWaiters;
+    private boolean stopping;
+    private ErrorListener errorListener;
+
+    /**
+     * Constructor for PersistenceWriter
+     * @param memberLock the lock that excludes every change to the members
+     * @param members the members to snapshot
+     * @param store the loaded member store
+     */
+    public PersistenceWriter(Lock memberLock, Iterable<GymMember> members, MemberStore store) {
+        this(memberLock, members, store, null);
+    }
+
+    /**
+     * Constructor for PersistenceWriter
+     * @param memberLock the lock that excludes every change to the members
+     * @param members the members to snapshot
+     * @param store the loaded member store
+     * @param attendanceLog the log of every visit to write along with the events, may be null
+     */
+    public PersistenceWriter(Lock memberLock, Iterable<GymMember> members, MemberStore store,
+                             AttendanceLog attendanceLog) {
+        this.memberLock = memberLock;
+        this.members = members;
+        this.store = store;
+        this.attendanceLog = attendanceLog;
+        this.pendingEvents = new ArrayList<>();
+        this.snapshotWaiters = new ArrayList<>();
+        this.thread = new Thread(this, "member-persistence");
+        this.thread.setDaemon(true);
+    }
+
+    public synchronized void setErrorListener(ErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Starts the writer thread. Pending work is flushed when the JVM exits.
+     */
+    public void start() {
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                close();
+            }
+        }, "member-persistence-shutdown"));
+    }
+
+    /**
+     * Queues a journal event. Must be called before the change can be seen by a snapshot,
+     * right after it was applied, so events for a member keep the order of its changes.
+     * @param type the journal event type
+     * @param id the member ID
+     * @param argument the event argument
+     */
+    public synchronized void append(String type, String id, String argument) {
+        pendingEvents.add(new String[] {type, id, argument});
+        notifyAll();
+    }
+
+    /**
+     * Queues several journal events so they are written with a single fsync.
+     * Must be called before the changes can be seen by a snapshot, like append.
+     * @param events the events, each holding a type, member ID and argument
+     */
+    public synchronized void appendAll(List<String[]> events) {
+        pendingEvents.addAll(events);
+        notifyAll();
+    }
+
+    /**
+     * Requests a snapshot of all members
+     * @param export true to also export the members to the text data file
+     * @return a future completed once a snapshot taken after this call is on disk
+     */
+    public synchronized CompletableFuture<Void> requestSnapshot(boolean export) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (stopping) {
+            future.completeExceptionally(new IOException("Persistence writer is closed"));
+            return future;
+        }
+
+        snapshotRequested = true;
+        exportRequested |= export;
+        snapshotWaiters.add(future);
+        notifyAll();
+        return future;
+    }
+
+    /**
+     * Writes all pending work, stops the writer thread and closes the member store
+     */
+    public void close() {
+        synchronized (this) {
+            stopping = true;
+            notifyAll();
+        }
+
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            store.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void run() {
+        // True while a failed write waits for a full save to recover it
+        boolean retrying = false;
+        while (true) {
+            List<String[]> events;
+            boolean snapshot;
+            boolean export;
+            List<CompletableFuture<Void>> waiters;
+
+            synchronized (this) {
+                long retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+                while (pendingEvents.isEmpty() && !snapshotRequested && !stopping) {
+                    long delay = retryAt - System.currentTimeMillis();
+                    if (retrying && delay <= 0) {
+                        break;
+                    }
+                    try {
+                        wait(retrying ? delay : 0);
+                    } catch (InterruptedException e) {
+                        stopping = true;
+                    }
+                }
+                if (stopping && pendingEvents.isEmpty() && !snapshotRequested && !retrying) {
+                    return;
+                }
+
+                events = takePendingEvents();
+                snapshot = snapshotRequested;
+                export = exportRequested;
+                waiters = snapshotWaiters;
+                snapshotRequested = false;
+                exportRequested = false;
+                snapshotWaiters = new ArrayList<>();
+            }
+
+            boolean closing;
+            synchronized (this) {
+                closing = stopping;
+            }
+
+            try {
+                store.writeChanges(events);
+                if (attendanceLog != null) {
+                    attendanceLog.sync();
+                }
+                if (snapshot || store.needsFullSave()) {
+                    writeSnapshot(export);
+                }
+                for (CompletableFuture<Void> waiter : waiters) {
+                    waiter.complete(null);
+                }
+                retrying = false;
+            } catch (IOException | RuntimeException e) {
+                IOException error = e instanceof IOException ? (IOException) e : new IOException(e);
+                for (CompletableFuture<Void> waiter : waiters) {
+                    waiter.completeExceptionally(error);
+                }
+                reportError(error);
+
+                // Only the last attempt is made when closing
+                retrying = store.needsFullSave() && !closing;
+            }
+        }
+    }
+
+    /**
+     * Takes all queued events
+     */
+    private synchronized List<String[]> takePendingEvents() {
+        List<String[]> events = pendingEvents;
+        pendingEvents = new ArrayList<>();
+        return events;
+    }
+
+    /**
+     * Captures the members while no change can happen and writes them as a full save
+     */
+    private void writeSnapshot(boolean export) throws IOException {
+        MemberStore.Save save;
+
+        memberLock.lock();
+        try {
+            // Changes queued up to now are part of this save, write them as changes too
+            store.writeChanges(takePendingEvents());
+            save = store.captureAll(members, export);
+        } finally {
+            memberLock.unlock();
+        }
+
+        // Events queued after the capture are written on top of it
+        save.write();
+    }
+
+    /**
+     * Passes an error to the listener, or prints it if there is none
+     */
+    private void reportError(IOException e) {
+        ErrorListener listener;
+        synchronized (this) {
+            listener = errorListener;
+        }
+
+        if (listener != null) {
+            listener.persistenceFailed(e);
+        } else {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,9 +1,12 @@
+package gym;
+
 /**
  * PremiumMember class represents a premium gym member
  * with specific attributes and behaviors
  */
 public class PremiumMember extends GymMember {
     // Constants for premium membership
+    public static final double PREMIUM_CHARGE = 50000.0;
     private final double premiumCharge;
 
     // Additional attributes for premium members
@@ -21,8 +24,8 @@ public class PremiumMember extends GymMember {
                          double initialPaidAmount, String personalTrainer) {
         super(id, name, location, phone, email, gender, dob,
                 membershipStartDate, referralSource, initialPaidAmount);
-        this.premiumCharge = 50000.0;
-        this.personalTrainer = personalTrainer;
+        this.premiumCharge = PREMIUM_CHARGE;
+        this.personalTrainer = AttributeDictionary.TRAINERS.intern(personalTrainer);
         this.isFullPayment = false;
         this.paidAmount = 0.0;
         this.discountAmount = 0.0;
@@ -43,7 +46,8 @@ public class PremiumMember extends GymMember {
     }
 
     public void setPersonalTrainer(String personalTrainer) {
-        this.personalTrainer = personalTrainer;
+        this.personalTrainer = AttributeDictionary.TRAINERS.intern(personalTrainer);
+        markDirty();
     }
 
     public boolean isFullPayment() {
@@ -52,6 +56,7 @@ public class PremiumMember extends GymMember {
 
     public void setFullPayment(boolean fullPayment) {
         isFullPayment = fullPayment;
+        markDirty();
     }
 
     public double getPaidAmount() {
@@ -60,6 +65,7 @@ public class PremiumMember extends GymMember {
 
     public void setPaidAmount(double paidAmount) {
         this.paidAmount = paidAmount;
+        markDirty();
     }
 
     public double getDiscountAmount() {
@@ -68,6 +74,7 @@ public class PremiumMember extends GymMember {
 
     public void setDiscountAmount(double discountAmount) {
         this.discountAmount = discountAmount;
+        markDirty();
     }
 
     /**
@@ -91,6 +98,7 @@ public class PremiumMember extends GymMember {
 
         // Update paid amount
         this.paidAmount = newTotal;
+        markDirty();
 
         // Update payment status
         if (this.paidAmount >= premiumCharge) {
@@ -110,6 +118,7 @@ public class PremiumMember extends GymMember {
         if (isFullPayment) {
             // 10% discount on premium charge
             this.discountAmount = premiumCharge * 0.01;
+            markDirty();
             return "Discount calculated successfully! You received a 10% discount of " + discountAmount;
         } else {
             return "No discount available. Full payment is required to get a discount.";
@@ -134,8 +143,7 @@ public class PremiumMember extends GymMember {
     @Override
     public void markAttendance() {
         if (activeStatus) {
-            attendance++;
-            loyaltyPoints += 10;  // Premium members get more loyalty points
+            recordVisit(10);  // Premium members get more loyalty points
         }
     }
 
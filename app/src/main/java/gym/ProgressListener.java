@@ -0,0 +1,14 @@
+package gym;
+
+/**
+ * ProgressListener interface receives progress updates from long-running
+ * operations such as loading the member files.
+ */
+public interface ProgressListener {
+    /**
+     * Called as the operation advances
+     * @param done the amount of work done so far
+     * @param total the total amount of work
+     */
+    void progress(long done, long total);
+}
@@ -1,3 +1,7 @@
+package gym;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * RegularMember class represents a regular gym member
  * with specific attributes and behaviors
@@ -7,7 +11,10 @@ public class RegularMember extends GymMember {
     private final int attendanceLimit;
 
     // Additional attributes for regular members
-    private boolean isEligibleForUpgrade;
+    // 1 once eligible for upgrade, changed with compare-and-set so concurrent check-ins switch it once
+    private volatile int isEligibleForUpgrade;
+    private static final AtomicIntegerFieldUpdater<RegularMember> ELIGIBLE =
+            AtomicIntegerFieldUpdater.newUpdater(RegularMember.class, "isEligibleForUpgrade");
     private String removalReason;
     private String referralSource;
     private String plan;
@@ -23,15 +30,15 @@ public class RegularMember extends GymMember {
         super(id, name, location, phone, email, gender, dob,
                 membershipStartDate, referralSource, paidAmount);
         this.attendanceLimit = 30;
-        this.isEligibleForUpgrade = false;
+        this.isEligibleForUpgrade = 0;
         this.removalReason = "";
-        this.referralSource = referralSource;
+        this.referralSource = AttributeDictionary.REFERRALS.intern(referralSource);
         this.plan = "basic";  // Default plan is basic
         this.price = 6500;    // Default price for basic plan
 
         // Set plan and price if provided
         if (plan != null && !plan.isEmpty()) {
-            this.plan = plan.toLowerCase();
+            this.plan = AttributeDictionary.PLANS.intern(plan.toLowerCase());
             this.price = getPlanPrice(this.plan);
         }
     }
@@ -42,11 +49,24 @@ public class RegularMember extends GymMember {
     }
 
     public boolean isEligibleForUpgrade() {
-        return isEligibleForUpgrade;
+        return isEligibleForUpgrade != 0;
     }
 
     public void setEligibleForUpgrade(boolean eligibleForUpgrade) {
-        isEligibleForUpgrade = eligibleForUpgrade;
+        isEligibleForUpgrade = eligibleForUpgrade ? 1 : 0;
+        markDirty();
+    }
+
+    /**
+     * Makes the member eligible for upgrade if they are not already
+     * @return true only for the call that made the member eligible
+     */
+    private boolean becomeEligibleForUpgrade() {
+        if (!ELIGIBLE.compareAndSet(this, 0, 1)) {
+            return false;
+        }
+        markDirty();
+        return true;
     }
 
     @Override
@@ -57,6 +77,7 @@ public class RegularMember extends GymMember {
     @Override
     public void setRemovalReason(String removalReason) {
         this.removalReason = removalReason;
+        markDirty();
     }
 
     public String getReferralSource() {
@@ -64,7 +85,8 @@ public class RegularMember extends GymMember {
     }
 
     public void setReferralSource(String referralSource) {
-        this.referralSource = referralSource;
+        this.referralSource = AttributeDictionary.REFERRALS.intern(referralSource);
+        markDirty();
     }
 
     public String getPlan() {
@@ -72,7 +94,8 @@ public class RegularMember extends GymMember {
     }
 
     public void setPlan(String plan) {
-        this.plan = plan;
+        this.plan = AttributeDictionary.PLANS.intern(plan);
+        markDirty();
     }
 
     public double getPrice() {
@@ -81,6 +104,7 @@ public class RegularMember extends GymMember {
 
     public void setPrice(double price) {
         this.price = price;
+        markDirty();
     }
 
     /**
@@ -108,11 +132,11 @@ public class RegularMember extends GymMember {
      */
     public String upgradePlan(String newPlan) {
         // Check if the member is eligible for upgrade
-        if (attendance >= attendanceLimit) {
-            isEligibleForUpgrade = true;
+        if (getAttendance() >= attendanceLimit) {
+            becomeEligibleForUpgrade();
         }
 
-        if (!isEligibleForUpgrade) {
+        if (!isEligibleForUpgrade()) {
             return "Member is not eligible for plan upgrade. Need at least " + attendanceLimit + " attendances.";
         }
 
@@ -130,8 +154,9 @@ public class RegularMember extends GymMember {
         }
 
         // Update plan and price
-        this.plan = newPlan.toLowerCase();
+        this.plan = AttributeDictionary.PLANS.intern(newPlan.toLowerCase());
         this.price = newPrice;
+        markDirty();
 
         return "Plan successfully upgraded to " + newPlan + " with price " + price;
     }
@@ -142,12 +167,11 @@ public class RegularMember extends GymMember {
     @Override
     public void markAttendance() {
         if (activeStatus) {
-            attendance++;
-            loyaltyPoints += 5;
+            int attendance = recordVisit(5);
 
             // Check if eligible for upgrade after marking attendance
-            if (attendance >= attendanceLimit) {
-                isEligibleForUpgrade = true;
+            if (attendance >= attendanceLimit && isEligibleForUpgrade == 0) {
+                becomeEligibleForUpgrade();
             }
         }
     }
@@ -159,9 +183,10 @@ public class RegularMember extends GymMember {
     public void revertRegularMember(String removalReason) {
         resetMember();
         this.removalReason = removalReason;
-        this.isEligibleForUpgrade = false;
+        this.isEligibleForUpgrade = 0;
         this.plan = "basic";
         this.price = 6500;
+        markDirty();
     }
 
     /**
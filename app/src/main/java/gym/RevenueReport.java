@@ -0,0 +1,61 @@
+package gym;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * RevenueReport class holds the revenue totals of all members
+ * and of each group of members, such as each location or plan.
+ */
+public class RevenueReport {
+    private final MemberAnalytics.Grouping grouping;
+    private final RevenueTotals total;
+    private final SortedMap<String, RevenueTotals> groups;
+
+    /**
+     * Constructor for RevenueReport
+     * @param grouping how the members were grouped
+     * @param total the totals of all members
+     * @param groups the totals of each group, sorted by group name
+     */
+    public RevenueReport(MemberAnalytics.Grouping grouping, RevenueTotals total,
+                         SortedMap<String, RevenueTotals> groups) {
+        this.grouping = grouping;
+        this.total = total;
+        this.groups = Collections.unmodifiableSortedMap(groups);
+    }
+
+    public MemberAnalytics.Grouping getGrouping() {
+        return grouping;
+    }
+
+    public RevenueTotals getTotal() {
+        return total;
+    }
+
+    public SortedMap<String, RevenueTotals> getGroups() {
+        return groups;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %8s %8s %8s %14s %14s %14s %12s%n", grouping,
+                "MEMBERS", "ACTIVE", "PREMIUM", "BILLED", "COLLECTED", "OUTSTANDING", "DISCOUNTS"));
+        for (Map.Entry<String, RevenueTotals> group : groups.entrySet()) {
+            appendRow(sb, group.getKey(), group.getValue());
+        }
+        appendRow(sb, "TOTAL", total);
+        sb.append(String.format("Plan mix: Basic %d, Standard %d, Deluxe %d, Premium %d",
+                total.getPlanCount("basic"), total.getPlanCount("standard"),
+                total.getPlanCount("deluxe"), total.getPremium()));
+        return sb.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, String name, RevenueTotals totals) {
+        sb.append(String.format("%-16s %8d %8d %8d %14.2f %14.2f %14.2f %12.2f%n", name,
+                totals.getMembers(), totals.getActive(), totals.getPremium(), totals.getBilled(),
+                totals.getCollected(), totals.getOutstanding(), totals.getDiscounts()));
+    }
+}
@@ -0,0 +1,199 @@
+package gym;
+
+/**
+ * RevenueTotals class adds up the billing figures of a group of members:
+ * billed fees, collected payments, outstanding premium balances, discounts
+ * and the number of members on each plan.
+ *
+ * Amounts are kept as whole hundredths so members can be added and
+ * subtracted again without rounding errors building up.
+ */
+public class RevenueTotals {
+    // Plans counted in the plan mix, in the order of getPlanCount
+    public static final String[] PLANS = {"basic", "standard", "deluxe"};
+
+    private static final int SCALE = 100;
+
+    private long members;
+    private long active;
+    private long premium;
+    private final long[] planCounts;
+    private long billed;
+    private long collected;
+    private long outstanding;
+    private long discounts;
+
+    /**
+     * Constructor for RevenueTotals, starting from zero
+     */
+    public RevenueTotals() {
+        this.planCounts = new long[PLANS.length];
+    }
+
+    /**
+     * Constructor for RevenueTotals, copying other totals
+     * @param other the totals to copy
+     */
+    public RevenueTotals(RevenueTotals other) {
+        this.members = other.members;
+        this.active = other.active;
+        this.premium = other.premium;
+        this.planCounts = other.planCounts.clone();
+        this.billed = other.billed;
+        this.collected = other.collected;
+        this.outstanding = other.outstanding;
+        this.discounts = other.discounts;
+    }
+
+    /**
+     * Adds the figures of a member
+     * @param member the member
+     */
+    public void add(GymMember member) {
+        add(member, 1);
+    }
+
+    /**
+     * Subtracts the figures of a member that was added before
+     * @param member the member, in the same state as when it was added
+     */
+    public void subtract(GymMember member) {
+        add(member, -1);
+    }
+
+    /**
+     * Adds other totals to these totals
+     * @param other the totals to add
+     */
+    public void add(RevenueTotals other) {
+        add(other, 1);
+    }
+
+    /**
+     * Subtracts totals that were added before
+     * @param other the totals to subtract
+     */
+    public void subtract(RevenueTotals other) {
+        add(other, -1);
+    }
+
+    private void add(GymMember member, int sign) {
+        members += sign;
+        if (member.isActive()) {
+            active += sign;
+        }
+        billed += sign * toHundredths(member.calculateFee());
+        collected += sign * toHundredths(member.getPaidAmount());
+
+        if (member instanceof PremiumMember) {
+            PremiumMember premiumMember = (PremiumMember) member;
+            premium += sign;
+            outstanding += sign * toHundredths(premiumMember.getPremiumCharge() - premiumMember.getPaidAmount());
+            discounts += sign * toHundredths(premiumMember.getDiscountAmount());
+        } else if (member instanceof RegularMember) {
+            int plan = planIndex(((RegularMember) member).getPlan());
+            if (plan >= 0) {
+                planCounts[plan] += sign;
+            }
+        }
+    }
+
+    private void add(RevenueTotals other, int sign) {
+        members += sign * other.members;
+        active += sign * other.active;
+        premium += sign * other.premium;
+        for (int i = 0; i < planCounts.length; i++) {
+            planCounts[i] += sign * other.planCounts[i];
+        }
+        billed += sign * other.billed;
+        collected += sign * other.collected;
+        outstanding += sign * other.outstanding;
+        discounts += sign * other.discounts;
+    }
+
+    /**
+     * @return true if no members are counted
+     */
+    public boolean isEmpty() {
+        return members == 0;
+    }
+
+    public long getMembers() {
+        return members;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public long getPremium() {
+        return premium;
+    }
+
+    /**
+     * @return the number of regular members
+     */
+    public long getRegular() {
+        return members - premium;
+    }
+
+    /**
+     * @param plan a plan name from PLANS, in any case
+     * @return the number of regular members on the plan, 0 for unknown plans
+     */
+    public long getPlanCount(String plan) {
+        int index = planIndex(plan);
+        return index < 0 ? 0 : planCounts[index];
+    }
+
+    /**
+     * @return the sum of the membership fees
+     */
+    public double getBilled() {
+        return billed / (double) SCALE;
+    }
+
+    /**
+     * @return the sum of the amounts paid
+     */
+    public double getCollected() {
+        return collected / (double) SCALE;
+    }
+
+    /**
+     * @return the sum of premium charges not paid yet
+     */
+    public double getOutstanding() {
+        return outstanding / (double) SCALE;
+    }
+
+    /**
+     * @return the sum of premium discounts
+     */
+    public double getDiscounts() {
+        return discounts / (double) SCALE;
+    }
+
+    @Override
+    public String toString() {
+        return "Members: " + members + " (Active: " + active + ", Premium: " + premium +
+                ", Basic: " + planCounts[0] + ", Standard: " + planCounts[1] + ", Deluxe: " + planCounts[2] + ")\n" +
+                "Billed: " + String.format("%.2f", getBilled()) +
+                ", Collected: " + String.format("%.2f", getCollected()) +
+                ", Outstanding: " + String.format("%.2f", getOutstanding()) +
+                ", Discounts: " + String.format("%.2f", getDiscounts());
+    }
+
+    private static long toHundredths(double amount) {
+        return Math.round(amount * SCALE);
+    }
+
+    private static int planIndex(String plan) {
+        for (int i = 0; i < PLANS.length; i++) {
+            if (PLANS[i].equalsIgnoreCase(plan)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,53 @@
+package gym;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StripedLocks class hands out one of a fixed number of locks for a key,
+ * so changes to different members rarely wait for each other while
+ * changes to the same member are always serialized.
+ */
+public class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * Constructor for StripedLocks
+     * @param stripes the minimum number of locks, rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes must be positive: " + stripes);
+        }
+
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the lock for a key. Equal keys always get the same lock.
+     * @param key the key, such as a member ID
+     * @return the lock guarding the key
+     */
+    public ReentrantLock get(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits so keys that differ only there use different locks
+        hash ^= hash >>> 16;
+        return locks[hash & mask];
+    }
+
+    /**
+     * @return the number of locks
+     */
+    public int size() {
+        return locks.length;
+    }
+}
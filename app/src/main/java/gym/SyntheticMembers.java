@@ -0,0 +1,98 @@
+package gym;
+
+import java.util.Random;
+
+/**
+ * SyntheticMembers class generates realistic-looking gym members
+ * for benchmarks and load tests. The same seed always produces the same members.
+ */
+public class SyntheticMembers {
+    // Sample values used to build members
+    private static final String[] FIRST_NAMES = {"Aarav", "Sita", "Ram", "Gita", "Hari", "Maya",
+            "Bikash", "Anita", "Suman", "Priya", "Rohan", "Nisha"};
+    private static final String[] LAST_NAMES = {"Shrestha", "Sharma", "Thapa", "Gurung", "Rai",
+            "Tamang", "Karki", "Adhikari", "Khadka", "Magar"};
+    private static final String[] LOCATIONS = {"Kathmandu", "Lalitpur", "Bhaktapur", "Pokhara",
+            "Biratnagar", "Chitwan"};
+    private static final String[] MONTHS = {"January", "February", "March", "April", "May", "June",
+            "July", "August", "September", "October", "November", "December"};
+    private static final String[] PLANS = {"Basic", "Standard", "Deluxe"};
+    private static final String[] TRAINERS = {"Bishal", "Kiran", "Sabina", "Dipesh", "Rita"};
+    private static final String[] REFERRALS = {"Friend", "Facebook", "Walk-in", "Flyer", ""};
+
+    private final Random random;
+
+    /**
+     * Constructor for SyntheticMembers
+     * @param seed the random seed
+     */
+    public SyntheticMembers(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Creates a repository filled with synthetic members
+     * @param count the number of members
+     * @param seed the random seed
+     * @return the filled repository
+     */
+    public static MemberRepository repository(int count, long seed) {
+        SyntheticMembers generator = new SyntheticMembers(seed);
+        MemberRepository members = new MemberRepository();
+        for (int i = 0; i < count; i++) {
+            members.add(generator.next(i + 1));
+        }
+        return members;
+    }
+
+    /**
+     * Creates the next synthetic member.
+     * About one in four members is premium and most members are active.
+     * @param id the numeric member ID
+     * @return the generated member
+     */
+    public GymMember next(int id) {
+        String name = pick(FIRST_NAMES) + " " + pick(LAST_NAMES);
+        String location = pick(LOCATIONS);
+        String phone = "98" + (10000000 + random.nextInt(90000000));
+        String email = name.toLowerCase().replace(' ', '.') + id + "@example.com";
+        String gender = random.nextBoolean() ? "Male" : "Female";
+        String dob = date(1960, 2007);
+        String membershipStartDate = date(2018, 2025);
+        String referralSource = pick(REFERRALS);
+
+        GymMember member;
+        if (random.nextInt(4) == 0) {
+            double paidAmount = random.nextInt(6) * 10000;
+            member = new PremiumMember(String.valueOf(id), name, location, phone, email, gender, dob,
+                    membershipStartDate, referralSource, paidAmount, pick(TRAINERS));
+        } else {
+            member = new RegularMember(String.valueOf(id), name, location, phone, email, gender, dob,
+                    membershipStartDate, referralSource, 0, pick(PLANS));
+        }
+
+        if (random.nextInt(10) < 8) {
+            member.activateMembership();
+            int visits = random.nextInt(60);
+            for (int i = 0; i < visits; i++) {
+                member.markAttendance();
+            }
+        }
+        return member;
+    }
+
+    /**
+     * Picks a random value from the array
+     */
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Creates a date in the "day-Month-year" form used by the GUI
+     */
+    private String date(int firstYear, int lastYear) {
+        return (1 + random.nextInt(28)) + "-" + pick(MONTHS) + "-" +
+                (firstYear + random.nextInt(lastYear - firstYear + 1));
+    }
+}
@@ -0,0 +1,61 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * AttendanceLogTest class records visits and finds them again by member
+ */
+public class AttendanceLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void visitsAreFoundByMember() throws Exception {
+        AttendanceLog log = AttendanceLog.open(new File(folder.getRoot(), "members.attendance"));
+        log.record("7", "Kathmandu", 1000);
+        log.record("70", "Pokhara", 2000);
+        log.record("7", "Kathmandu", 3000);
+        log.sync();
+
+        assertEquals(Arrays.asList(1000L, 3000L), log.findVisits("7", 0, 4000));
+        assertEquals(Arrays.asList(2000L), log.findVisits("70", 0, 4000));
+        log.close();
+    }
+
+    @Test
+    public void idsWithLeadingZerosAreRejected() throws Exception {
+        AttendanceLog log = AttendanceLog.open(new File(folder.getRoot(), "members.attendance"));
+        for (String id : new String[] {"007", "+7", "-0"}) {
+            try {
+                log.record(id, "Kathmandu", 1000);
+                fail("Recorded a visit of member " + id);
+            } catch (NumberFormatException e) {
+                // Expected, "007" would otherwise share the visits of member 7
+            }
+        }
+        log.close();
+        assertEquals(0, AttendanceLog.parseMemberId("0"));
+        assertEquals(-7, AttendanceLog.parseMemberId("-7"));
+    }
+
+    @Test
+    public void serviceRejectsIdsWithLeadingZeros() throws Exception {
+        File dir = folder.getRoot();
+        MemberService service = new MemberService(new File(dir, "members.snapshot"), new File(dir, "members.docx"),
+                new File(dir, "members.journal"));
+        service.load();
+        MemberResult result = service.addMember(new RegularMember("007", "Ram", "Kathmandu", "9800000000",
+                "ram@example.com", "Male", "2000-01-01", "2024-01-01", "Friend", 0, "Basic"));
+        service.close();
+
+        assertEquals(MemberResult.Status.INVALID_INPUT, result.getStatus());
+    }
+}
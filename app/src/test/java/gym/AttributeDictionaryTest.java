@@ -0,0 +1,49 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * AttributeDictionaryTest class checks that a dictionary shares equal values and
+ * stays within its capacity and value length
+ */
+public class AttributeDictionaryTest {
+    @Test
+    public void equalValuesShareOneInstanceAndCode() {
+        AttributeDictionary dictionary = new AttributeDictionary(4);
+        String first = dictionary.intern(new String("Kathmandu"));
+
+        assertSame(first, dictionary.intern(new String("Kathmandu")));
+        assertEquals(0, dictionary.code("Kathmandu"));
+        assertEquals(1, dictionary.code("Pokhara"));
+        assertEquals("Pokhara", dictionary.value(1));
+    }
+
+    @Test
+    public void fullDictionaryKeepsNewValuesAsTheyAre() {
+        AttributeDictionary dictionary = new AttributeDictionary(2);
+        dictionary.code("Kathmandu");
+        dictionary.code("Pokhara");
+        String value = new String("Lalitpur");
+
+        assertSame(value, dictionary.intern(value));
+        assertEquals(AttributeDictionary.NO_CODE, dictionary.find("Lalitpur"));
+        assertEquals(2, dictionary.size());
+        assertEquals(1, dictionary.code("Pokhara"));
+    }
+
+    @Test
+    public void longValuesAreNotAdded() {
+        AttributeDictionary dictionary = new AttributeDictionary(4);
+        char[] text = new char[AttributeDictionary.MAX_VALUE_LENGTH + 1];
+        Arrays.fill(text, 'a');
+
+        assertEquals(AttributeDictionary.NO_CODE, dictionary.code(new String(text)));
+        assertEquals(0, dictionary.size());
+        assertEquals(0, dictionary.code(new String(text, 0, AttributeDictionary.MAX_VALUE_LENGTH)));
+    }
+}
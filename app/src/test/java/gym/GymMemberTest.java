@@ -0,0 +1,61 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * GymMemberTest class checks that members count attendance correctly when
+ * many threads check the same members in at once
+ */
+public class GymMemberTest {
+    // Threads and check-ins per thread, on a small range of members so threads keep colliding
+    private static final int THREADS = 8;
+    private static final int CHECK_INS = 200000;
+    private static final int RANGE = 64;
+
+    @Test
+    public void markAttendanceCountsEveryCheckInOfActiveMembers() throws InterruptedException {
+        final MemberRepository members = SyntheticMembers.repository(1000, 42);
+        long before = totalAttendance(members);
+        final AtomicLong expected = new AtomicLong();
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final Random random = new Random(t);
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long active = 0;
+                    for (int i = 0; i < CHECK_INS; i++) {
+                        GymMember member = members.get(random.nextInt(RANGE));
+                        if (member.isActive()) {
+                            active++;
+                        }
+                        member.markAttendance();
+                    }
+                    expected.addAndGet(active);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals("Lost attendance updates", expected.get(), totalAttendance(members) - before);
+    }
+
+    /**
+     * Adds up the attendance of all members
+     */
+    private static long totalAttendance(MemberRepository members) {
+        long total = 0;
+        for (GymMember member : members) {
+            total += member.getAttendance();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,158 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * JdbcMemberStoreTest class writes member changes to an embedded H2 database and
+ * reads them back, including after a batch of changes failed and from a member
+ * table created by an older version
+ */
+public class JdbcMemberStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String url;
+
+    @Before
+    public void setUp() {
+        url = "jdbc:h2:file:" + folder.getRoot().getAbsolutePath() + "/members";
+    }
+
+    @Test
+    public void changesReadBackWithEveryField() throws Exception {
+        JdbcMemberStore store = new JdbcMemberStore(url, null);
+        store.load(new MemberRepository(), null);
+
+        // Free text longer than the old column limits, with line breaks and delimiters
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            name.append("Ramé Shrestha|").append(i);
+        }
+        RegularMember regularMember = new RegularMember("1", name.toString(), "Kathmandu", "9800000000",
+                "ram@example.com", "Male", "2000-01-01", "2024-01-01", "Friend\nof a member", 0, "Basic");
+        regularMember.setRemovalReason("Moved\r\naway");
+        PremiumMember premiumMember = new PremiumMember("2", "Sita", "Pokhara", "9811111111", "sita@example.com",
+                "Female", "1995-05-05", "2024-02-01", "Flyer", 0, "Kiran");
+        premiumMember.setPaidAmount(3000);
+
+        List<GymMember> expected = Arrays.<GymMember>asList(regularMember, premiumMember);
+        List<String[]> events = new ArrayList<>();
+        for (GymMember member : expected) {
+            events.add(new String[] {MemberJournal.ADD, member.getId(), MemberRecordFormat.format(member)});
+        }
+        events.add(new String[] {MemberJournal.ACTIVATE, "1", ""});
+        events.add(new String[] {MemberJournal.ATTENDANCE, "1", ""});
+        events.add(new String[] {MemberJournal.PAYMENT, "2", "1000.0"});
+        for (String[] event : events.subList(expected.size(), events.size())) {
+            MemberJournal.apply(event[1].equals("1") ? regularMember : premiumMember, event[0], event[2]);
+        }
+        store.writeChanges(events);
+        store.close();
+
+        assertRows(expected, reload());
+    }
+
+    @Test
+    public void failedBatchIsRewrittenByTheNextFullSave() throws Exception {
+        JdbcMemberStore store = new JdbcMemberStore(url, null);
+        store.load(new MemberRepository(), null);
+        RegularMember member = new RegularMember("1", "Ram", "Kathmandu", "9800000000", "ram@example.com",
+                "Male", "2000-01-01", "2024-01-01", "Friend", 0, "Basic");
+        member.activateMembership();
+        store.writeChanges(Arrays.asList(new String[][] {
+                {MemberJournal.ADD, "1", MemberRecordFormat.format(member)}}));
+        assertFalse(store.needsFullSave());
+
+        // A constraint the next change breaks, so its batch is rolled back
+        execute("ALTER TABLE members ADD CONSTRAINT attendance_limit CHECK (attendance < 1)");
+        member.markAttendance();
+        try {
+            store.writeChanges(Arrays.asList(new String[][] {{MemberJournal.ATTENDANCE, "1", ""}}));
+            fail("The change broke a constraint and should not have been written");
+        } catch (IOException e) {
+            assertTrue(store.needsFullSave());
+        }
+
+        execute("ALTER TABLE members DROP CONSTRAINT attendance_limit");
+        store.captureAll(Arrays.<GymMember>asList(member), false).write();
+        assertFalse(store.needsFullSave());
+        store.close();
+
+        assertRows(Arrays.<GymMember>asList(member), reload());
+    }
+
+    @Test
+    public void longValuesAreCutToTheColumnsOfAnOlderTable() throws Exception {
+        execute("CREATE TABLE members (id VARCHAR(32) PRIMARY KEY, type VARCHAR(16) NOT NULL, " +
+                "name VARCHAR(255), location VARCHAR(255), phone VARCHAR(64), email VARCHAR(255), " +
+                "gender VARCHAR(32), dob VARCHAR(32), membership_start_date VARCHAR(32), " +
+                "referral_source VARCHAR(255), paid_amount DOUBLE, active BOOLEAN, attendance INTEGER, " +
+                "loyalty_points DOUBLE, plan VARCHAR(32), price DOUBLE, eligible_for_upgrade BOOLEAN, " +
+                "personal_trainer VARCHAR(255), full_payment BOOLEAN, discount_amount DOUBLE)");
+
+        JdbcMemberStore store = new JdbcMemberStore(url, null);
+        store.load(new MemberRepository(), null);
+        char[] name = new char[300];
+        Arrays.fill(name, 'a');
+        RegularMember member = new RegularMember("1", new String(name), "Kathmandu", "9800000000",
+                "ram@example.com", "Male", "2000-01-01", "2024-01-01", "Friend", 0, "Basic");
+        store.writeChanges(Arrays.asList(new String[][] {
+                {MemberJournal.ADD, "1", MemberRecordFormat.format(member)}}));
+        store.close();
+
+        MemberRepository loaded = reload();
+        assertEquals(1, loaded.size());
+        assertEquals(new String(name, 0, 255), loaded.findById("1").getName());
+    }
+
+    /**
+     * Loads the members from the database with a new store
+     */
+    private MemberRepository reload() throws IOException {
+        JdbcMemberStore store = new JdbcMemberStore(url, null);
+        MemberRepository members = new MemberRepository();
+        store.load(members, null);
+        store.close();
+        return members;
+    }
+
+    /**
+     * Checks that the loaded members have every field of the expected members
+     */
+    private static void assertRows(List<GymMember> expected, MemberRepository loaded) {
+        assertEquals(expected.size(), loaded.size());
+        for (GymMember member : expected) {
+            assertEquals(MemberRecordFormat.format(member), MemberRecordFormat.format(loaded.findById(member.getId())));
+        }
+    }
+
+    /**
+     * Runs a statement on its own connection to the database
+     */
+    private void execute(String sql) throws Exception {
+        Connection connection = DriverManager.getConnection(url);
+        try {
+            Statement statement = connection.createStatement();
+            statement.executeUpdate(sql);
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * MemberImporterTest class imports CSV files with quotes inside and around values
+ */
+public class MemberImporterTest {
+    private static final String HEADER = "type,id,name,location,phone,email,gender,dob,start,referral,plan";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MemberService service;
+
+    @Before
+    public void setUp() throws Exception {
+        File dir = folder.getRoot();
+        service = new MemberService(new File(dir, "members.snapshot"), new File(dir, "members.docx"),
+                new File(dir, "members.journal"));
+        service.load();
+    }
+
+    @After
+    public void tearDown() {
+        service.close();
+    }
+
+    @Test
+    public void quoteInsideValueIsKept() throws Exception {
+        ImportResult result = importLines(HEADER, row("1", "Jo\"hn"), row("2", "Ram"));
+
+        assertEquals(2, result.getImported());
+        assertEquals("Jo\"hn", service.findMember("1").getName());
+        assertNotNull(service.findMember("2"));
+    }
+
+    @Test
+    public void quotedValueHoldsCommasAndDoubledQuotes() throws Exception {
+        ImportResult result = importLines(HEADER, row("1", "\"Shrestha, \"\"Ram\"\"\""), row("2", "Sita"));
+
+        assertEquals(2, result.getImported());
+        assertEquals("Shrestha, \"Ram\"", service.findMember("1").getName());
+    }
+
+    @Test
+    public void unterminatedQuoteIsRejectedAfterMaxLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add(row("1", "\"Ram"));
+        for (int i = 0; i < MemberImporter.MAX_RECORD_LINES + 5; i++) {
+            lines.add(row(String.valueOf(100 + i), "Member " + i));
+        }
+        ImportResult result = importLines(lines.toArray(new String[0]));
+
+        // The rejected record took MAX_RECORD_LINES lines, the members after it are imported
+        assertEquals(1, result.getRejected());
+        assertEquals(6, result.getImported());
+        assertNull(service.findMember("1"));
+        assertNotNull(service.findMember(String.valueOf(100 + MemberImporter.MAX_RECORD_LINES + 4)));
+    }
+
+    /**
+     * Writes the lines to a CSV file and imports it
+     */
+    private ImportResult importLines(String... lines) throws Exception {
+        File input = folder.newFile();
+        Files.write(input.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return new MemberImporter(service).importFile(input, MemberImporter.Format.CSV,
+                MemberImporter.errorFileFor(input), null);
+    }
+
+    /**
+     * Returns a CSV row of a valid regular member with the given name as written in the file
+     */
+    private static String row(String id, String name) {
+        return "Regular," + id + "," + name + ",Kathmandu,9800000000,member@example.com,Male," +
+                "2000-01-01,2024-01-01,Friend,Basic";
+    }
+}
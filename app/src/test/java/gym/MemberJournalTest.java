@@ -0,0 +1,65 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * MemberJournalTest class appends events whose arguments hold line breaks, pipes
+ * and backslashes and replays them, from new journals and from older ones
+ */
+public class MemberJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void argumentsReplayExactly() throws Exception {
+        File file = new File(folder.getRoot(), "members.journal");
+        MemberJournal journal = new MemberJournal(file);
+        journal.open(0, new MemberRepository());
+        RegularMember member = member("1", "Ram\\|\nShrestha\r\\p");
+        journal.append(MemberJournal.ADD, "1", MemberRecordFormat.format(member));
+        journal.appendAll(Arrays.asList(new String[][] {
+                {MemberJournal.ADD, "2", MemberRecordFormat.format(member("2", "Sita"))},
+                {MemberJournal.REVERT, "2", "Moved\naway | for \\good"}}));
+        journal.close();
+
+        MemberRepository replayed = new MemberRepository();
+        assertEquals(3, new MemberJournal(file).open(0, replayed));
+        assertEquals(MemberRecordFormat.format(member), MemberRecordFormat.format(replayed.findById("1")));
+        assertNull(replayed.findById("2"));
+    }
+
+    @Test
+    public void olderJournalReplaysAndContinuesEscaped() throws Exception {
+        File file = new File(folder.getRoot(), "members.journal");
+        RegularMember older = member("1", "Ram|Shrestha");
+        Files.write(file.toPath(), Arrays.asList(MemberJournal.GENERATION_PREFIX + 0,
+                "ADD|1|" + MemberRecordFormat.format(older)), StandardCharsets.UTF_8);
+
+        MemberJournal journal = new MemberJournal(file);
+        MemberRepository members = new MemberRepository();
+        assertEquals(1, journal.open(0, members));
+        RegularMember newer = member("2", "Sita\nThapa");
+        journal.append(MemberJournal.ADD, "2", MemberRecordFormat.format(newer));
+        journal.close();
+
+        MemberRepository replayed = new MemberRepository();
+        assertEquals(2, new MemberJournal(file).open(0, replayed));
+        assertEquals(MemberRecordFormat.format(older), MemberRecordFormat.format(replayed.findById("1")));
+        assertEquals(MemberRecordFormat.format(newer), MemberRecordFormat.format(replayed.findById("2")));
+    }
+
+    private static RegularMember member(String id, String name) {
+        return new RegularMember(id, name, "Kathmandu", "9800000000", "member@example.com", "Male",
+                "2000-01-01", "2024-01-01", "Friend", 0, "Basic");
+    }
+}
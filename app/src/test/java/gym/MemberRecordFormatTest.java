@@ -0,0 +1,213 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * MemberRecordFormatTest class writes members with random values in every field
+ * and reads them back through every loader, and checks that members with values
+ * out of range are skipped without stopping the load.
+ *
+ * The random members come from a seed printed in every failure message; set
+ * -Dgym.seed=<seed> to run the same members again.
+ */
+public class MemberRecordFormatTest {
+    // Members with random field values written and read back
+    private static final int ROUND_TRIP_MEMBERS = 5000;
+
+    // Distinct values of each repeated attribute, few enough not to fill the attribute dictionaries
+    private static final int ATTRIBUTE_VALUES = 8;
+
+    // Pieces of the random text, including the delimiters and escapes of the data file
+    private static final String[] TEXT_PIECES = {"a", "Z", "7", " ", "|", ",", "#", "\\", "\\0", "\\p",
+            "\n", "\r", "\t", "true", "-", "é", "€", "😀"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void randomMembersReadBackWithEveryFieldEqual() throws Exception {
+        long seed = Long.getLong("gym.seed", System.nanoTime());
+        Random random = new Random(seed);
+        String[][] attributes = new String[5][ATTRIBUTE_VALUES];
+        for (String[] values : attributes) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = randomText(random, true);
+            }
+        }
+        MemberRepository members = new MemberRepository();
+        for (int i = 0; i < ROUND_TRIP_MEMBERS; i++) {
+            members.add(randomMember(random, i, attributes));
+        }
+
+        File file = folder.newFile("members.docx");
+        MemberRecordFormat.writeFile(file, members, 1);
+        MemberRepository read = new MemberRepository();
+        MemberRecordFormat.readFile(file, read);
+        MemberRepository loaded = new MemberRepository();
+        new ParallelMemberLoader().load(file, loaded, null);
+
+        String[] paths = {"readFile", "ParallelMemberLoader", "format and parse"};
+        for (GymMember member : members) {
+            List<Object> expected = allFields(member);
+            GymMember[] copies = {read.findById(member.getId()), loaded.findById(member.getId()),
+                    MemberRecordFormat.parse(MemberRecordFormat.format(member))};
+            for (int i = 0; i < copies.length; i++) {
+                String path = paths[i] + " with seed " + seed + ", member " + member.getId();
+                assertNotNull(path + " lost the member", copies[i]);
+                assertEquals(path, expected, allFields(copies[i]));
+            }
+        }
+    }
+
+    @Test
+    public void membersOutOfRangeAreSkippedByEveryLoader() throws Exception {
+        // A negative attendance, loyalty points that do not fit, and two valid members around them
+        String[] ids = {"1", "2", "3", "4"};
+        String[] values = {"|7|12.5|", "|-1|12.5|", "|7|1.0E12|", "|7|12.5|"};
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            RegularMember member = new RegularMember(ids[i], "Member " + ids[i], "Kathmandu", "9800000000",
+                    "member@example.com", "Female", "2000-01-01", "2024-01-01", "Friend", 0, "Basic");
+            member.setAttendance(7);
+            member.setLoyaltyPoints(12.5);
+            lines.add(MemberRecordFormat.format(member).replace("|7|12.5|", values[i]));
+        }
+
+        File file = folder.newFile("members.docx");
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        MemberRepository read = new MemberRepository();
+        MemberRecordFormat.readFile(file, read);
+        MemberRepository loaded = new MemberRepository();
+        new ParallelMemberLoader().load(file, loaded, null);
+
+        File journalFile = new File(folder.getRoot(), "members.journal");
+        MemberJournal journal = new MemberJournal(journalFile);
+        journal.open(0, new MemberRepository());
+        for (int i = 0; i < ids.length; i++) {
+            journal.append(MemberJournal.ADD, ids[i], lines.get(i));
+        }
+        journal.close();
+        MemberRepository replayed = new MemberRepository();
+        new MemberJournal(journalFile).open(0, replayed);
+
+        MemberRepository[] results = {read, loaded, replayed};
+        String[] names = {"readFile", "ParallelMemberLoader", "journal replay"};
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(names[i], 2, results[i].size());
+            assertNotNull(names[i] + " lost member 1", results[i].findById("1"));
+            assertNotNull(names[i] + " lost member 4", results[i].findById("4"));
+        }
+    }
+
+    /**
+     * Builds a member of a random type with a random value in every field, taking the
+     * repeated attributes location, gender, referral source, plan and trainer from attributes
+     */
+    private static GymMember randomMember(Random random, int index, String[][] attributes) {
+        String id = index + randomText(random, false);
+        String location = pick(random, attributes[0]);
+        String gender = pick(random, attributes[1]);
+        String referralSource = pick(random, attributes[2]);
+        GymMember member;
+        if (random.nextBoolean()) {
+            RegularMember regularMember = new RegularMember(id, randomText(random, true), location,
+                    randomText(random, true), randomText(random, true), gender, randomText(random, true),
+                    randomText(random, true), referralSource, randomAmount(random), null);
+            regularMember.setPlan(pick(random, attributes[3]));
+            regularMember.setPrice(randomAmount(random));
+            regularMember.setEligibleForUpgrade(random.nextBoolean());
+            member = regularMember;
+        } else {
+            PremiumMember premiumMember = new PremiumMember(id, randomText(random, true), location,
+                    randomText(random, true), randomText(random, true), gender, randomText(random, true),
+                    randomText(random, true), referralSource, 0, pick(random, attributes[4]));
+            premiumMember.setPaidAmount(randomAmount(random));
+            premiumMember.setFullPayment(random.nextBoolean());
+            premiumMember.setDiscountAmount(randomAmount(random));
+            member = premiumMember;
+        }
+
+        member.setActive(random.nextBoolean());
+        member.setAttendance(random.nextInt(Integer.MAX_VALUE));
+        member.setLoyaltyPoints((random.nextLong() & 0xFFFFFFFFL) / 100.0);
+        member.setRemovalReason(randomText(random, true));
+        return member;
+    }
+
+    /**
+     * Returns one of the values at random
+     */
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Returns random text built from TEXT_PIECES, or sometimes null
+     */
+    private static String randomText(Random random, boolean maybeNull) {
+        if (maybeNull && random.nextInt(10) == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(8); i > 0; i--) {
+            sb.append(TEXT_PIECES[random.nextInt(TEXT_PIECES.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a random amount, sometimes a special value such as negative zero
+     */
+    private static double randomAmount(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return 0;
+            case 1:
+                return -0.0;
+            case 2:
+                return random.nextInt(100000);
+            case 3:
+                return random.nextDouble() * 1e-9;
+            case 4:
+                return random.nextDouble() * 1e12;
+            default:
+                return random.nextDouble() * 50000;
+        }
+    }
+
+    /**
+     * Returns every field of a member, compared with equals, so doubles must match exactly
+     */
+    private static List<Object> allFields(GymMember member) {
+        List<Object> fields = new ArrayList<>(Arrays.<Object>asList(member.getClass(), member.getId(),
+                member.getName(), member.getLocation(), member.getPhone(), member.getEmail(),
+                member.getGender(), member.getDob(), member.getDobEpochDay(), member.getMembershipStartDate(),
+                member.getMembershipStartEpochDay(), member.getReferralSource(), member.getPaidAmount(),
+                member.isActive(), member.getAttendance(), member.getLoyaltyPoints(), member.getRemovalReason()));
+        if (member instanceof RegularMember) {
+            RegularMember regularMember = (RegularMember) member;
+            fields.add(regularMember.getPlan());
+            fields.add(regularMember.getPrice());
+            fields.add(regularMember.isEligibleForUpgrade());
+        } else {
+            PremiumMember premiumMember = (PremiumMember) member;
+            fields.add(premiumMember.getPersonalTrainer());
+            fields.add(premiumMember.isFullPayment());
+            fields.add(premiumMember.getDiscountAmount());
+        }
+        return fields;
+    }
+}
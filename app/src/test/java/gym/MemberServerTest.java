@@ -0,0 +1,99 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * MemberServerTest class sends requests to a member server on a free port
+ */
+public class MemberServerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MemberService service;
+    private MemberServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        File dir = folder.getRoot();
+        service = new MemberService(new File(dir, "members.snapshot"), new File(dir, "members.docx"),
+                new File(dir, "members.journal"));
+        service.load();
+        service.addMember(new PremiumMember("1", "Sita", "Pokhara", "9811111111", "sita@example.com",
+                "Female", "1995-05-05", "2024-02-01", "Flyer", 0, "Kiran"));
+        server = new MemberServer(service, 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        service.close();
+    }
+
+    @Test
+    public void memberIsReturnedAsJson() throws Exception {
+        String json = request("GET", "/members/1");
+
+        assertTrue(json, json.startsWith("{\"id\":\"1\",\"name\":\"Sita\""));
+        assertTrue(json, json.contains("\"paidAmount\":0.0,\"fullPayment\":false"));
+    }
+
+    @Test
+    public void paymentReturnsMemberAfterPayment() throws Exception {
+        double charge = PremiumMember.PREMIUM_CHARGE;
+        String json = request("POST", "/members/1/payment?amount=" + charge);
+
+        assertTrue(json, json.startsWith("{\"status\":\"SUCCESS\""));
+        assertTrue(json, json.contains("\"paidAmount\":" + charge + ",\"fullPayment\":true"));
+    }
+
+    @Test
+    public void unknownMemberIsNotFound() throws Exception {
+        HttpURLConnection connection = open("GET", "/members/2");
+        assertEquals(404, connection.getResponseCode());
+        connection.disconnect();
+    }
+
+    /**
+     * Sends a request and returns the response body
+     */
+    private String request(String method, String path) throws IOException {
+        HttpURLConnection connection = open(method, path);
+        try {
+            assertEquals(200, connection.getResponseCode());
+            InputStream input = connection.getInputStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            input.close();
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String method, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+                .openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+}
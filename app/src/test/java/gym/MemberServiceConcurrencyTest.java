@@ -0,0 +1,165 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * MemberServiceConcurrencyTest class marks attendance singly and in batches, pays due
+ * amounts and deactivates and activates a few members from many threads at once, then
+ * checks that every successful change is reflected in the members, the attendance log,
+ * the member columns, the revenue totals and the members loaded back from the saved files
+ */
+public class MemberServiceConcurrencyTest {
+    // Threads, members and operations per thread
+    private static final int THREADS = 16;
+    private static final int MEMBERS = 4;
+    private static final int OPERATIONS = 20000;
+
+    // Amount of every payment
+    private static final double PAYMENT = 700;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void concurrentChangesAreNeitherLostNorReordered() throws Exception {
+        File dir = folder.getRoot();
+        // The journal is never compacted, so loading the members back replays every change
+        final MemberService service = new MemberService(new FileMemberStore(new File(dir, "members.snapshot"),
+                new File(dir, "members.docx"), new File(dir, "members.journal"), Integer.MAX_VALUE),
+                new File(dir, "members.attendance"));
+        service.load();
+
+        // Even IDs are premium members, odd IDs regular members
+        for (int i = 0; i < MEMBERS; i++) {
+            String id = String.valueOf(i + 1);
+            GymMember member = i % 2 == 0
+                    ? new PremiumMember(id, "Member " + id, "Kathmandu", "9800000000", "member@example.com",
+                            "Male", "2000-01-01", "2024-01-01", "Friend", 0, "Trainer")
+                    : new RegularMember(id, "Member " + id, "Kathmandu", "9800000000", "member@example.com",
+                            "Female", "2000-01-01", "2024-01-01", "Friend", 0, "Basic");
+            service.addMember(member);
+            service.activateMembership(id);
+        }
+
+        // Successful check-ins and payments per member, counted independently of the members
+        final AtomicIntegerArray checkIns = new AtomicIntegerArray(MEMBERS);
+        final AtomicIntegerArray payments = new AtomicIntegerArray(MEMBERS);
+        final List<String> allIds = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            allIds.add(String.valueOf(i + 1));
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < threads.length; t++) {
+            final Random random = new Random(t);
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        int index = random.nextInt(MEMBERS);
+                        String id = String.valueOf(index + 1);
+                        switch (random.nextInt(4)) {
+                            case 0:
+                                if (service.markAttendance(id).isSuccess()) {
+                                    checkIns.incrementAndGet(index);
+                                }
+                                break;
+                            case 1:
+                                if (service.payDueAmount(id, PAYMENT).isSuccess()) {
+                                    payments.incrementAndGet(index);
+                                }
+                                break;
+                            case 2:
+                                // Races with the deactivations, whose events must not overtake the check-ins
+                                BatchCheckInResult batch = service.checkInBatch(allIds);
+                                for (int j = 0; j < batch.size(); j++) {
+                                    if (batch.getOutcome(j) == BatchCheckInResult.Outcome.CHECKED_IN) {
+                                        checkIns.incrementAndGet(Integer.parseInt(batch.getId(j)) - 1);
+                                    }
+                                }
+                                break;
+                            default:
+                                service.deactivateMembership(id);
+                                service.activateMembership(id);
+                                break;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        service.close();
+
+        long checkedIn = 0;
+        for (int i = 0; i < MEMBERS; i++) {
+            GymMember member = service.findMember(String.valueOf(i + 1));
+            assertEquals("Lost attendance updates for member " + member.getId(),
+                    checkIns.get(i), member.getAttendance());
+            if (member instanceof PremiumMember) {
+                PremiumMember premiumMember = (PremiumMember) member;
+                assertEquals("Inconsistent payments for member " + member.getId(),
+                        payments.get(i) * PAYMENT, premiumMember.getPaidAmount(), 0);
+                assertTrue("Payments overshot the charge for member " + member.getId(),
+                        premiumMember.getPaidAmount() <= premiumMember.getPremiumCharge());
+            }
+            checkedIn += checkIns.get(i);
+        }
+
+        // Every check-in must be in the attendance log
+        assertEquals("Lost visits in the attendance log", checkedIn, service.getAttendanceLog().size());
+
+        // The member columns must match the members
+        int withDues = 0;
+        for (GymMember member : service.listMembers()) {
+            if (member instanceof PremiumMember && member.isActive()
+                    && member.getPaidAmount() < ((PremiumMember) member).getPremiumCharge()) {
+                withDues++;
+            }
+        }
+        assertEquals("Member columns out of date", withDues, service.findActivePremiumWithDues().size());
+
+        // The running revenue totals must match a fresh count of the members
+        RevenueTotals counted = new RevenueTotals();
+        for (GymMember member : service.listMembers()) {
+            counted.add(member);
+        }
+        RevenueTotals running = service.getRevenueReport(MemberAnalytics.Grouping.PLAN).getTotal();
+        assertEquals("Revenue totals out of date", counted.toString(), running.toString());
+
+        // Replaying the journal must give the same members
+        MemberService reloaded = new MemberService(new File(dir, "members.snapshot"),
+                new File(dir, "members.docx"), new File(dir, "members.journal"));
+        reloaded.load();
+        reloaded.close();
+        for (GymMember member : service.listMembers()) {
+            GymMember loaded = reloaded.findMember(member.getId());
+            assertNotNull("Member " + member.getId() + " did not load back", loaded);
+            assertEquals("Attendance of member " + member.getId(), member.getAttendance(), loaded.getAttendance());
+            assertEquals("Status of member " + member.getId(), member.isActive(), loaded.isActive());
+            assertEquals("Payments of member " + member.getId(), member.getPaidAmount(), loaded.getPaidAmount(), 0);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * MemberSnapshotTest class writes members to a snapshot file and opens it again,
+ * with and without damaged records
+ */
+public class MemberSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void membersReadBackFromFile() throws Exception {
+        MemberRepository members = SyntheticMembers.repository(500, 7);
+        File file = new File(folder.getRoot(), "members.snapshot");
+        MemberSnapshot.write(file, members, 42);
+
+        MemberSnapshot snapshot = MemberSnapshot.open(file);
+        assertEquals(42, snapshot.getGeneration());
+        assertEquals(members.size(), snapshot.size());
+        for (GymMember member : snapshot) {
+            assertEquals(MemberRecordFormat.format(members.findById(member.getId())),
+                    MemberRecordFormat.format(member));
+        }
+    }
+
+    @Test
+    public void damagedRecordIsSkipped() throws Exception {
+        MemberRepository members = SyntheticMembers.repository(10, 7);
+        ByteBuffer contents = MemberSnapshot.encode(members, 1);
+        File file = new File(folder.getRoot(), "members.snapshot");
+        MemberSnapshot.write(file, contents);
+
+        // The last byte belongs to the checksum of the last record
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        } finally {
+            raf.close();
+        }
+
+        MemberSnapshot snapshot = MemberSnapshot.open(file);
+        assertEquals(members.size() - 1, snapshot.size());
+        for (GymMember member : snapshot) {
+            assertEquals(MemberRecordFormat.format(members.findById(member.getId())),
+                    MemberRecordFormat.format(member));
+        }
+    }
+}
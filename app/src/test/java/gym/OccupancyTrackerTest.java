@@ -0,0 +1,68 @@
+package gym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * OccupancyTrackerTest class checks members in and out of one location with a small
+ * capacity from many threads, then checks the count against the members inside
+ */
+public class OccupancyTrackerTest {
+    // Threads, check-ins or check-outs per thread and member IDs used
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 20000;
+    private static final int MEMBERS = 1000;
+
+    private static final String LOCATION = "Kathmandu";
+
+    @Test
+    public void countMatchesMembersInsideAndNeverPassesCapacity() throws InterruptedException {
+        final OccupancyTracker tracker = new OccupancyTracker(OccupancyTracker.UNLIMITED);
+        final int capacity = 50;
+        tracker.setCapacity(LOCATION, capacity);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < threads.length; t++) {
+            final Random random = new Random(t);
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        String id = String.valueOf(random.nextInt(MEMBERS));
+                        if (random.nextBoolean()) {
+                            tracker.checkIn(id, LOCATION);
+                        } else {
+                            tracker.checkOut(id);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int inside = 0;
+        for (int i = 0; i < MEMBERS; i++) {
+            if (tracker.isInside(String.valueOf(i))) {
+                inside++;
+            }
+        }
+        OccupancyTracker.Occupancy occupancy = tracker.getOccupancy(LOCATION);
+        assertEquals(inside, occupancy.getCurrent());
+        assertTrue("Peak passed capacity: " + occupancy, occupancy.getPeakToday() <= capacity);
+    }
+}
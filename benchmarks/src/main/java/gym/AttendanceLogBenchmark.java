@@ -0,0 +1,97 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AttendanceLogBenchmark class measures recording visits in the attendance log and
+ * querying a log of several million visits, one every 3 seconds, by hour, by day and
+ * by member.
+ *
+ * Usage: java -jar benchmarks/target/benchmarks.jar AttendanceLogBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AttendanceLogBenchmark {
+    // Members and branches of the visits, and the visits in the log queried
+    private static final int VISITING_MEMBERS = 100000;
+    private static final String[] BRANCHES = {"Kathmandu", "Pokhara", "Lalitpur", "Bhaktapur"};
+    private static final int LOGGED_VISITS = 5000000;
+
+    private final Random random = new Random(42);
+    private final String[] ids = new String[VISITING_MEMBERS];
+    private File file;
+    private AttendanceLog log;
+    private long clock;
+    private long middle;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = String.valueOf(i + 1);
+        }
+
+        file = File.createTempFile("gym_benchmark", ".attendance");
+        file.delete();
+        log = AttendanceLog.open(file);
+        long first = LocalDate.of(2024, 1, 1).toEpochDay() * AttendanceLog.DAY;
+        clock = first;
+        for (int i = 0; i < LOGGED_VISITS; i++) {
+            clock += 3000;
+            log.record(ids[random.nextInt(ids.length)], BRANCHES[i & 3], clock);
+        }
+        log.sync();
+        middle = first + (clock - first) / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        file.delete();
+        new File(file.getPath() + ".branches").delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void logVisit() {
+        clock += 3000;
+        log.record(ids[random.nextInt(ids.length)], BRANCHES[(int) (clock & 3)], clock);
+    }
+
+    @Benchmark
+    public long[] visitsPerHour() throws IOException {
+        return log.countByHour(middle, middle + AttendanceLog.DAY, null);
+    }
+
+    @Benchmark
+    public long[] visitsPerDay() throws IOException {
+        return log.countByDay(middle, middle + 7 * AttendanceLog.DAY, BRANCHES[0]);
+    }
+
+    @Benchmark
+    public List<Long> memberVisits() throws IOException {
+        return log.findVisits(ids[random.nextInt(ids.length)], middle, middle + AttendanceLog.DAY);
+    }
+}
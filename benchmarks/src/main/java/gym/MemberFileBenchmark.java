@@ -0,0 +1,161 @@
+package gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MemberFileBenchmark class measures writing and reading the member files: the text
+ * data file, exports, the binary snapshot and delta saves. readFile, readFileChunked
+ * and readFileParallel compare loading the data file line by line with
+ * ParallelMemberLoader on one thread and on every core.
+ *
+ * Usage: java -jar benchmarks/target/benchmarks.jar MemberFileBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MemberFileBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private MemberRepository members;
+    private List<GymMember> memberList;
+    private File dir;
+    private File dataFile;
+    private File snapshotFile;
+    private File exportFile;
+    private ForkJoinPool singleThread;
+    private ParallelMemberLoader chunkedLoader;
+    private ParallelMemberLoader parallelLoader;
+    private MemberExporter exporter;
+
+    // One member in a hundred, as changed between two saves
+    private List<GymMember> changed;
+    private MemberDeltaLog deltaLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        members = SyntheticMembers.repository(size, 42);
+        memberList = new ArrayList<>(size);
+        for (GymMember member : members) {
+            memberList.add(member);
+        }
+
+        dir = File.createTempFile("gym_benchmark", "");
+        dir.delete();
+        dir.mkdir();
+        dataFile = new File(dir, "members.docx");
+        snapshotFile = new File(dir, "members.snapshot");
+        exportFile = new File(dir, "members.export");
+        MemberRecordFormat.writeFile(dataFile, members, 1);
+        MemberSnapshot.write(snapshotFile, members, 1);
+
+        singleThread = new ForkJoinPool(1);
+        chunkedLoader = new ParallelMemberLoader(singleThread, ParallelMemberLoader.CHUNK_BYTES);
+        parallelLoader = new ParallelMemberLoader();
+        exporter = new MemberExporter();
+
+        changed = new ArrayList<>();
+        for (int i = 0; i < memberList.size(); i += 100) {
+            changed.add(memberList.get(i));
+        }
+        deltaLog = new MemberDeltaLog(FileMemberStore.deltaFile(snapshotFile));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        singleThread.shutdown();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public byte[] encodeText() {
+        return MemberRecordFormat.encodeFile(members, 1);
+    }
+
+    @Benchmark
+    public void saveText() throws IOException {
+        MemberRecordFormat.writeFile(exportFile, members, 1);
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        return exporter.exportFile(memberList, exportFile, MemberExporter.Format.CSV, MemberFilter.ALL, null).getBytes();
+    }
+
+    @Benchmark
+    public long exportJson() throws IOException {
+        return exporter.exportFile(memberList, exportFile, MemberExporter.Format.JSON_LINES, MemberFilter.ALL, null)
+                .getBytes();
+    }
+
+    @Benchmark
+    public long exportNative() throws IOException {
+        return exporter.exportFile(memberList, exportFile, MemberExporter.Format.NATIVE, MemberFilter.ALL, null)
+                .getBytes();
+    }
+
+    @Benchmark
+    public int readFile() throws IOException {
+        return MemberRecordFormat.readFile(dataFile, new MemberRepository());
+    }
+
+    @Benchmark
+    public int readFileChunked() throws IOException {
+        return chunkedLoader.load(dataFile, new MemberRepository(), null);
+    }
+
+    @Benchmark
+    public int readFileParallel() throws IOException {
+        return parallelLoader.load(dataFile, new MemberRepository(), null);
+    }
+
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        MemberSnapshot.write(snapshotFile, members, 1);
+    }
+
+    @Benchmark
+    public int loadSnapshot() throws IOException {
+        MemberSnapshot snapshot = MemberSnapshot.open(snapshotFile);
+        MemberRepository loaded = new MemberRepository();
+        for (int i = 0; i < snapshot.size(); i++) {
+            loaded.add(snapshot.get(i));
+        }
+        return loaded.size();
+    }
+
+    @Benchmark
+    public int saveDelta() throws IOException {
+        deltaLog.reset();
+        deltaLog.append(MemberDeltaLog.encode(1, changed, new ArrayList<String>()));
+        return deltaLog.getRecords();
+    }
+}
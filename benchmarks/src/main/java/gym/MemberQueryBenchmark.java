@@ -0,0 +1,156 @@
+package gym;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MemberQueryBenchmark class measures the in-memory member operations: lookup,
+ * search, date queries, attendance marking, fee calculation, column scans and
+ * revenue totals, using members from SyntheticMembers.
+ *
+ * Usage: java -jar benchmarks/target/benchmarks.jar MemberQueryBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MemberQueryBenchmark {
+    // Queries typed into the search-as-you-type field
+    private static final String[] QUERIES = {"sh", "sita", "ram th", "9812", "maya.", "98-45", "12"};
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private MemberRepository members;
+    private MemberSearchIndex searchIndex;
+    private MemberDateIndex dateIndex;
+    private MemberAnalytics analytics;
+
+    /**
+     * Random choices of one benchmark thread, the same in every run
+     */
+    @State(Scope.Thread)
+    public static class Choices {
+        private final Random random = new Random(1);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        members = SyntheticMembers.repository(size, 42);
+        searchIndex = new MemberSearchIndex();
+        dateIndex = new MemberDateIndex();
+        for (GymMember member : members) {
+            searchIndex.add(member);
+            dateIndex.add(member);
+        }
+        analytics = MemberAnalytics.scan(members);
+    }
+
+    @Benchmark
+    public GymMember lookup(Choices choices) {
+        // One in ten lookups misses
+        return members.findById(String.valueOf(1 + choices.random.nextInt(size + size / 10)));
+    }
+
+    @Benchmark
+    public List<GymMember> search(Choices choices) {
+        // Top 10 matches, as shown by the search-as-you-type field
+        return searchIndex.search(QUERIES[choices.random.nextInt(QUERIES.length)], 10);
+    }
+
+    @Benchmark
+    public int birthdaysAndRenewalsThisWeek(Choices choices) {
+        LocalDate from = LocalDate.of(2025, 1, 1).plusDays(choices.random.nextInt(365));
+        return dateIndex.findBirthdaysBetween(from, from.plusDays(6)).size()
+                + dateIndex.findRenewalsDue(from, from.plusDays(6)).size();
+    }
+
+    @Benchmark
+    public int markAttendance(Choices choices) {
+        GymMember member = members.get(choices.random.nextInt(size));
+        member.markAttendance();
+        return member.getAttendance();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int markAttendanceContended(Choices choices) {
+        // A small range so threads keep hitting the same members
+        GymMember member = members.get(choices.random.nextInt(Math.min(size, 64)));
+        member.markAttendance();
+        return member.getAttendance();
+    }
+
+    @Benchmark
+    public double calculateFee() {
+        double total = 0;
+        for (GymMember member : members) {
+            total += member.calculateFee();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int duesScanObjects() {
+        // Active premium members with outstanding dues, visiting every member object
+        int found = 0;
+        for (GymMember member : members) {
+            if (member instanceof PremiumMember && member.isActive()) {
+                PremiumMember premiumMember = (PremiumMember) member;
+                if (premiumMember.getPaidAmount() < premiumMember.getPremiumCharge()) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int duesScanColumns() {
+        // The same query over the primitive member columns
+        return members.getColumns().findActivePremiumWithDues().length;
+    }
+
+    @Benchmark
+    public int[] groupByLocation() {
+        // Members per location from the dictionary codes in the member columns
+        return members.getColumns().countByLocation();
+    }
+
+    @Benchmark
+    public RevenueReport revenueScan() {
+        return MemberAnalytics.scan(members).report(MemberAnalytics.Grouping.LOCATION);
+    }
+
+    @Benchmark
+    public MemberAnalytics revenueUpdate(Choices choices) {
+        // A payment-like change to the running totals
+        GymMember member = members.get(choices.random.nextInt(size));
+        analytics.replace(MemberAnalytics.capture(member), member);
+        return analytics;
+    }
+
+    @Benchmark
+    public RevenueReport revenueReport() {
+        // The dashboard refresh after changes, from the running totals
+        return analytics.report(MemberAnalytics.Grouping.PLAN);
+    }
+}